@@ -0,0 +1,244 @@
+package org.skytech.systemdestudent.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.skytech.systemdestudent.config.SchemaMigrator;
+import org.skytech.systemdestudent.model.GradeScale;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * In-memory H2 database (MySQL mode) with the application schema, seeded
+ * with a deterministic data set, plus a Spring context holding the real
+ * repositories and services on top of it. With -Dbench.mysql.url set to a
+ * server URL such as jdbc:mysql://localhost:3306, a scratch MySQL database
+ * is created and dropped instead, for numbers that depend on the real
+ * engine (FULLTEXT search, for example).
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    static final int COURSES = 200;
+    static final int ENROLLMENTS_PER_STUDENT = 10;
+
+    private static final List<String> DEPARTMENTS = List.of(
+            "Computer Science", "Mathematics", "Physics", "Economics", "Education");
+    private static final List<String> SEMESTERS = List.of("Fall", "Spring", "Summer");
+    private static final List<String> GRADES = List.of(
+            "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "E", "F");
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private static final String MYSQL_URL = System.getProperty("bench.mysql.url");
+    private static final String MYSQL_USER = System.getProperty("bench.mysql.user", "root");
+    private static final String MYSQL_PASSWORD = System.getProperty("bench.mysql.password", "");
+
+    private final HikariDataSource dataSource;
+    private final AnnotationConfigApplicationContext context;
+    private final int studentCount;
+    private final String scratchDatabase;
+
+    private BenchmarkDatabase(HikariDataSource dataSource, AnnotationConfigApplicationContext context,
+                              int studentCount, String scratchDatabase) {
+        this.dataSource = dataSource;
+        this.context = context;
+        this.studentCount = studentCount;
+        this.scratchDatabase = scratchDatabase;
+    }
+
+    /**
+     * Creates and seeds a database with the given number of enrollments,
+     * ten per student across {@value #COURSES} courses.
+     */
+    public static BenchmarkDatabase create(int enrollments, Map<String, Object> properties) throws SQLException {
+        int students = Math.max(1, enrollments / ENROLLMENTS_PER_STUDENT);
+
+        String name = "srms_bench_" + System.nanoTime();
+        String scratchDatabase = null;
+
+        HikariConfig config = new HikariConfig();
+        if (MYSQL_URL != null) {
+            executeOnServer("CREATE DATABASE " + name);
+            scratchDatabase = name;
+            config.setJdbcUrl(MYSQL_URL + "/" + name + "?rewriteBatchedStatements=true");
+            config.setUsername(MYSQL_USER);
+            config.setPassword(MYSQL_PASSWORD);
+        } else {
+            config.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            config.setUsername("sa");
+        }
+        config.setMaximumPoolSize(8);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        try (Connection conn = dataSource.getConnection()) {
+            new SchemaMigrator(conn).migrate();
+            seed(conn, students);
+        }
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("benchmark", properties));
+        context.registerBean(DataSource.class, () -> dataSource);
+        context.scan("org.skytech.systemdestudent.repository", "org.skytech.systemdestudent.service");
+        context.refresh();
+
+        return new BenchmarkDatabase(dataSource, context, students, scratchDatabase);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public int getCourseCount() {
+        return COURSES;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        dataSource.close();
+        if (scratchDatabase != null) {
+            try {
+                executeOnServer("DROP DATABASE IF EXISTS " + scratchDatabase);
+            } catch (SQLException e) {
+                System.err.println("Failed to drop " + scratchDatabase + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void executeOnServer(String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(MYSQL_URL, MYSQL_USER, MYSQL_PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void seed(Connection conn, int students) throws SQLException {
+        conn.setAutoCommit(false);
+        Random random = new Random(42);
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO courses (course_code, course_title, credits, department, instructor)
+                VALUES (?, ?, ?, ?, ?)
+            """)) {
+            for (int c = 0; c < COURSES; c++) {
+                pstmt.setString(1, String.format("C%04d", c));
+                pstmt.setString(2, "Benchmark Course " + c);
+                pstmt.setInt(3, 1 + c % 4);
+                pstmt.setString(4, DEPARTMENTS.get(c % DEPARTMENTS.size()));
+                pstmt.setString(5, "Instructor " + c % 40);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO students (registration_number, first_name, last_name,
+                                      enrollment_date, email, department)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """)) {
+            for (int s = 0; s < students; s++) {
+                pstmt.setString(1, String.format("S%08d", s));
+                pstmt.setString(2, "First" + s);
+                pstmt.setString(3, "Last" + s % 5000);
+                pstmt.setDate(4, Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(s % 1500)));
+                pstmt.setString(5, "student" + s + "@example.edu");
+                pstmt.setString(6, DEPARTMENTS.get(s % DEPARTMENTS.size()));
+                pstmt.addBatch();
+                if ((s + 1) % SEED_BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+
+        // Ids are 1-based and dense because the tables were empty
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO enrollments (student_id, course_id, enrollment_date,
+                                         grade, semester, academic_year)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """)) {
+            int pending = 0;
+            for (int s = 0; s < students; s++) {
+                for (int k = 0; k < ENROLLMENTS_PER_STUDENT; k++) {
+                    // 13 * k mod 200 is distinct for k < 10, so no duplicate course per student
+                    int course = (s * 7 + k * 13) % COURSES;
+                    pstmt.setLong(1, s + 1);
+                    pstmt.setLong(2, course + 1);
+                    pstmt.setDate(3, Date.valueOf(LocalDate.of(2021, 9, 1).plusDays((s + k * 37) % 1200)));
+                    pstmt.setString(4, random.nextInt(10) < 7 ? GRADES.get(random.nextInt(GRADES.size())) : null);
+                    pstmt.setString(5, SEMESTERS.get(k % SEMESTERS.size()));
+                    pstmt.setString(6, (2021 + k / 3) + "/" + (2022 + k / 3));
+                    pstmt.addBatch();
+                    if (++pending % SEED_BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+            pstmt.executeBatch();
+        }
+
+        summarize(conn);
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    /**
+     * The raw inserts bypass GradeService, so build the academic summaries
+     * the way the migrations backfill them.
+     */
+    private static void summarize(Connection conn) throws SQLException {
+        StringBuilder points = new StringBuilder("CASE e.grade");
+        for (Map.Entry<String, BigDecimal> entry : GradeScale.points().entrySet()) {
+            points.append(" WHEN '").append(entry.getKey()).append("' THEN ").append(entry.getValue().toPlainString());
+        }
+        points.append(" END");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    INSERT INTO student_term_summary (student_id, academic_year, semester, total_courses,
+                                                      total_credits, graded_credits, quality_points)
+                    SELECT e.student_id, COALESCE(e.academic_year, ''), COALESCE(e.semester, ''),
+                           COUNT(*), SUM(c.credits),
+                           SUM(CASE WHEN e.grade IS NULL THEN 0 ELSE c.credits END),
+                           SUM(c.credits * COALESCE(%s, 0))
+                    FROM enrollments e
+                    JOIN courses c ON c.id = e.course_id
+                    GROUP BY e.student_id, COALESCE(e.academic_year, ''), COALESCE(e.semester, '')
+                """.formatted(points));
+            stmt.executeUpdate("""
+                    INSERT INTO student_academic_summary (student_id, total_courses, total_credits,
+                                                          graded_credits, quality_points)
+                    SELECT student_id, SUM(total_courses), SUM(total_credits),
+                           SUM(graded_credits), SUM(quality_points)
+                    FROM student_term_summary
+                    GROUP BY student_id
+                """);
+            for (String table : List.of("student_term_summary", "student_academic_summary")) {
+                stmt.executeUpdate("UPDATE " + table + " SET gpa = ROUND(quality_points / graded_credits, 3)"
+                        + " WHERE graded_credits > 0");
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar. Runs JMH with the given options and, unless
+ * -rf/-rff are passed, writes JSON results to
+ * benchmark-results/jmh-yyyyMMdd-HHmmss.json for use with CompareResults.
+ *
+ * Examples:
+ *   java -jar benchmarks.jar                                  (all sizes)
+ *   java -jar benchmarks.jar -p enrollments=100000 Repository
+ *   java -jar benchmarks.jar -p cache=true -p enrollments=1000
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(List.of(args));
+
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            Path directory = Path.of("benchmark-results");
+            Files.createDirectories(directory);
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+            options.add("-rf");
+            options.add("json");
+            options.add("-rff");
+            options.add(directory.resolve("jmh-" + stamp + ".json").toString());
+        }
+
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,81 @@
+package org.skytech.systemdestudent.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints a side-by-side comparison of two JMH JSON result files.
+ *
+ * Usage: CompareResults baseline.json current.json
+ *
+ * Scores are matched by benchmark name and parameters. For time-per-op
+ * modes a negative change is an improvement.
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json>");
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s  %s%n",
+                        entry.getKey(), "-", now.value(), "new", now.unit());
+            } else {
+                double change = (now.value() - before.value()) / before.value() * 100.0;
+                System.out.printf("%-80s %14.3f %14.3f %+8.1f%%  %s%n",
+                        entry.getKey(), before.value(), now.value(), change, now.unit());
+            }
+        }
+
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-80s %14.3f %14s %9s%n", name, baseline.get(name).value(), "-", "removed");
+            }
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            String name = result.path("benchmark").asText()
+                    .replace("org.skytech.systemdestudent.benchmark.", "");
+
+            Map<String, String> params = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(params.isEmpty() ? name : name + " " + params,
+                    new Score(metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+        }
+
+        return scores;
+    }
+
+    private record Score(double value, String unit) {
+    }
+}
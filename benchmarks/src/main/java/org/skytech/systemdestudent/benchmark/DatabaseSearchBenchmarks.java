@@ -0,0 +1,73 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.repository.SearchMode;
+import org.skytech.systemdestudent.repository.StudentRepository;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side student and course search, FULLTEXT against '%term%' scans.
+ * H2 has no FULLTEXT index, so both modes run LIKE there; run against MySQL
+ * (-Dbench.mysql.url) for the comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseSearchBenchmarks {
+
+    private static final int PAGE_SIZE = 50;
+
+    // "17" is below the FULLTEXT token size, so this mixes MATCH with LIKE
+    private static final String COURSE_QUERY = "Instructor 17";
+
+    @Param({"FULLTEXT", "LIKE"})
+    public SearchMode mode;
+
+    // A rare surname, a department shared by a fifth of the students, and two words
+    @Param({"Last4321", "Physics", "First42 Last42"})
+    public String query;
+
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        studentRepository = db.database.bean(StudentRepository.class);
+        courseRepository = db.database.bean(CourseRepository.class);
+    }
+
+    @Benchmark
+    public Page<Student> searchStudents() throws SQLException {
+        return studentRepository.search(query, mode, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Student> searchStudentsSecondPage() throws SQLException {
+        Page<Student> first = studentRepository.search(query, mode, null, PAGE_SIZE);
+        return first.hasNext() ? studentRepository.search(query, mode, first.nextCursor(), PAGE_SIZE) : first;
+    }
+
+    @Benchmark
+    public Page<Course> searchCourses() throws SQLException {
+        return courseRepository.search(COURSE_QUERY, mode, null, PAGE_SIZE);
+    }
+}
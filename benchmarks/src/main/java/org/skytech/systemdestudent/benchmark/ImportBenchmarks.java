@@ -0,0 +1,125 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.service.ImportReport;
+import org.skytech.systemdestudent.service.ImportService;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import of a {@value #ROWS}-row CSV file, one import per call; divide
+ * ROWS by the time per call for rows per second. Imported rows are removed
+ * after each call so every call imports the whole file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ImportBenchmarks {
+
+    static final int ROWS = 50_000;
+
+    private static final String IMPORT_SEMESTER = "Import";
+    private static final String IMPORT_REG_NO_PREFIX = "IMP";
+
+    @Param({"false", "true"})
+    public boolean dryRun;
+
+    private ImportService importService;
+    private DataSource dataSource;
+    private Path studentsFile;
+    private Path enrollmentsFile;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase db) throws IOException {
+        importService = db.database.bean(ImportService.class);
+        dataSource = db.database.getDataSource();
+
+        studentsFile = Files.createTempFile("srms-import-students", ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(studentsFile, StandardCharsets.UTF_8))) {
+            out.println("registration_number,first_name,last_name,enrollment_date,email,department");
+            for (int i = 0; i < ROWS; i++) {
+                out.printf("%s%08d,First%d,Last%d,2024-09-%02d,import%d@example.edu,Computer Science%n",
+                        IMPORT_REG_NO_PREFIX, i, i, i % 5000, 1 + i % 28, i);
+            }
+        }
+
+        // Existing students and courses, each pair in its own academic year to keep the unique key free
+        int students = db.database.getStudentCount();
+        enrollmentsFile = Files.createTempFile("srms-import-enrollments", ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(enrollmentsFile, StandardCharsets.UTF_8))) {
+            out.println("registration_number,course_code,enrollment_date,grade,semester,academic_year");
+            for (int i = 0; i < ROWS; i++) {
+                out.printf("S%08d,C%04d,2024-09-01,%s,%s,Y%d%n",
+                        i % students, i % BenchmarkDatabase.COURSES, i % 3 == 0 ? "" : "B+",
+                        IMPORT_SEMESTER, i);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(studentsFile);
+        Files.deleteIfExists(enrollmentsFile);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeImportedRows() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM enrollments WHERE semester = '" + IMPORT_SEMESTER + "'");
+            stmt.executeUpdate("DELETE FROM students WHERE registration_number LIKE '"
+                    + IMPORT_REG_NO_PREFIX + "%'");
+        }
+    }
+
+    @Benchmark
+    public ImportReport importStudents() throws IOException, SQLException {
+        return run(ImportService.Kind.STUDENTS, studentsFile);
+    }
+
+    @Benchmark
+    public ImportReport importEnrollments() throws IOException, SQLException {
+        return run(ImportService.Kind.ENROLLMENTS, enrollmentsFile);
+    }
+
+    private ImportReport run(ImportService.Kind kind, Path file) throws IOException, SQLException {
+        ImportReport report = importService.importFile(kind, file, dryRun, null, new ImportService.Progress() {
+            @Override
+            public void rowsProcessed(long rows, double fraction) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+        if (report.rejected() > 0) {
+            throw new IllegalStateException(report.rejected() + " rows rejected, first: " + report.samples().get(0));
+        }
+        return report;
+    }
+}
@@ -0,0 +1,157 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.GradeDistribution;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.StudentRepository;
+import org.skytech.systemdestudent.service.EnrollmentService;
+import org.skytech.systemdestudent.service.GradeService;
+import org.skytech.systemdestudent.service.ReportExporter;
+import org.skytech.systemdestudent.service.ReportService;
+import org.skytech.systemdestudent.service.TranscriptBatchExporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report generation: the text builders alone, and end to end with the queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ReportBenchmarks {
+
+    private static final TranscriptBatchExporter.Progress NO_BATCH_PROGRESS = new TranscriptBatchExporter.Progress() {
+        @Override
+        public void transcriptsWritten(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    private static final ReportExporter.Progress NO_PROGRESS = new ReportExporter.Progress() {
+        @Override
+        public void rowsWritten(long rows) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    private ReportService reportService;
+    private ReportExporter reportExporter;
+    private TranscriptBatchExporter transcriptBatchExporter;
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+    private EnrollmentService enrollmentService;
+    private Path exportFile;
+
+    private Student student;
+    private List<Enrollment> studentEnrollments;
+    private AcademicSummary studentSummary;
+    private GradeDistribution distribution;
+
+    @Setup
+    public void setUp(SeededDatabase db) throws SQLException, IOException {
+        reportService = db.database.bean(ReportService.class);
+        reportExporter = db.database.bean(ReportExporter.class);
+        transcriptBatchExporter = db.database.bean(TranscriptBatchExporter.class);
+        studentRepository = db.database.bean(StudentRepository.class);
+        courseRepository = db.database.bean(CourseRepository.class);
+        enrollmentService = db.database.bean(EnrollmentService.class);
+        exportFile = Files.createTempFile("srms-report", ".tmp");
+
+        student = studentRepository.findById(1L).orElseThrow();
+        studentEnrollments = enrollmentService.getEnrollmentsByStudent(student.getId());
+        studentSummary = db.database.bean(GradeService.class).getAcademicSummary(student.getId());
+        distribution = enrollmentService.gradeDistribution(null, null);
+    }
+
+    @Benchmark
+    public String buildTranscript() {
+        return reportService.buildTranscript(student, studentEnrollments, studentSummary);
+    }
+
+    @Benchmark
+    public String buildSummary() {
+        return reportService.buildSummary("Fall", "2021/2022", distribution);
+    }
+
+    @Benchmark
+    public String generateTranscript(SeededDatabase db) throws SQLException {
+        Student randomStudent = studentRepository.findById(db.randomStudentId()).orElseThrow();
+        return reportService.generateTranscript(randomStudent);
+    }
+
+    @Benchmark
+    public String generateSummary() throws SQLException {
+        return reportService.generateSummary(null, null);
+    }
+
+    @Benchmark
+    public List<Enrollment> courseRoster(SeededDatabase db) throws SQLException {
+        return enrollmentService.getEnrollmentsByCourse(db.randomCourseId());
+    }
+
+    @Benchmark
+    public long exportRosterCsv(SeededDatabase db) throws SQLException, IOException {
+        return exportRoster(db, ReportExporter.Format.CSV);
+    }
+
+    @Benchmark
+    public long exportRosterXlsx(SeededDatabase db) throws SQLException, IOException {
+        return exportRoster(db, ReportExporter.Format.XLSX);
+    }
+
+    @Benchmark
+    public long exportRosterPdf(SeededDatabase db) throws SQLException, IOException {
+        return exportRoster(db, ReportExporter.Format.PDF);
+    }
+
+    /**
+     * One department's 2021 cohort, about a twentieth of the students, as a
+     * zip of CSV transcripts.
+     */
+    @Benchmark
+    public long exportCohortTranscripts() throws SQLException, IOException {
+        return transcriptBatchExporter.export(new TranscriptBatchExporter.Selection("Mathematics", 2021),
+                ReportExporter.Format.CSV, TranscriptBatchExporter.Target.ZIP, exportFile,
+                NO_BATCH_PROGRESS).transcripts();
+    }
+
+    @TearDown
+    public void deleteExportFile() throws IOException {
+        Files.deleteIfExists(exportFile);
+    }
+
+    private long exportRoster(SeededDatabase db, ReportExporter.Format format) throws SQLException, IOException {
+        Course course = courseRepository.findById(db.randomCourseId()).orElseThrow();
+        return reportExporter.export(new ReportExporter.Roster(course), format, exportFile, NO_PROGRESS);
+    }
+}
@@ -0,0 +1,113 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.EnrollmentRepository;
+import org.skytech.systemdestudent.repository.EnrollmentSort;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.repository.StudentRepository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository reads against the seeded database. The streaming queries
+ * (forEach/stream) are not covered: they rely on Connector/J's row
+ * streaming, which H2 does not support.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class RepositoryBenchmarks {
+
+    private StudentRepository students;
+    private CourseRepository courses;
+    private EnrollmentRepository enrollments;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        students = db.database.bean(StudentRepository.class);
+        courses = db.database.bean(CourseRepository.class);
+        enrollments = db.database.bean(EnrollmentRepository.class);
+    }
+
+    @Benchmark
+    public List<Student> studentFindAll() throws SQLException {
+        return students.findAll();
+    }
+
+    @Benchmark
+    public Optional<Student> studentFindById(SeededDatabase db) throws SQLException {
+        return students.findById(db.randomStudentId());
+    }
+
+    @Benchmark
+    public Page<Student> studentFirstPage() throws SQLException {
+        return students.page(null, 200);
+    }
+
+    @Benchmark
+    public List<Course> courseFindAll() throws SQLException {
+        return courses.findAll();
+    }
+
+    @Benchmark
+    public List<Enrollment> enrollmentFindByCourseId(SeededDatabase db) throws SQLException {
+        return enrollments.findByCourseId(db.randomCourseId());
+    }
+
+    @Benchmark
+    public List<Enrollment> enrollmentFindByStudentId(SeededDatabase db) throws SQLException {
+        return enrollments.findByStudentId(db.randomStudentId());
+    }
+
+    @Benchmark
+    public Page<Enrollment> enrollmentFirstPage() throws SQLException {
+        return enrollments.page(null, 200);
+    }
+
+    // Lazy table pages: a sorted page, and a jump to the middle of the list
+    @Benchmark
+    public Page<Enrollment> enrollmentPageByGrade() throws SQLException {
+        return enrollments.page(EnrollmentSort.GRADE, false, null, 100);
+    }
+
+    @Benchmark
+    public Page<Enrollment> enrollmentPageAtMiddle(SeededDatabase db) throws SQLException {
+        String cursor = enrollments.cursorAt(EnrollmentSort.ENROLLMENT_DATE, true, db.enrollments / 2);
+        return enrollments.page(EnrollmentSort.ENROLLMENT_DATE, true, cursor, 100);
+    }
+
+    @Benchmark
+    public Map<String, Long> enrollmentCountByGrade() throws SQLException {
+        return enrollments.countByGrade(null, null);
+    }
+
+    @Benchmark
+    public Map<String, Long> enrollmentCountByGradeForSemester() throws SQLException {
+        return enrollments.countByGrade("Fall", "2021/2022");
+    }
+
+    @Benchmark
+    public Map<String, Long> enrollmentCountByTerm() throws SQLException {
+        return enrollments.countByTerm();
+    }
+}
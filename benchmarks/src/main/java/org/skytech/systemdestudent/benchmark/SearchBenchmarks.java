@@ -0,0 +1,81 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.service.EnrollmentService;
+import org.skytech.systemdestudent.service.SearchIndex;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory table search: one query against the loaded enrollments, the
+ * keystroke sequence of typing it, and applying the result to every row the
+ * way a FilteredList does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class SearchBenchmarks {
+
+    @Param({"last12", "c01", "reg:s000"})
+    public String query;
+
+    private List<Enrollment> enrollments;
+    private SearchIndex<Enrollment> index;
+
+    @Setup
+    public void setUp(SeededDatabase db) throws SQLException {
+        enrollments = db.database.bean(EnrollmentService.class).getAllEnrollments();
+        index = new SearchIndex<>(Enrollment::getId)
+                .field("reg", Enrollment::getStudentRegNo)
+                .field("student", Enrollment::getStudentName)
+                .field("code", Enrollment::getCourseCode)
+                .field("course", Enrollment::getCourseTitle)
+                .field("semester", Enrollment::getSemester)
+                .field("year", Enrollment::getAcademicYear)
+                .field("grade", Enrollment::getGrade);
+        index.setAll(enrollments);
+    }
+
+    @Benchmark
+    public SearchIndex.Matches<Enrollment> search() {
+        index.search("");
+        return index.search(query);
+    }
+
+    @Benchmark
+    public SearchIndex.Matches<Enrollment> typeQuery() {
+        SearchIndex.Matches<Enrollment> matches = index.search("");
+        for (int length = 1; length <= query.length(); length++) {
+            matches = index.search(query.substring(0, length));
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int filterRows() {
+        SearchIndex.Matches<Enrollment> matches = index.search(query);
+        int shown = 0;
+        for (Enrollment enrollment : enrollments) {
+            if (matches.test(enrollment)) {
+                shown++;
+            }
+        }
+        return shown;
+    }
+}
@@ -0,0 +1,49 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared benchmark state: one seeded database per parameter combination.
+ * The entity cache is off by default so repository numbers reflect SQL;
+ * run with -p cache=true to measure the cached path.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    @Param({"false"})
+    public String cache;
+
+    BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(enrollments, Map.of(
+                "app.cache.enabled", cache,
+                "app.statistics.cache-ttl-seconds", "0",
+                "app.jdbc.slow-query.enabled", "false"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    long randomStudentId() {
+        return 1 + ThreadLocalRandom.current().nextInt(database.getStudentCount());
+    }
+
+    long randomCourseId() {
+        return 1 + ThreadLocalRandom.current().nextInt(database.getCourseCount());
+    }
+}
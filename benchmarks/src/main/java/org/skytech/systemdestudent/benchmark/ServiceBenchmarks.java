@@ -0,0 +1,80 @@
+package org.skytech.systemdestudent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skytech.systemdestudent.model.DashboardStatistics;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.GradeDistribution;
+import org.skytech.systemdestudent.service.EnrollmentService;
+import org.skytech.systemdestudent.service.StatisticsService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level operations, including validation and existence checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ServiceBenchmarks {
+
+    // Rows inserted by saveEnrollment use this semester and are removed after each iteration
+    private static final String BENCHMARK_SEMESTER = "Benchmark";
+
+    private EnrollmentService enrollmentService;
+    private StatisticsService statisticsService;
+    private DataSource dataSource;
+    private long sequence;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        enrollmentService = db.database.bean(EnrollmentService.class);
+        statisticsService = db.database.bean(StatisticsService.class);
+        dataSource = db.database.getDataSource();
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeInsertedRows() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM enrollments WHERE semester = '" + BENCHMARK_SEMESTER + "'");
+        }
+    }
+
+    @Benchmark
+    public Enrollment saveEnrollment(SeededDatabase db) throws SQLException {
+        // A fresh academic year per call keeps the unique key free
+        Enrollment enrollment = new Enrollment(null, db.randomStudentId(), db.randomCourseId(),
+                LocalDate.now(), null, BENCHMARK_SEMESTER, "B" + sequence++);
+        return enrollmentService.saveEnrollment(enrollment);
+    }
+
+    @Benchmark
+    public GradeDistribution gradeDistribution() throws SQLException {
+        return enrollmentService.gradeDistribution(null, null);
+    }
+
+    @Benchmark
+    public DashboardStatistics dashboardStatistics() throws SQLException {
+        // TTL is 0 in the benchmark context, so every call recomputes
+        return statisticsService.getStatistics();
+    }
+}
@@ -11,8 +11,15 @@ module org.skytech.systemdestudent {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
     requires java.sql;
+    requires java.xml;
+    requires org.slf4j;
+    requires com.zaxxer.hikari;
+    requires org.apache.poi.poi;
+    requires org.apache.poi.ooxml;
+    requires spring.core;
     requires spring.context;
     requires spring.beans;
+    requires spring.aop;
     requires spring.boot.autoconfigure;
     requires spring.boot;
 
@@ -5,7 +5,6 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import org.skytech.systemdestudent.config.DatabaseConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -17,12 +16,8 @@ public class SRMSApplication extends Application {
     private Parent root;
 
     public static void main(String[] args) {
-        // Initialize database before launching JavaFX
-        System.out.println("Initializing database...");
-        DatabaseConfig.initializeDatabase();
-        System.out.println("Database initialization complete!");
-
-        // Launch JavaFX application
+        // Launch JavaFX application; the database is created and migrated
+        // along with the DataSource when the Spring context starts in init()
         launch(args);
     }
 
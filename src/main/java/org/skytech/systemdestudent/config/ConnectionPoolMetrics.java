@@ -0,0 +1,82 @@
+package org.skytech.systemdestudent.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool statistics from HikariCP.
+ * Registered as the pool's MetricsTrackerFactory in DatabaseConfig, so every
+ * connection checkout reports its acquire latency here. The latency is also
+ * charged to whichever repository or service call is waiting for it.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final MetricsRegistry metrics;
+
+    private volatile PoolStats poolStats;
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanosTotal = new LongAdder();
+    private final AtomicLong acquireNanosMax = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    @Autowired
+    public ConnectionPoolMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanosTotal.add(elapsedAcquiredNanos);
+                acquireNanosMax.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+                metrics.recordConnectionAcquired(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+                metrics.counter("pool.connection-timeouts").increment();
+            }
+        };
+    }
+
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquireCount.sum();
+        double avgMillis = count == 0 ? 0.0 :
+                (double) acquireNanosTotal.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+        double maxMillis = (double) acquireNanosMax.get() / TimeUnit.MILLISECONDS.toNanos(1);
+
+        if (stats == null) {
+            return new Snapshot(0, 0, 0, 0, count, avgMillis, maxMillis, timeoutCount.sum());
+        }
+
+        return new Snapshot(
+                stats.getActiveConnections(),
+                stats.getIdleConnections(),
+                stats.getPendingThreads(),
+                stats.getTotalConnections(),
+                count,
+                avgMillis,
+                maxMillis,
+                timeoutCount.sum());
+    }
+
+    public record Snapshot(int active, int idle, int waiting, int total,
+                           long acquired, double avgAcquireMillis,
+                           double maxAcquireMillis, long timeouts) {
+    }
+}
@@ -1,136 +1,92 @@
 package org.skytech.systemdestudent.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
-import java.sql.*;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 @Component
 //@Configuration
 @Configuration(proxyBeanMethods = false)
 public class DatabaseConfig {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/";
-    private static final String DB_NAME = "srms_db";
-    private static final String FULL_DB_URL = DB_URL + DB_NAME;
-    private static final String USER = "root";
-    private static final String PASS = ""; // Update with your MySQL password
-
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(FULL_DB_URL, USER, PASS);
-    }
-
-    public static void initializeDatabase() {
-        // Step 1: Create database if not exists
-        try (Connection conn = DriverManager.getConnection(DB_URL, USER, PASS);
-             Statement stmt = conn.createStatement()) {
-
-            String createDbSql = "CREATE DATABASE IF NOT EXISTS " + DB_NAME;
-            stmt.executeUpdate(createDbSql);
-            System.out.println("Database created/verified: " + DB_NAME);
-
-        } catch (SQLException e) {
-            System.err.println("Error creating database: " + e.getMessage());
-            e.printStackTrace();
-            return;
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/srms_db";
+    private static final String DEFAULT_USER = "root";
+
+    /**
+     * Pooled DataSource shared by all repositories. Settings come from the
+     * spring.datasource.* keys in application.properties. Pending schema
+     * migrations are applied on one of its connections before it is handed
+     * to the repositories; if one fails, the pool is closed and startup stops
+     * rather than running on a half-migrated schema.
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(Environment env, ConnectionPoolMetrics poolMetrics) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        String url = env.getProperty("spring.datasource.url", DEFAULT_URL);
+        config.setJdbcUrl(url);
+        config.setUsername(env.getProperty("spring.datasource.username", DEFAULT_USER));
+        config.setPassword(env.getProperty("spring.datasource.password", ""));
+        config.setDriverClassName(env.getProperty("spring.datasource.driver-class-name",
+                "com.mysql.cj.jdbc.Driver"));
+
+        config.setPoolName(env.getProperty("spring.datasource.hikari.pool-name", "SRMS-Pool"));
+        config.setMaximumPoolSize(env.getProperty("spring.datasource.hikari.maximum-pool-size",
+                Integer.class, 10));
+        config.setMinimumIdle(env.getProperty("spring.datasource.hikari.minimum-idle",
+                Integer.class, 5));
+        config.setConnectionTimeout(env.getProperty("spring.datasource.hikari.connection-timeout",
+                Long.class, 30000L));
+        config.setIdleTimeout(env.getProperty("spring.datasource.hikari.idle-timeout",
+                Long.class, 600000L));
+        config.setMaxLifetime(env.getProperty("spring.datasource.hikari.max-lifetime",
+                Long.class, 1800000L));
+
+        // Connector/J statement cache: keep server-side prepared statements alive per
+        // pooled connection so repeated repository SQL is parsed by MySQL only once
+        config.addDataSourceProperty("useServerPrepStmts",
+                env.getProperty("app.jdbc.server-prepared-statements", "true"));
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize",
+                env.getProperty("app.jdbc.statement-cache-size", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit",
+                env.getProperty("app.jdbc.statement-cache-sql-limit", "2048"));
+
+        // Lets Connector/J send a JDBC batch of INSERTs as one multi-row statement
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        // Creates the database named in the URL on first connect, with the same credentials
+        if (url.startsWith("jdbc:mysql:")) {
+            config.addDataSourceProperty("createDatabaseIfNotExist", "true");
         }
 
-        // Step 2: Create tables in the database
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // Create Students table
-            String createStudentsTable = """
-                CREATE TABLE IF NOT EXISTS students (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    registration_number VARCHAR(50) UNIQUE NOT NULL,
-                    first_name VARCHAR(100) NOT NULL,
-                    last_name VARCHAR(100) NOT NULL,
-                    enrollment_date DATE NOT NULL,
-                    email VARCHAR(100),
-                    date_of_birth DATE,
-                    department VARCHAR(100),
-                    phone_number VARCHAR(20),
-                    address TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-                )
-            """;
-            stmt.executeUpdate(createStudentsTable);
-            System.out.println("Students table created/verified");
-
-            // Create Courses table
-            String createCoursesTable = """
-                CREATE TABLE IF NOT EXISTS courses (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    course_code VARCHAR(20) UNIQUE NOT NULL,
-                    course_title VARCHAR(200) NOT NULL,
-                    credits INT NOT NULL,
-                    course_description TEXT,
-                    department VARCHAR(100),
-                    prerequisites TEXT,
-                    instructor VARCHAR(100),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-                )
-            """;
-            stmt.executeUpdate(createCoursesTable);
-            System.out.println("Courses table created/verified");
-
-            // Create Enrollments table
-            String createEnrollmentsTable = """
-                CREATE TABLE IF NOT EXISTS enrollments (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    student_id BIGINT NOT NULL,
-                    course_id BIGINT NOT NULL,
-                    enrollment_date DATE NOT NULL,
-                    grade VARCHAR(5),
-                    semester VARCHAR(20),
-                    academic_year VARCHAR(20),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
-                    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
-                    UNIQUE KEY unique_enrollment (student_id, course_id, semester, academic_year)
-                )
-            """;
-            stmt.executeUpdate(createEnrollmentsTable);
-            System.out.println("Enrollments table created/verified");
+        config.setMetricsTrackerFactory(poolMetrics);
 
-            // Create Grades table for detailed grade tracking
-            String createGradesTable = """
-                CREATE TABLE IF NOT EXISTS grades (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    enrollment_id BIGINT NOT NULL,
-                    grade_value VARCHAR(5) NOT NULL,
-                    grade_point DECIMAL(3,2),
-                    remarks TEXT,
-                    graded_date DATE,
-                    graded_by VARCHAR(100),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                    FOREIGN KEY (enrollment_id) REFERENCES enrollments(id) ON DELETE CASCADE
-                )
-            """;
-            stmt.executeUpdate(createGradesTable);
-            System.out.println("Grades table created/verified");
-
-            System.out.println("Database initialization completed successfully!");
-
-        } catch (SQLException e) {
-            System.err.println("Error creating tables: " + e.getMessage());
-            e.printStackTrace();
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            migrate(dataSource);
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error migrating database schema: " + e.getMessage());
+            dataSource.close();
+            throw e;
         }
+        return dataSource;
     }
 
-    public static String getDbUrl() {
-        return FULL_DB_URL;
-    }
+    private static void migrate(DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
 
-    public static String getUser() {
-        return USER;
-    }
+            int applied = new SchemaMigrator(conn).migrate();
+            System.out.println(applied == 0
+                    ? "Database schema is up to date"
+                    : "Applied " + applied + " schema migration(s)");
 
-    public static String getPassword() {
-        return PASS;
+            System.out.println("Database initialization completed successfully!");
+        }
     }
-}
\ No newline at end of file
+}
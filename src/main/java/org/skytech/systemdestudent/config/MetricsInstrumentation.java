@@ -0,0 +1,114 @@
+package org.skytech.systemdestudent.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.skytech.systemdestudent.repository.Page;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wraps every repository and service bean in a proxy that times its database
+ * calls in the MetricsRegistry, one timer per "ClassName.method".
+ *
+ * Only public methods declaring SQLException are timed; accessors such as
+ * cacheStats() or the pure report builders pass straight through.
+ */
+@Component
+public class MetricsInstrumentation implements BeanPostProcessor {
+
+    private static final String APP_PACKAGE = "org.skytech.systemdestudent";
+
+    private final MetricsRegistry metrics;
+    private final boolean enabled;
+
+    @Autowired
+    public MetricsInstrumentation(MetricsRegistry metrics,
+                                  @Value("${app.metrics.enabled:true}") boolean enabled) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = ClassUtils.getUserClass(bean);
+        if (!enabled || !type.getPackageName().startsWith(APP_PACKAGE)) {
+            return bean;
+        }
+        if (!AnnotatedElementUtils.hasAnnotation(type, Repository.class)
+                && !AnnotatedElementUtils.hasAnnotation(type, Service.class)) {
+            return bean;
+        }
+
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new TimingInterceptor(type.getSimpleName()));
+        return factory.getProxy(type.getClassLoader());
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+
+        private final String prefix;
+
+        private TimingInterceptor(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (!Arrays.asList(method.getExceptionTypes()).contains(SQLException.class)) {
+                return invocation.proceed();
+            }
+
+            MetricsRegistry.Scope scope = metrics.start(prefix + "." + method.getName());
+            try {
+                Object result = invocation.proceed();
+                scope.rows(rowCount(result));
+                return result;
+            } catch (Throwable e) {
+                scope.failed();
+                throw e;
+            } finally {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * Rows carried by a repository or service result, or -1 when the result is
+     * not a row set (counts, streams, void).
+     */
+    static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Page<?> page) {
+            return page.items().size();
+        }
+        if (result instanceof BatchResult<?> batch) {
+            return batch.getSuccessCount();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,259 @@
+package org.skytech.systemdestudent.config;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics: named counters, histograms and timers.
+ *
+ * Repository and service calls are timed through {@link #start(String)} by
+ * MetricsInstrumentation. Each timed operation records its latency, the rows it
+ * returned, how long it waited for pooled connections and whether it failed.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    // Operations currently running on this thread, innermost last
+    private final ThreadLocal<Deque<Scope>> activeScopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /**
+     * Starts timing an operation on the calling thread. The returned scope must be
+     * closed on the same thread, normally in a finally block.
+     */
+    public Scope start(String name) {
+        Scope scope = new Scope(name, timer(name));
+        activeScopes.get().addLast(scope);
+        return scope;
+    }
+
+    /**
+     * Charges a connection checkout to every operation running on this thread,
+     * so a service call includes the waits of the repository calls it makes.
+     */
+    public void recordConnectionAcquired(long nanos) {
+        for (Scope scope : activeScopes.get()) {
+            scope.acquireNanos += nanos;
+        }
+    }
+
+    /**
+     * Snapshot of every timer, slowest total time first.
+     */
+    public List<OperationSnapshot> operations() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        timers.forEach((name, timer) -> snapshots.add(timer.snapshot(name)));
+        snapshots.sort(Comparator.comparingDouble(OperationSnapshot::totalMillis).reversed());
+        return snapshots;
+    }
+
+    public Map<String, Long> counterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.value()));
+        return values;
+    }
+
+    public LocalDateTime getSince() {
+        return since;
+    }
+
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+        timers.values().forEach(Timer::reset);
+        since = LocalDateTime.now();
+    }
+
+    /**
+     * Writes all timers as CSV (times in milliseconds) followed by the counters.
+     */
+    public void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# Metrics since " + since + ", written " + LocalDateTime.now());
+            out.println("operation,calls,errors,mean_ms,p50_ms,p95_ms,p99_ms,max_ms,total_ms,"
+                    + "rows_total,rows_mean,acquire_mean_ms,acquire_max_ms");
+            for (OperationSnapshot op : operations()) {
+                out.printf(Locale.ROOT,
+                        "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%.1f,%.3f,%.3f%n",
+                        op.name(), op.calls(), op.errors(), op.meanMillis(), op.p50Millis(),
+                        op.p95Millis(), op.p99Millis(), op.maxMillis(), op.totalMillis(),
+                        op.rowsTotal(), op.rowsMean(), op.acquireMeanMillis(), op.acquireMaxMillis());
+            }
+
+            Map<String, Long> values = counterValues();
+            if (!values.isEmpty()) {
+                out.println();
+                out.println("counter,value");
+                values.forEach((name, value) -> out.println(name + "," + value));
+            }
+        }
+    }
+
+    private void finish(Scope scope) {
+        Deque<Scope> scopes = activeScopes.get();
+        scopes.removeLastOccurrence(scope);
+        if (scopes.isEmpty()) {
+            activeScopes.remove();
+        }
+    }
+
+    public static final class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long value() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * Latency histogram plus error count, rows returned and connection wait.
+     */
+    public static final class Timer {
+
+        private final Histogram latencyNanos = new Histogram();
+        private final Histogram rows = new Histogram();
+        private final Histogram acquireNanos = new Histogram();
+        private final LongAdder errors = new LongAdder();
+
+        public void record(long nanos, boolean failed) {
+            latencyNanos.record(nanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        public long count() {
+            return latencyNanos.count();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public OperationSnapshot snapshot(String name) {
+            return new OperationSnapshot(name,
+                    latencyNanos.count(),
+                    errors.sum(),
+                    latencyNanos.mean() / NANOS_PER_MILLI,
+                    latencyNanos.percentile(50) / NANOS_PER_MILLI,
+                    latencyNanos.percentile(95) / NANOS_PER_MILLI,
+                    latencyNanos.percentile(99) / NANOS_PER_MILLI,
+                    latencyNanos.max() / NANOS_PER_MILLI,
+                    latencyNanos.sum() / NANOS_PER_MILLI,
+                    rows.sum(),
+                    rows.mean(),
+                    acquireNanos.mean() / NANOS_PER_MILLI,
+                    acquireNanos.max() / NANOS_PER_MILLI);
+        }
+
+        void reset() {
+            latencyNanos.reset();
+            rows.reset();
+            acquireNanos.reset();
+            errors.reset();
+        }
+    }
+
+    /**
+     * One running operation. Closing it records the elapsed time on its timer.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Timer timer;
+        private final long startNanos = System.nanoTime();
+        private long acquireNanos;
+        private long rows = -1;
+        private boolean failed;
+
+        private Scope(String name, Timer timer) {
+            this.name = name;
+            this.timer = timer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void rows(long count) {
+            this.rows = count;
+        }
+
+        public void failed() {
+            this.failed = true;
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            finish(this);
+
+            timer.record(elapsed, failed);
+            timer.acquireNanos.record(acquireNanos);
+            if (rows >= 0) {
+                timer.rows.record(rows);
+            }
+        }
+    }
+
+    public record OperationSnapshot(String name, long calls, long errors,
+                                    double meanMillis, double p50Millis, double p95Millis,
+                                    double p99Millis, double maxMillis, double totalMillis,
+                                    long rowsTotal, double rowsMean,
+                                    double acquireMeanMillis, double acquireMaxMillis) {
+    }
+}
@@ -0,0 +1,249 @@
+package org.skytech.systemdestudent.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned SQL scripts under db/migration in order and records
+ * each one, with a SHA-256 checksum, in the schema_migrations table.
+ * A script that changed after it was applied stops the migration.
+ */
+public class SchemaMigrator {
+
+    private static final String LOCATION = "/org/skytech/systemdestudent/db/migration/";
+
+    // Add new scripts at the end; versions must increase
+    private static final List<String> SCRIPTS = List.of(
+            "V1__baseline_schema.sql",
+            "V2__query_indexes.sql",
+            "V3__change_tracking.sql",
+            "V4__fulltext_search.sql",
+            "V5__grade_history.sql",
+            "V6__academic_summary_terms.sql",
+            "V7__enrollment_sort_indexes.sql"
+    );
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS or ADD COLUMN IF NOT EXISTS; a
+    // rerun after a partial failure may hit indexes and columns already created
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    private static final Pattern FULLTEXT_INDEX =
+            Pattern.compile("^CREATE\\s+FULLTEXT\\s+INDEX\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final String CREATE_HISTORY_TABLE = """
+            CREATE TABLE IF NOT EXISTS schema_migrations (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                script VARCHAR(200) NOT NULL,
+                checksum CHAR(64) NOT NULL,
+                execution_ms BIGINT NOT NULL,
+                applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+        """;
+
+    private static final String FIND_APPLIED_SQL = "SELECT version, checksum FROM schema_migrations";
+
+    private static final String INSERT_APPLIED_SQL = """
+            INSERT INTO schema_migrations (version, description, script, checksum, execution_ms)
+            VALUES (?, ?, ?, ?, ?)
+        """;
+
+    private final Connection connection;
+
+    public SchemaMigrator(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Brings the schema up to date.
+     *
+     * @return the number of scripts applied by this call
+     */
+    public int migrate() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(CREATE_HISTORY_TABLE);
+        }
+
+        Map<Integer, String> applied = findApplied();
+        int count = 0;
+        int previousVersion = 0;
+
+        for (Migration migration : loadMigrations()) {
+            if (migration.version() <= previousVersion) {
+                throw new IllegalStateException("Migration " + migration.script()
+                        + " is out of order; versions must increase");
+            }
+            previousVersion = migration.version();
+
+            String checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (!checksum.equals(migration.checksum())) {
+                    throw new IllegalStateException("Migration " + migration.script()
+                            + " was modified after it was applied (checksum mismatch)");
+                }
+                continue;
+            }
+
+            apply(migration);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Scripts known to this build, in version order.
+     */
+    public static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+
+        for (String script : SCRIPTS) {
+            Matcher matcher = SCRIPT_NAME.matcher(script);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration name: " + script);
+            }
+
+            String sql = readScript(script);
+            migrations.add(new Migration(
+                    Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '),
+                    script,
+                    sql,
+                    checksum(sql)));
+        }
+
+        return migrations;
+    }
+
+    private Map<Integer, String> findApplied() throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(FIND_APPLIED_SQL)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+
+        return applied;
+    }
+
+    private void apply(Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        boolean fullTextSupported = supportsFullText();
+
+        // MySQL commits DDL implicitly, so each statement stands on its own
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : splitStatements(migration.sql())) {
+                // Searches fall back to LIKE where there is no FULLTEXT index
+                if (!fullTextSupported && FULLTEXT_INDEX.matcher(statement).find()) {
+                    System.out.println("FULLTEXT not supported, skipping: " + firstLine(statement));
+                    continue;
+                }
+                try {
+                    stmt.execute(statement);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_DUP_KEYNAME) {
+                        System.out.println("Index already exists, skipping: " + firstLine(statement));
+                    } else if (e.getErrorCode() == ER_DUP_FIELDNAME) {
+                        System.out.println("Column already exists, skipping: " + firstLine(statement));
+                    } else {
+                        throw new SQLException("Migration " + migration.script()
+                                + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+                    }
+                }
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        try (PreparedStatement pstmt = connection.prepareStatement(INSERT_APPLIED_SQL)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.setString(3, migration.script());
+            pstmt.setString(4, migration.checksum());
+            pstmt.setLong(5, elapsedMillis);
+            pstmt.executeUpdate();
+        }
+
+        System.out.println("Applied migration " + migration.script() + " in " + elapsedMillis + " ms");
+    }
+
+    private boolean supportsFullText() throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    /**
+     * Splits a script on semicolons that end a line. Full-line "--"
+     * comments are dropped.
+     */
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+
+        return statements;
+    }
+
+    private static String readScript(String script) {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + script);
+            }
+            // Normalise line endings so checkouts on Windows keep the same checksum
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration " + script, e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String firstLine(String statement) {
+        int end = statement.indexOf('\n');
+        return end < 0 ? statement : statement.substring(0, end);
+    }
+
+    public record Migration(int version, String description, String script, String sql, String checksum) {
+    }
+}
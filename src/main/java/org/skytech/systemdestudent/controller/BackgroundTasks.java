@@ -0,0 +1,140 @@
+package org.skytech.systemdestudent.controller;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.IntegerBinding;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking service calls off the JavaFX application thread, one
+ * virtual thread per task. Callbacks are delivered on the FX thread, and
+ * submit must be called from it.
+ */
+@Component
+public class BackgroundTasks implements AutoCloseable {
+
+    /**
+     * Work that can report progress and check for cancellation.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T call(Progress progress) throws Exception;
+    }
+
+    public interface Progress {
+        void update(long done, long total);
+
+        void message(String message);
+
+        boolean isCancelled();
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObservableList<Task<?>> running = FXCollections.observableArrayList();
+    private final IntegerBinding runningCount = Bindings.size(running);
+
+    public <T> Task<T> submit(String title, Callable<T> work,
+                              Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        return submit(title, progress -> work.call(), onSuccess, onFailure);
+    }
+
+    public <T> Task<T> submit(String title, Work<T> work,
+                              Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        WorkTask<T> task = new WorkTask<>(title, work);
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+
+        running.add(task);
+        task.stateProperty().addListener((observable, oldState, newState) -> {
+            if (isDone(newState)) {
+                running.remove(task);
+            }
+        });
+
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Number of tasks scheduled or running; bound by the status bar.
+     */
+    public IntegerBinding runningCountBinding() {
+        return runningCount;
+    }
+
+    public ObservableList<Task<?>> getRunningTasks() {
+        return FXCollections.unmodifiableObservableList(running);
+    }
+
+    /**
+     * Cancels every running task. Their success and failure callbacks are not called.
+     */
+    public void cancelAll() {
+        for (Task<?> task : new ArrayList<>(running)) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Shows a spinner as the table placeholder until the task finishes.
+     */
+    public static void showLoading(TableView<?> table, Task<?> task) {
+        Node placeholder = table.getPlaceholder();
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.progressProperty().bind(task.progressProperty());
+        table.setPlaceholder(indicator);
+
+        task.stateProperty().addListener((observable, oldState, newState) -> {
+            if (isDone(newState) && table.getPlaceholder() == indicator) {
+                table.setPlaceholder(placeholder);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static boolean isDone(Worker.State state) {
+        return state == Worker.State.SUCCEEDED
+                || state == Worker.State.FAILED
+                || state == Worker.State.CANCELLED;
+    }
+
+    private static final class WorkTask<T> extends Task<T> implements Progress {
+        private final Work<T> work;
+
+        WorkTask(String title, Work<T> work) {
+            this.work = work;
+            updateTitle(title);
+        }
+
+        @Override
+        protected T call() throws Exception {
+            return work.call(this);
+        }
+
+        @Override
+        public void update(long done, long total) {
+            updateProgress(done, total);
+        }
+
+        @Override
+        public void message(String message) {
+            updateMessage(message);
+        }
+    }
+}
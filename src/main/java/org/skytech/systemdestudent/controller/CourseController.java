@@ -2,14 +2,19 @@ package org.skytech.systemdestudent.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
         import javafx.scene.control.cell.PropertyValueFactory;
 import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.repository.Page;
 import org.skytech.systemdestudent.service.CourseService;
+import org.skytech.systemdestudent.service.SearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.Optional;
 
 @Component
@@ -22,6 +27,7 @@ public class CourseController {
     @FXML private TextField departmentField;
     @FXML private TextField prerequisitesField;
     @FXML private TextField instructorField;
+    @FXML private TextField searchField;
 
     @FXML private TableView<Course> courseTable;
     @FXML private TableColumn<Course, Long> idColumn;
@@ -31,13 +37,27 @@ public class CourseController {
     @FXML private TableColumn<Course, String> departmentColumn;
     @FXML private TableColumn<Course, String> instructorColumn;
 
+    @FXML private Button loadMoreButton;
+
+    private static final int PAGE_SIZE = 200;
+
+    // Same order as the repository's keyset pages
+    private static final Comparator<Course> COURSE_ORDER =
+            Comparator.comparing(Course::getCourseCode, String.CASE_INSENSITIVE_ORDER);
+
     private final CourseService courseService;
+    private final BackgroundTasks backgroundTasks;
     private ObservableList<Course> courseList;
     private Course selectedCourse;
+    private String nextCursor;
+    private LocalDateTime syncedAt;
+    private Task<Page<Course>> loadTask;
+    private Task<?> saveTask;
 
     @Autowired
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, BackgroundTasks backgroundTasks) {
         this.courseService = courseService;
+        this.backgroundTasks = backgroundTasks;
         this.courseList = FXCollections.observableArrayList();
     }
 
@@ -51,7 +71,12 @@ public class CourseController {
         departmentColumn.setCellValueFactory(new PropertyValueFactory<>("department"));
         instructorColumn.setCellValueFactory(new PropertyValueFactory<>("instructor"));
 
-        courseTable.setItems(courseList);
+        SearchIndex<Course> index = new SearchIndex<>(Course::getId)
+                .field("code", Course::getCourseCode)
+                .field("title", Course::getCourseTitle)
+                .field("dept", Course::getDepartment)
+                .field("instructor", Course::getInstructor);
+        new TableSearch<>(courseList, index).attach(courseTable, searchField);
 
         // Add selection listener
         courseTable.getSelectionModel().selectedItemProperty().addListener(
@@ -68,95 +93,100 @@ public class CourseController {
 
     @FXML
     private void handleAddCourse() {
-        try {
-            if (!validateInput()) {
-                return;
-            }
-
-            Course newCourse = new Course();
-            newCourse.setCourseCode(courseCodeField.getText().trim());
-            newCourse.setCourseTitle(courseTitleField.getText().trim());
-            newCourse.setCredits(Integer.parseInt(creditsField.getText().trim()));
-            newCourse.setCourseDescription(descriptionArea.getText().trim());
-            newCourse.setDepartment(departmentField.getText().trim());
-            newCourse.setPrerequisites(prerequisitesField.getText().trim());
-            newCourse.setInstructor(instructorField.getText().trim());
-
-            courseService.saveCourse(newCourse);
-
-            clearFields();
-            loadCourses();
-            showSuccess("Course added successfully!");
+        if (isSaving()) {
+            return;
+        }
 
-        } catch (NumberFormatException e) {
-            showError("Validation Error", "Credits must be a valid number");
-        } catch (IllegalArgumentException e) {
-            showError("Validation Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Error", "Failed to add course: " + e.getMessage());
-            e.printStackTrace();
+        // validateInput also checks that credits is a number
+        if (!validateInput()) {
+            return;
         }
+
+        Course newCourse = new Course();
+        newCourse.setCourseCode(courseCodeField.getText().trim());
+        newCourse.setCourseTitle(courseTitleField.getText().trim());
+        newCourse.setCredits(Integer.parseInt(creditsField.getText().trim()));
+        newCourse.setCourseDescription(descriptionArea.getText().trim());
+        newCourse.setDepartment(departmentField.getText().trim());
+        newCourse.setPrerequisites(prerequisitesField.getText().trim());
+        newCourse.setInstructor(instructorField.getText().trim());
+
+        saveTask = backgroundTasks.submit("Saving course",
+                () -> courseService.saveCourse(newCourse),
+                savedCourse -> {
+                    clearFields();
+                    refreshCourses();
+                    showSuccess("Course added successfully!");
+                },
+                e -> showFailure("Failed to add course", e));
     }
 
     @FXML
     private void handleUpdateCourse() {
-        try {
-            if (selectedCourse == null) {
-                showError("No Selection", "Please select a course to update");
-                return;
-            }
-
-            if (!validateInput()) {
-                return;
-            }
-
-            selectedCourse.setCourseCode(courseCodeField.getText().trim());
-            selectedCourse.setCourseTitle(courseTitleField.getText().trim());
-            selectedCourse.setCredits(Integer.parseInt(creditsField.getText().trim()));
-            selectedCourse.setCourseDescription(descriptionArea.getText().trim());
-            selectedCourse.setDepartment(departmentField.getText().trim());
-            selectedCourse.setPrerequisites(prerequisitesField.getText().trim());
-            selectedCourse.setInstructor(instructorField.getText().trim());
-
-            courseService.saveCourse(selectedCourse);
+        if (isSaving()) {
+            return;
+        }
 
-            clearFields();
-            loadCourses();
-            showSuccess("Course updated successfully!");
+        if (selectedCourse == null) {
+            showError("No Selection", "Please select a course to update");
+            return;
+        }
 
-        } catch (NumberFormatException e) {
-            showError("Validation Error", "Credits must be a valid number");
-        } catch (Exception e) {
-            showError("Error", "Failed to update course: " + e.getMessage());
-            e.printStackTrace();
+        if (!validateInput()) {
+            return;
         }
+
+        Course course = selectedCourse;
+        course.setCourseCode(courseCodeField.getText().trim());
+        course.setCourseTitle(courseTitleField.getText().trim());
+        course.setCredits(Integer.parseInt(creditsField.getText().trim()));
+        course.setCourseDescription(descriptionArea.getText().trim());
+        course.setDepartment(departmentField.getText().trim());
+        course.setPrerequisites(prerequisitesField.getText().trim());
+        course.setInstructor(instructorField.getText().trim());
+
+        saveTask = backgroundTasks.submit("Saving course",
+                () -> courseService.saveCourse(course),
+                savedCourse -> {
+                    clearFields();
+                    refreshCourses();
+                    showSuccess("Course updated successfully!");
+                },
+                e -> showFailure("Failed to update course", e));
     }
 
     @FXML
     private void handleDeleteCourse() {
-        try {
-            if (selectedCourse == null) {
-                showError("No Selection", "Please select a course to delete");
-                return;
-            }
+        if (isSaving()) {
+            return;
+        }
 
-            Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-            confirmAlert.setTitle("Confirm Deletion");
-            confirmAlert.setHeaderText("Delete Course");
-            confirmAlert.setContentText("Are you sure you want to delete " +
-                    selectedCourse.getCourseTitle() + "?");
-
-            Optional<ButtonType> result = confirmAlert.showAndWait();
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                courseService.deleteCourse(selectedCourse.getId());
-                clearFields();
-                loadCourses();
-                showSuccess("Course deleted successfully!");
-            }
+        if (selectedCourse == null) {
+            showError("No Selection", "Please select a course to delete");
+            return;
+        }
 
-        } catch (Exception e) {
-            showError("Error", "Failed to delete course: " + e.getMessage());
-            e.printStackTrace();
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Confirm Deletion");
+        confirmAlert.setHeaderText("Delete Course");
+        confirmAlert.setContentText("Are you sure you want to delete " +
+                selectedCourse.getCourseTitle() + "?");
+
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            Long courseId = selectedCourse.getId();
+
+            saveTask = backgroundTasks.submit("Deleting course",
+                    () -> {
+                        courseService.deleteCourse(courseId);
+                        return courseId;
+                    },
+                    deletedId -> {
+                        clearFields();
+                        refreshCourses();
+                        showSuccess("Course deleted successfully!");
+                    },
+                    e -> showFailure("Failed to delete course", e));
         }
     }
 
@@ -165,14 +195,79 @@ public class CourseController {
         clearFields();
     }
 
+    @FXML
+    private void handleLoadMore() {
+        if (nextCursor != null) {
+            loadPage(nextCursor);
+        }
+    }
+
     private void loadCourses() {
-        try {
-            courseList.clear();
-            courseList.addAll(courseService.getAllCourses());
-        } catch (Exception e) {
-            showError("Error", "Failed to load courses: " + e.getMessage());
-            e.printStackTrace();
+        courseList.clear();
+        nextCursor = null;
+        syncedAt = null;
+
+        // Take the sync point before the first page so later edits are not missed
+        backgroundTasks.submit("Loading courses",
+                courseService::getSyncPoint,
+                syncPoint -> {
+                    syncedAt = syncPoint;
+                    courseList.clear();
+                    loadPage(null);
+                },
+                e -> showFailure("Failed to load courses", e));
+    }
+
+    /**
+     * Patches the loaded rows with what changed since the last sync instead of
+     * reloading the table.
+     */
+    void refreshCourses() {
+        if (syncedAt == null) {
+            loadCourses();
+            return;
         }
+
+        LocalDateTime since = syncedAt;
+        backgroundTasks.submit("Refreshing courses",
+                () -> courseService.getCourseChanges(since),
+                changes -> {
+                    syncedAt = changes.syncedAt();
+                    ListChanges.apply(courseList, changes, Course::getId, COURSE_ORDER,
+                            course -> true, nextCursor == null);
+                },
+                e -> showFailure("Failed to refresh courses", e));
+    }
+
+    private void loadPage(String cursor) {
+        // A newer load replaces one still in flight
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        if (loadMoreButton != null) {
+            loadMoreButton.setDisable(true);
+        }
+
+        loadTask = backgroundTasks.submit("Loading courses",
+                () -> courseService.getCoursePage(cursor, PAGE_SIZE),
+                page -> {
+                    courseList.addAll(page.items());
+                    nextCursor = page.nextCursor();
+                    if (loadMoreButton != null) {
+                        loadMoreButton.setDisable(!page.hasNext());
+                    }
+                },
+                e -> {
+                    if (loadMoreButton != null) {
+                        loadMoreButton.setDisable(nextCursor == null);
+                    }
+                    showFailure("Failed to load courses", e);
+                });
+        BackgroundTasks.showLoading(courseTable, loadTask);
+    }
+
+    private boolean isSaving() {
+        return saveTask != null && !saveTask.isDone();
     }
 
     private void populateFields(Course course) {
@@ -235,6 +330,15 @@ public class CourseController {
         alert.showAndWait();
     }
 
+    private void showFailure(String message, Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            showError("Validation Error", e.getMessage());
+        } else {
+            showError("Error", message + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void showSuccess(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");
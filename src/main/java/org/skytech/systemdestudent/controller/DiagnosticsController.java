@@ -0,0 +1,206 @@
+package org.skytech.systemdestudent.controller;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import org.skytech.systemdestudent.config.ConnectionPoolMetrics;
+import org.skytech.systemdestudent.config.MetricsRegistry;
+import org.skytech.systemdestudent.config.MetricsRegistry.OperationSnapshot;
+import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.EntityCache;
+import org.skytech.systemdestudent.repository.SlowQueryLog;
+import org.skytech.systemdestudent.repository.StatementRegistry;
+import org.skytech.systemdestudent.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class DiagnosticsController {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter SINCE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @FXML private Label sinceLabel;
+    @FXML private Label poolLabel;
+    @FXML private Label statementCacheLabel;
+    @FXML private Label entityCacheLabel;
+    @FXML private Label operationCountLabel;
+    @FXML private Label slowQueryCountLabel;
+    @FXML private TextArea slowQueryTextArea;
+
+    @FXML private TableView<OperationSnapshot> operationsTableView;
+    @FXML private TableColumn<OperationSnapshot, String> nameColumn;
+    @FXML private TableColumn<OperationSnapshot, Long> callsColumn;
+    @FXML private TableColumn<OperationSnapshot, Long> errorsColumn;
+    @FXML private TableColumn<OperationSnapshot, Double> p50Column;
+    @FXML private TableColumn<OperationSnapshot, Double> p95Column;
+    @FXML private TableColumn<OperationSnapshot, Double> p99Column;
+    @FXML private TableColumn<OperationSnapshot, Double> maxColumn;
+    @FXML private TableColumn<OperationSnapshot, Double> totalColumn;
+    @FXML private TableColumn<OperationSnapshot, Double> rowsColumn;
+    @FXML private TableColumn<OperationSnapshot, Double> acquireColumn;
+
+    private final MetricsRegistry metrics;
+    private final ConnectionPoolMetrics poolMetrics;
+    private final StatementRegistry statements;
+    private final SlowQueryLog slowQueries;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final BackgroundTasks backgroundTasks;
+
+    private final ObservableList<OperationSnapshot> operationList;
+
+    @Autowired
+    public DiagnosticsController(MetricsRegistry metrics,
+                                 ConnectionPoolMetrics poolMetrics,
+                                 StatementRegistry statements,
+                                 SlowQueryLog slowQueries,
+                                 StudentRepository studentRepository,
+                                 CourseRepository courseRepository,
+                                 BackgroundTasks backgroundTasks) {
+        this.metrics = metrics;
+        this.poolMetrics = poolMetrics;
+        this.statements = statements;
+        this.slowQueries = slowQueries;
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+        this.backgroundTasks = backgroundTasks;
+        this.operationList = FXCollections.observableArrayList();
+    }
+
+    @FXML
+    public void initialize() {
+        nameColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().name()));
+        callsColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().calls()));
+        errorsColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().errors()));
+        setupDecimalColumn(p50Column, OperationSnapshot::p50Millis);
+        setupDecimalColumn(p95Column, OperationSnapshot::p95Millis);
+        setupDecimalColumn(p99Column, OperationSnapshot::p99Millis);
+        setupDecimalColumn(maxColumn, OperationSnapshot::maxMillis);
+        setupDecimalColumn(totalColumn, OperationSnapshot::totalMillis);
+        setupDecimalColumn(rowsColumn, OperationSnapshot::rowsMean);
+        setupDecimalColumn(acquireColumn, OperationSnapshot::acquireMeanMillis);
+
+        operationsTableView.setItems(operationList);
+        operationsTableView.setPlaceholder(new Label("No repository or service calls recorded yet"));
+
+        refresh();
+    }
+
+    @FXML
+    private void handleRefresh() {
+        refresh();
+    }
+
+    @FXML
+    private void handleReset() {
+        metrics.reset();
+        slowQueries.clear();
+        refresh();
+    }
+
+    @FXML
+    private void handleExport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Metrics");
+        chooser.setInitialFileName("srms-metrics-" + LocalDateTime.now().format(FILE_STAMP) + ".csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+
+        File file = chooser.showSaveDialog(operationsTableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        backgroundTasks.submit("Exporting metrics",
+                () -> {
+                    metrics.dump(file.toPath());
+                    return file;
+                },
+                written -> showInfo("Export Complete", "Metrics written to " + written.getAbsolutePath()),
+                e -> {
+                    showError("Error", "Failed to export metrics: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
+
+    private void refresh() {
+        // Snapshots are in-memory only, cheap enough for the FX thread
+        operationList.setAll(metrics.operations());
+        operationCountLabel.setText("Operations: " + operationList.size());
+        sinceLabel.setText("since " + metrics.getSince().format(SINCE_FORMAT));
+
+        ConnectionPoolMetrics.Snapshot pool = poolMetrics.snapshot();
+        poolLabel.setText(String.format(
+                "%d active, %d idle, %d waiting of %d  |  %d checkouts, avg %.2f ms, max %.2f ms, %d timeouts",
+                pool.active(), pool.idle(), pool.waiting(), pool.total(),
+                pool.acquired(), pool.avgAcquireMillis(), pool.maxAcquireMillis(), pool.timeouts()));
+
+        StatementRegistry.Stats statementStats = statements.stats();
+        statementCacheLabel.setText(String.format("%d hits, %d misses (%.0f%%) on %d connections",
+                statementStats.hits(), statementStats.misses(),
+                statementStats.hitRatio() * 100, statementStats.connections()));
+
+        entityCacheLabel.setText(formatCache(studentRepository.cacheStats())
+                + "  |  " + formatCache(courseRepository.cacheStats()));
+
+        List<SlowQueryLog.Entry> slow = slowQueries.recent();
+        slowQueryCountLabel.setText("Logged: " + slow.size());
+        if (!slowQueries.isEnabled()) {
+            slowQueryTextArea.setText("Slow-query log is disabled (app.jdbc.slow-query.enabled)");
+        } else if (slow.isEmpty()) {
+            slowQueryTextArea.setText("No slow queries recorded");
+        } else {
+            StringBuilder text = new StringBuilder();
+            for (SlowQueryLog.Entry entry : slow) {
+                text.append(entry.loggedAt().format(SINCE_FORMAT)).append("  ").append(entry).append("\n\n");
+            }
+            slowQueryTextArea.setText(text.toString());
+        }
+    }
+
+    private String formatCache(EntityCache.Stats stats) {
+        if (!stats.enabled()) {
+            return stats.name() + ": disabled";
+        }
+        return String.format("%s: %d/%d entries, %d hits, %d misses (%.0f%%), %d evictions",
+                stats.name(), stats.size(), stats.maxSize(), stats.hits(), stats.misses(),
+                stats.hitRatio() * 100, stats.evictions());
+    }
+
+    private void setupDecimalColumn(TableColumn<OperationSnapshot, Double> column,
+                                    Function<OperationSnapshot, Double> value) {
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : String.format("%.2f", item));
+            }
+        });
+    }
+
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    private void showInfo(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -1,22 +1,32 @@
 package org.skytech.systemdestudent.controller;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
         import javafx.scene.control.cell.PropertyValueFactory;
 import org.skytech.systemdestudent.model.Course;
 import org.skytech.systemdestudent.model.Enrollment;
 import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.EnrollmentSort;
+import org.skytech.systemdestudent.repository.Page;
 import org.skytech.systemdestudent.service.CourseService;
 import org.skytech.systemdestudent.service.EnrollmentService;
+import org.skytech.systemdestudent.service.SearchIndex;
 import org.skytech.systemdestudent.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 @Component
 public class EnrollmentController {
@@ -27,6 +37,7 @@ public class EnrollmentController {
     @FXML private ComboBox<String> semesterComboBox;
     @FXML private TextField academicYearField;
     @FXML private ComboBox<String> gradeComboBox;
+    @FXML private TextField searchField;
 
     @FXML private TableView<Enrollment> enrollmentTable;
     @FXML private TableColumn<Enrollment, Long> idColumn;
@@ -40,26 +51,62 @@ public class EnrollmentController {
     @FXML private TableColumn<Enrollment, String> gradeColumn;
 
     @FXML private Label enrollmentCountLabel;
+    @FXML private Button loadMoreButton;
+
+    private static final int PAGE_SIZE = 200;
+
+    // Above this many enrollments the unfiltered list is paged in as it is
+    // scrolled instead of loaded, keeping at most LAZY_MAX_PAGES in memory
+    private static final int LAZY_THRESHOLD = 20_000;
+    private static final int LAZY_PAGE_SIZE = 100;
+    private static final int LAZY_MAX_PAGES = 30;
+
+    // Same order as the repository's keyset pages (and the by-student filter)
+    private static final Comparator<Enrollment> ENROLLMENT_ORDER =
+            Comparator.comparing(Enrollment::getEnrollmentDate).reversed()
+                    .thenComparing(Enrollment::getId, Comparator.reverseOrder());
+
+    private static final Comparator<Enrollment> ROSTER_ORDER =
+            Comparator.comparing(Enrollment::getStudentRegNo, String.CASE_INSENSITIVE_ORDER);
+
+    private static final Predicate<Enrollment> ALL = enrollment -> true;
 
     private final EnrollmentService enrollmentService;
     private final StudentService studentService;
     private final CourseService courseService;
+    private final BackgroundTasks backgroundTasks;
 
     private ObservableList<Enrollment> enrollmentList;
     private ObservableList<Student> studentList;
     private ObservableList<Course> courseList;
+    private IdIndex<Student> studentsById;
+    private IdIndex<Course> coursesById;
+    private TableSearch<Enrollment> enrollmentSearch;
+    private LazyTableModel<Enrollment> lazyEnrollments;
     private Enrollment selectedEnrollment;
+    private String nextCursor;
+    private LocalDateTime syncedAt;
+    // What the table currently shows, so refreshes keep the active filter
+    private Predicate<Enrollment> shownFilter = ALL;
+    private Comparator<Enrollment> shownOrder = ENROLLMENT_ORDER;
+    // Page loads and filters share one slot so the latest request wins
+    private Task<?> loadTask;
+    private Task<?> saveTask;
 
     @Autowired
     public EnrollmentController(EnrollmentService enrollmentService,
                                 StudentService studentService,
-                                CourseService courseService) {
+                                CourseService courseService,
+                                BackgroundTasks backgroundTasks) {
         this.enrollmentService = enrollmentService;
         this.studentService = studentService;
         this.courseService = courseService;
+        this.backgroundTasks = backgroundTasks;
         this.enrollmentList = FXCollections.observableArrayList();
         this.studentList = FXCollections.observableArrayList();
         this.courseList = FXCollections.observableArrayList();
+        this.studentsById = new IdIndex<>(studentList, Student::getId);
+        this.coursesById = new IdIndex<>(courseList, Course::getId);
     }
 
     @FXML
@@ -75,7 +122,38 @@ public class EnrollmentController {
         academicYearColumn.setCellValueFactory(new PropertyValueFactory<>("academicYear"));
         gradeColumn.setCellValueFactory(new PropertyValueFactory<>("grade"));
 
-        enrollmentTable.setItems(enrollmentList);
+        studentRegNoColumn.setComparator(String.CASE_INSENSITIVE_ORDER);
+
+        SearchIndex<Enrollment> index = new SearchIndex<>(Enrollment::getId)
+                .field("reg", Enrollment::getStudentRegNo)
+                .field("student", Enrollment::getStudentName)
+                .field("code", Enrollment::getCourseCode)
+                .field("course", Enrollment::getCourseTitle)
+                .field("semester", Enrollment::getSemester)
+                .field("year", Enrollment::getAcademicYear)
+                .field("grade", Enrollment::getGrade);
+        enrollmentSearch = new TableSearch<>(enrollmentList, index);
+        enrollmentSearch.attach(enrollmentTable, searchField);
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> updateEnrollmentCount());
+
+        // Columns the server can page in index order; the others, including the
+        // student and course columns, cannot be sorted while browsing lazily
+        Map<TableColumn<Enrollment, ?>, EnrollmentSort> serverSorts = Map.of(
+                idColumn, EnrollmentSort.ID,
+                enrollmentDateColumn, EnrollmentSort.ENROLLMENT_DATE,
+                semesterColumn, EnrollmentSort.SEMESTER,
+                academicYearColumn, EnrollmentSort.ACADEMIC_YEAR,
+                gradeColumn, EnrollmentSort.GRADE);
+        lazyEnrollments = new LazyTableModel<>(backgroundTasks, LAZY_PAGE_SIZE, LAZY_MAX_PAGES,
+                (column, descending) -> {
+                    if (column == null) {
+                        return enrollmentSource(EnrollmentSort.ENROLLMENT_DATE, true);
+                    }
+                    EnrollmentSort sort = serverSorts.get(column);
+                    return sort == null ? null : enrollmentSource(sort, descending);
+                },
+                e -> showFailure("Failed to load enrollments", e));
+        lazyEnrollments.addListener((ListChangeListener<Enrollment>) change -> updateEnrollmentCount());
 
         // Setup ComboBoxes
         studentComboBox.setItems(studentList);
@@ -152,90 +230,102 @@ public class EnrollmentController {
 
     @FXML
     private void handleEnroll() {
-        try {
-            if (!validateInput()) {
-                return;
-            }
-
-            Student selectedStudent = studentComboBox.getValue();
-            Course selectedCourse = courseComboBox.getValue();
-
-            Enrollment enrollment = new Enrollment();
-            enrollment.setStudentId(selectedStudent.getId());
-            enrollment.setCourseId(selectedCourse.getId());
-            enrollment.setEnrollmentDate(enrollmentDatePicker.getValue());
-            enrollment.setSemester(semesterComboBox.getValue());
-            enrollment.setAcademicYear(academicYearField.getText().trim());
+        if (isSaving()) {
+            return;
+        }
 
-            String grade = gradeComboBox.getValue();
-            if (grade != null && !grade.isEmpty()) {
-                enrollment.setGrade(grade);
-            }
+        if (!validateInput()) {
+            return;
+        }
 
-            enrollmentService.saveEnrollment(enrollment);
+        Student selectedStudent = studentComboBox.getValue();
+        Course selectedCourse = courseComboBox.getValue();
 
-            clearFields();
-            loadEnrollments();
-            showSuccess("Student enrolled successfully!");
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudentId(selectedStudent.getId());
+        enrollment.setCourseId(selectedCourse.getId());
+        enrollment.setEnrollmentDate(enrollmentDatePicker.getValue());
+        enrollment.setSemester(semesterComboBox.getValue());
+        enrollment.setAcademicYear(academicYearField.getText().trim());
 
-        } catch (IllegalArgumentException e) {
-            showError("Validation Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Error", "Failed to enroll student: " + e.getMessage());
-            e.printStackTrace();
+        String grade = gradeComboBox.getValue();
+        if (grade != null && !grade.isEmpty()) {
+            enrollment.setGrade(grade);
         }
+
+        saveTask = backgroundTasks.submit("Enrolling student",
+                () -> enrollmentService.saveEnrollment(enrollment),
+                savedEnrollment -> {
+                    clearFields();
+                    refreshEnrollments();
+                    showSuccess("Student enrolled successfully!");
+                },
+                e -> showFailure("Failed to enroll student", e));
     }
 
     @FXML
     private void handleUpdateGrade() {
-        try {
-            if (selectedEnrollment == null) {
-                showError("No Selection", "Please select an enrollment to update grade");
-                return;
-            }
-
-            String grade = gradeComboBox.getValue();
-            if (grade == null || grade.isEmpty()) {
-                showError("Validation Error", "Please select a grade");
-                return;
-            }
-
-            enrollmentService.updateGrade(selectedEnrollment.getId(), grade);
+        if (isSaving()) {
+            return;
+        }
 
-            clearFields();
-            loadEnrollments();
-            showSuccess("Grade updated successfully!");
+        if (selectedEnrollment == null) {
+            showError("No Selection", "Please select an enrollment to update grade");
+            return;
+        }
 
-        } catch (Exception e) {
-            showError("Error", "Failed to update grade: " + e.getMessage());
-            e.printStackTrace();
+        String grade = gradeComboBox.getValue();
+        if (grade == null || grade.isEmpty()) {
+            showError("Validation Error", "Please select a grade");
+            return;
         }
+
+        Long enrollmentId = selectedEnrollment.getId();
+
+        saveTask = backgroundTasks.submit("Updating grade",
+                () -> {
+                    enrollmentService.updateGrade(enrollmentId, grade);
+                    return enrollmentId;
+                },
+                updatedId -> {
+                    clearFields();
+                    refreshEnrollments();
+                    showSuccess("Grade updated successfully!");
+                },
+                e -> showFailure("Failed to update grade", e));
     }
 
     @FXML
     private void handleDeleteEnrollment() {
-        try {
-            if (selectedEnrollment == null) {
-                showError("No Selection", "Please select an enrollment to delete");
-                return;
-            }
+        if (isSaving()) {
+            return;
+        }
 
-            Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-            confirmAlert.setTitle("Confirm Deletion");
-            confirmAlert.setHeaderText("Delete Enrollment");
-            confirmAlert.setContentText("Are you sure you want to delete this enrollment?");
-
-            Optional<ButtonType> result = confirmAlert.showAndWait();
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                enrollmentService.deleteEnrollment(selectedEnrollment.getId());
-                clearFields();
-                loadEnrollments();
-                showSuccess("Enrollment deleted successfully!");
-            }
+        if (selectedEnrollment == null) {
+            showError("No Selection", "Please select an enrollment to delete");
+            return;
+        }
 
-        } catch (Exception e) {
-            showError("Error", "Failed to delete enrollment: " + e.getMessage());
-            e.printStackTrace();
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Confirm Deletion");
+        confirmAlert.setHeaderText("Delete Enrollment");
+        confirmAlert.setContentText("Are you sure you want to delete this enrollment?");
+
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            Long enrollmentId = selectedEnrollment.getId();
+
+            saveTask = backgroundTasks.submit("Deleting enrollment",
+                    () -> {
+                        enrollmentService.deleteEnrollment(enrollmentId);
+                        return enrollmentId;
+                    },
+                    deletedId -> {
+                        clearFields();
+                        refreshEnrollments();
+                        showSuccess("Enrollment deleted successfully!");
+                    },
+                    e -> showFailure("Failed to delete enrollment", e));
         }
     }
 
@@ -246,95 +336,256 @@ public class EnrollmentController {
 
     @FXML
     private void handleShowAll() {
-        loadEnrollments();
+        if (isFullyLoaded()) {
+            filterLoaded(null, null);
+            refreshEnrollments();
+        } else {
+            loadEnrollments();
+        }
     }
 
     @FXML
-    private void handleFilterByStudent() {
-        try {
-            Student selectedStudent = studentComboBox.getValue();
-            if (selectedStudent == null) {
-                showError("No Selection", "Please select a student to filter");
-                return;
-            }
+    private void handleLoadMore() {
+        if (nextCursor != null) {
+            loadPage(nextCursor);
+        }
+    }
 
-            enrollmentList.clear();
-            List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStudent(selectedStudent.getId());
-            enrollmentList.addAll(enrollments);
-            updateEnrollmentCount();
+    @FXML
+    private void handleFilterByStudent() {
+        Student selectedStudent = studentComboBox.getValue();
+        if (selectedStudent == null) {
+            showError("No Selection", "Please select a student to filter");
+            return;
+        }
 
-        } catch (Exception e) {
-            showError("Error", "Failed to filter enrollments: " + e.getMessage());
-            e.printStackTrace();
+        Long studentId = selectedStudent.getId();
+        Predicate<Enrollment> byStudent = enrollment -> studentId.equals(enrollment.getStudentId());
+        if (isFullyLoaded()) {
+            filterLoaded(byStudent, null);
+            return;
         }
+
+        enrollmentSearch.setFilter(null);
+        shownFilter = byStudent;
+        shownOrder = ENROLLMENT_ORDER;
+        showFiltered(backgroundTasks.submit("Filtering enrollments",
+                () -> enrollmentService.getEnrollmentsByStudent(studentId),
+                this::setFilteredEnrollments,
+                e -> showFailure("Failed to filter enrollments", e)));
     }
 
     @FXML
     private void handleFilterByCourse() {
-        try {
-            Course selectedCourse = courseComboBox.getValue();
-            if (selectedCourse == null) {
-                showError("No Selection", "Please select a course to filter");
-                return;
-            }
+        Course selectedCourse = courseComboBox.getValue();
+        if (selectedCourse == null) {
+            showError("No Selection", "Please select a course to filter");
+            return;
+        }
 
-            enrollmentList.clear();
-            List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourse(selectedCourse.getId());
-            enrollmentList.addAll(enrollments);
-            updateEnrollmentCount();
+        Long courseId = selectedCourse.getId();
+        Predicate<Enrollment> byCourse = enrollment -> courseId.equals(enrollment.getCourseId());
+        if (isFullyLoaded()) {
+            filterLoaded(byCourse, studentRegNoColumn);
+            return;
+        }
 
-        } catch (Exception e) {
-            showError("Error", "Failed to filter enrollments: " + e.getMessage());
-            e.printStackTrace();
+        enrollmentSearch.setFilter(null);
+        shownFilter = byCourse;
+        shownOrder = ROSTER_ORDER;
+        showFiltered(backgroundTasks.submit("Filtering enrollments",
+                () -> enrollmentService.getEnrollmentsByCourse(courseId),
+                this::setFilteredEnrollments,
+                e -> showFailure("Failed to filter enrollments", e)));
+    }
+
+    /**
+     * Whether the list holds every enrollment, so filters can run on it in memory
+     * instead of querying again.
+     */
+    private boolean isFullyLoaded() {
+        return shownFilter == ALL && syncedAt != null && nextCursor == null
+                && (loadTask == null || loadTask.isDone());
+    }
+
+    private void filterLoaded(Predicate<Enrollment> filter, TableColumn<Enrollment, ?> sortColumn) {
+        enrollmentSearch.setFilter(filter);
+        if (sortColumn == null) {
+            enrollmentTable.getSortOrder().clear();
+        } else {
+            enrollmentTable.getSortOrder().setAll(List.of(sortColumn));
         }
+        updateEnrollmentCount();
+    }
+
+    private void showFiltered(Task<List<Enrollment>> task) {
+        showLoaded();
+        replaceLoadTask(task);
+        enrollmentList.clear();
+        setNextCursor(null);
+        BackgroundTasks.showLoading(enrollmentTable, task);
+    }
+
+    private void setFilteredEnrollments(List<Enrollment> enrollments) {
+        enrollmentList.setAll(enrollments);
+        setNextCursor(null);
+        updateEnrollmentCount();
     }
 
     private void loadStudents() {
-        try {
-            studentList.clear();
-            studentList.addAll(studentService.getAllStudents());
-        } catch (Exception e) {
-            showError("Error", "Failed to load students: " + e.getMessage());
-            e.printStackTrace();
-        }
+        backgroundTasks.submit("Loading students",
+                studentService::getAllStudents,
+                students -> studentList.setAll(students),
+                e -> showFailure("Failed to load students", e));
     }
 
     private void loadCourses() {
-        try {
-            courseList.clear();
-            courseList.addAll(courseService.getAllCourses());
-        } catch (Exception e) {
-            showError("Error", "Failed to load courses: " + e.getMessage());
-            e.printStackTrace();
-        }
+        backgroundTasks.submit("Loading courses",
+                courseService::getAllCourses,
+                courses -> courseList.setAll(courses),
+                e -> showFailure("Failed to load courses", e));
     }
 
     private void loadEnrollments() {
-        try {
-            enrollmentList.clear();
-            enrollmentList.addAll(enrollmentService.getAllEnrollments());
-            updateEnrollmentCount();
-        } catch (Exception e) {
-            showError("Error", "Failed to load enrollments: " + e.getMessage());
-            e.printStackTrace();
+        enrollmentList.clear();
+        setNextCursor(null);
+        enrollmentSearch.setFilter(null);
+        shownFilter = ALL;
+        shownOrder = ENROLLMENT_ORDER;
+        syncedAt = null;
+
+        // Take the sync point before the first page so later edits are not missed
+        Task<LoadStart> task = backgroundTasks.submit("Loading enrollments",
+                () -> new LoadStart(enrollmentService.getSyncPoint(), enrollmentService.countEnrollments()),
+                start -> {
+                    if (start.total() > LAZY_THRESHOLD) {
+                        browseLazily();
+                        return;
+                    }
+                    showLoaded();
+                    syncedAt = start.syncPoint();
+                    enrollmentList.clear();
+                    loadPage(null);
+                },
+                e -> showFailure("Failed to load enrollments", e));
+        replaceLoadTask(task);
+    }
+
+    /**
+     * Shows every enrollment through the lazy model. Search needs the rows in
+     * memory, so it waits for a student or course filter.
+     */
+    private void browseLazily() {
+        enrollmentList.clear();
+        setNextCursor(null);
+        searchField.clear();
+        searchField.setDisable(true);
+        lazyEnrollments.attach(enrollmentTable);
+        updateEnrollmentCount();
+    }
+
+    private void showLoaded() {
+        if (lazyEnrollments.isAttached()) {
+            lazyEnrollments.detach();
+            enrollmentSearch.show(enrollmentTable);
+            searchField.setDisable(false);
         }
     }
 
-    private void populateFields(Enrollment enrollment) {
-        // Find and select student
-        for (Student student : studentList) {
-            if (student.getId().equals(enrollment.getStudentId())) {
-                studentComboBox.setValue(student);
-                break;
+    private LazyTableModel.Source<Enrollment> enrollmentSource(EnrollmentSort sort, boolean descending) {
+        return new LazyTableModel.Source<>() {
+            @Override
+            public long count() throws SQLException {
+                return enrollmentService.countEnrollments();
             }
-        }
 
-        // Find and select course
-        for (Course course : courseList) {
-            if (course.getId().equals(enrollment.getCourseId())) {
-                courseComboBox.setValue(course);
-                break;
+            @Override
+            public Page<Enrollment> page(String cursor, int size) throws SQLException {
+                return enrollmentService.getEnrollmentPage(sort, descending, cursor, size);
             }
+
+            @Override
+            public String cursorAt(long offset) throws SQLException {
+                return enrollmentService.getEnrollmentCursorAt(sort, descending, offset);
+            }
+        };
+    }
+
+    /**
+     * Patches the shown rows with what changed since the last sync, keeping the
+     * active filter, instead of reloading the table.
+     */
+    void refreshEnrollments() {
+        if (lazyEnrollments.isAttached()) {
+            lazyEnrollments.reload();
+            return;
+        }
+        if (syncedAt == null) {
+            loadEnrollments();
+            return;
+        }
+
+        LocalDateTime since = syncedAt;
+        backgroundTasks.submit("Refreshing enrollments",
+                () -> enrollmentService.getEnrollmentChanges(since),
+                changes -> {
+                    syncedAt = changes.syncedAt();
+                    ListChanges.apply(enrollmentList, changes, Enrollment::getId, shownOrder,
+                            shownFilter, nextCursor == null);
+                    updateEnrollmentCount();
+                },
+                e -> showFailure("Failed to refresh enrollments", e));
+    }
+
+    private void loadPage(String cursor) {
+        if (loadMoreButton != null) {
+            loadMoreButton.setDisable(true);
+        }
+
+        Task<Page<Enrollment>> task = backgroundTasks.submit("Loading enrollments",
+                () -> enrollmentService.getEnrollmentPage(cursor, PAGE_SIZE),
+                page -> {
+                    enrollmentList.addAll(page.items());
+                    setNextCursor(page.nextCursor());
+                    updateEnrollmentCount();
+                },
+                e -> {
+                    setNextCursor(nextCursor);
+                    showFailure("Failed to load enrollments", e);
+                });
+        replaceLoadTask(task);
+        BackgroundTasks.showLoading(enrollmentTable, task);
+    }
+
+    private void replaceLoadTask(Task<?> task) {
+        // A newer page load or filter replaces one still in flight
+        if (loadTask != null && loadTask != task) {
+            loadTask.cancel();
+        }
+        loadTask = task;
+    }
+
+    private boolean isSaving() {
+        return saveTask != null && !saveTask.isDone();
+    }
+
+    private void setNextCursor(String cursor) {
+        nextCursor = cursor;
+        if (loadMoreButton != null) {
+            loadMoreButton.setDisable(cursor == null);
+        }
+    }
+
+    private void populateFields(Enrollment enrollment) {
+        // Keep the current choice if the student or course is not loaded yet
+        Student student = studentsById.get(enrollment.getStudentId());
+        if (student != null) {
+            studentComboBox.setValue(student);
+        }
+
+        Course course = coursesById.get(enrollment.getCourseId());
+        if (course != null) {
+            courseComboBox.setValue(course);
         }
 
         enrollmentDatePicker.setValue(enrollment.getEnrollmentDate());
@@ -384,9 +635,23 @@ public class EnrollmentController {
     }
 
     private void updateEnrollmentCount() {
-        if (enrollmentCountLabel != null) {
-            enrollmentCountLabel.setText("Total Enrollments: " + enrollmentList.size());
+        if (enrollmentCountLabel == null) {
+            return;
         }
+        if (lazyEnrollments != null && lazyEnrollments.isAttached()) {
+            enrollmentCountLabel.setText("Total Enrollments: " + lazyEnrollments.size());
+            return;
+        }
+        int shown = enrollmentSearch.shownCount();
+        if (shown < enrollmentList.size()) {
+            enrollmentCountLabel.setText("Showing Enrollments: " + shown + " of " + enrollmentList.size());
+        } else {
+            enrollmentCountLabel.setText((nextCursor != null ? "Showing Enrollments: " : "Total Enrollments: ")
+                    + shown);
+        }
+    }
+
+    private record LoadStart(LocalDateTime syncPoint, long total) {
     }
 
     private void showError(String title, String message) {
@@ -397,6 +662,15 @@ public class EnrollmentController {
         alert.showAndWait();
     }
 
+    private void showFailure(String message, Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            showError("Validation Error", e.getMessage());
+        } else {
+            showError("Error", message + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void showSuccess(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");
@@ -0,0 +1,157 @@
+package org.skytech.systemdestudent.controller;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Looks up the rows of a loaded list by id without scanning it. Ids are kept
+ * as primitive longs in an open-addressing table, and the index follows the
+ * list as pages load and refreshes patch it.
+ */
+final class IdIndex<T> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final ObservableList<T> source;
+    private final ToLongFunction<? super T> idOf;
+
+    // Linear probing; a null value marks a free slot
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    IdIndex(ObservableList<T> source, ToLongFunction<? super T> idOf) {
+        this.source = source;
+        this.idOf = idOf;
+        this.keys = new long[MIN_CAPACITY];
+        this.values = new Object[MIN_CAPACITY];
+        rebuild();
+        source.addListener(this::onSourceChanged);
+    }
+
+    /**
+     * The loaded row with the given id, or null if it is not loaded.
+     */
+    T get(Long id) {
+        return id == null ? null : get(id.longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long id) {
+        int mask = keys.length - 1;
+        for (int slot = slot(id, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return (T) values[slot];
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void onSourceChanged(ListChangeListener.Change<? extends T> change) {
+        int touched = 0;
+        while (change.next()) {
+            touched += change.getRemovedSize() + change.getAddedSize();
+        }
+        change.reset();
+
+        // A reload or setAll replaces most of the list; indexing it again is cheaper
+        if (touched >= source.size()) {
+            rebuild();
+            return;
+        }
+
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            for (T removed : change.getRemoved()) {
+                remove(removed);
+            }
+            for (T added : change.getAddedSubList()) {
+                put(added);
+            }
+        }
+    }
+
+    private void rebuild() {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < source.size() * 4) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (T item : source) {
+            put(item);
+        }
+    }
+
+    private void put(T item) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        long id = idOf.applyAsLong(item);
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        while (values[slot] != null && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            size++;
+        }
+        keys[slot] = id;
+        values[slot] = item;
+    }
+
+    private void remove(T item) {
+        long id = idOf.applyAsLong(item);
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        while (values[slot] != null && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        // A replacement may already have put the new row under this id
+        if (values[slot] != item) {
+            return;
+        }
+        values[slot] = null;
+        size--;
+
+        // Shift later entries of the probe run back so lookups still reach them
+        int free = slot;
+        for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                values[next] = null;
+                free = next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put((T) oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(long id, int mask) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
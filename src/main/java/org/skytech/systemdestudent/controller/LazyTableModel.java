@@ -0,0 +1,303 @@
+package org.skytech.systemdestudent.controller;
+
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Callback;
+import org.skytech.systemdestudent.repository.Page;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * A table list backed by keyset pages that are fetched only when the table
+ * asks for their rows. Rows not loaded yet read as null and are filled in
+ * when their page arrives. The next page in the scroll direction is fetched
+ * ahead of time, and the least recently shown pages are dropped once more
+ * than maxPages are held. Sorting by a column header restarts the list in
+ * the new order on the server.
+ */
+final class LazyTableModel<T> extends ObservableListBase<T> {
+
+    /**
+     * The rows in one order.
+     */
+    interface Source<T> {
+        long count() throws SQLException;
+
+        Page<T> page(String cursor, int size) throws SQLException;
+
+        /**
+         * Cursor for the page starting at offset, when no page before it has
+         * been read; null if offset is past the last row.
+         */
+        String cursorAt(long offset) throws SQLException;
+    }
+
+    private final BackgroundTasks backgroundTasks;
+    private final int pageSize;
+    private final int maxPages;
+    // Source for a sort column and direction; null column is the default order,
+    // and a null result means the column cannot be sorted on the server
+    private final BiFunction<TableColumn<T, ?>, Boolean, Source<T>> sources;
+    private final Consumer<Throwable> onFailure;
+
+    // Access order, so the first entry is the page shown least recently
+    private final LinkedHashMap<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    // Start cursor of each page whose predecessor has been read
+    private final Map<Integer, String> cursors = new HashMap<>();
+    private final Map<Integer, Task<?>> loading = new HashMap<>();
+
+    private TableView<T> table;
+    private Callback<TableView<T>, Boolean> previousSortPolicy;
+    private Source<T> source;
+    // Bumped by every restart; results of earlier runs are ignored
+    private int generation;
+    private TableColumn<T, ?> sortColumn;
+    private boolean descending;
+    private int size;
+    private int lastPage;
+    private boolean forward = true;
+    private boolean failureShown;
+
+    LazyTableModel(BackgroundTasks backgroundTasks, int pageSize, int maxPages,
+                   BiFunction<TableColumn<T, ?>, Boolean, Source<T>> sources,
+                   Consumer<Throwable> onFailure) {
+        this.backgroundTasks = backgroundTasks;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.sources = sources;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Shows the list in table in its default order and takes over the
+     * table's sorting until {@link #detach()}.
+     */
+    void attach(TableView<T> table) {
+        if (this.table == table) {
+            reload();
+            return;
+        }
+        this.table = table;
+        table.getSortOrder().clear();
+        previousSortPolicy = table.getSortPolicy();
+        table.setSortPolicy(this::sort);
+        table.setItems(this);
+        sortColumn = null;
+        descending = false;
+        restart(sources.apply(null, false));
+    }
+
+    /**
+     * Drops every page and hands sorting back to the table.
+     */
+    void detach() {
+        if (table == null) {
+            return;
+        }
+        restart(null);
+        table.setSortPolicy(previousSortPolicy);
+        table = null;
+    }
+
+    boolean isAttached() {
+        return table != null;
+    }
+
+    /**
+     * Counts again and refetches the rows on screen, keeping the order and
+     * scroll position, e.g. after a save.
+     */
+    void reload() {
+        restart(source);
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        int page = index / pageSize;
+        if (page != lastPage) {
+            forward = page > lastPage;
+            lastPage = page;
+        }
+
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            load(page);
+        }
+        int ahead = forward ? page + 1 : page - 1;
+        if (ahead >= 0 && ahead * pageSize < size && !pages.containsKey(ahead)) {
+            load(ahead);
+        }
+
+        int offset = index - page * pageSize;
+        return rows != null && offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Boolean sort(TableView<T> table) {
+        List<TableColumn<T, ?>> order = table.getSortOrder();
+        TableColumn<T, ?> column = order.isEmpty() ? null : order.get(0);
+        boolean desc = column != null && column.getSortType() == TableColumn.SortType.DESCENDING;
+        if (column == sortColumn && desc == descending) {
+            return true;
+        }
+
+        Source<T> sorted = sources.apply(column, desc);
+        if (sorted == null) {
+            return false;
+        }
+        sortColumn = column;
+        descending = desc;
+        table.getSelectionModel().clearSelection();
+        restart(sorted);
+        return true;
+    }
+
+    private void restart(Source<T> next) {
+        for (Task<?> task : loading.values()) {
+            task.cancel();
+        }
+        loading.clear();
+        pages.clear();
+        cursors.clear();
+        failureShown = false;
+        source = next;
+        int run = ++generation;
+
+        if (next == null) {
+            resize(0);
+            return;
+        }
+        backgroundTasks.submit("Counting rows", next::count,
+                count -> {
+                    if (run == generation) {
+                        resize((int) Math.min(count, Integer.MAX_VALUE));
+                        refreshTable();
+                    }
+                },
+                e -> failed(run, e));
+        // Rows on screen now belong to the old order or data
+        refreshTable();
+    }
+
+    private void load(int page) {
+        if (source == null || loading.containsKey(page)) {
+            return;
+        }
+        cancelDistantLoads(page);
+
+        Source<T> from = source;
+        int run = generation;
+        String known = cursors.get(page);
+        long offset = (long) page * pageSize;
+        Task<Page<T>> task = backgroundTasks.submit("Loading rows",
+                () -> {
+                    if (page == 0 || known != null) {
+                        return from.page(known, pageSize);
+                    }
+                    // A null cursor here means rows were deleted since counting, not the first page
+                    String cursor = from.cursorAt(offset);
+                    return cursor != null ? from.page(cursor, pageSize) : new Page<T>(List.of(), null);
+                },
+                result -> loaded(run, page, result),
+                e -> failed(run, e));
+        loading.put(page, task);
+    }
+
+    private void loaded(int run, int page, Page<T> result) {
+        if (run != generation) {
+            return;
+        }
+        loading.remove(page);
+        pages.put(page, result.items());
+        if (result.hasNext()) {
+            cursors.put(page + 1, result.nextCursor());
+        }
+
+        Iterator<Integer> eldest = pages.keySet().iterator();
+        while (pages.size() > maxPages) {
+            eldest.next();
+            eldest.remove();
+        }
+
+        int start = page * pageSize;
+        if (!result.hasNext() && start + result.items().size() < size) {
+            // The list ends sooner than counted; drop the rows that are gone
+            resize(start + result.items().size());
+        }
+        int end = Math.min(size, start + result.items().size());
+        if (start < end) {
+            beginChange();
+            for (int i = start; i < end; i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }
+        refreshTable();
+    }
+
+    /**
+     * A fast scroll or drag requests pages it has already passed; those
+     * still in flight are dropped.
+     */
+    private void cancelDistantLoads(int page) {
+        Iterator<Map.Entry<Integer, Task<?>>> entries = loading.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Task<?>> entry = entries.next();
+            if (Math.abs(entry.getKey() - page) > maxPages / 2) {
+                entry.getValue().cancel();
+                entries.remove();
+            }
+        }
+    }
+
+    private void failed(int run, Throwable e) {
+        if (run != generation) {
+            return;
+        }
+        loading.values().removeIf(Task::isDone);
+        // One alert per order or reload, not one per page
+        if (!failureShown) {
+            failureShown = true;
+            onFailure.accept(e);
+        }
+    }
+
+    private void resize(int newSize) {
+        int oldSize = size;
+        if (newSize == oldSize) {
+            return;
+        }
+        size = newSize;
+        beginChange();
+        if (newSize > oldSize) {
+            nextAdd(oldSize, newSize);
+        } else {
+            nextRemove(newSize, Collections.<T>nCopies(oldSize - newSize, null));
+        }
+        endChange();
+    }
+
+    private void refreshTable() {
+        if (table != null) {
+            table.refresh();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.skytech.systemdestudent.controller;
+
+import org.skytech.systemdestudent.repository.ChangeSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Patches a loaded table list in place with a ChangeSet, so a refresh after a
+ * save touches only the rows that changed instead of reloading the table.
+ */
+final class ListChanges {
+
+    private ListChanges() {
+    }
+
+    /**
+     * Applies the changes to a list sorted by order.
+     *
+     * @param shown    rows the list should contain, e.g. the active filter;
+     *                 changed rows that no longer match are removed
+     * @param complete whether every page is loaded. When more pages follow, new
+     *                 rows sorting after the last loaded row are left for them
+     */
+    static <T> void apply(List<T> list, ChangeSet<T> changes, Function<T, Long> idOf,
+                          Comparator<? super T> order, Predicate<? super T> shown,
+                          boolean complete) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            indexById.put(idOf.apply(list.get(i)), i);
+        }
+        T lastLoaded = list.isEmpty() ? null : list.get(list.size() - 1);
+
+        Set<Long> removed = new HashSet<>(changes.deletedIds());
+        List<T> inserted = new ArrayList<>();
+
+        for (T item : changes.changed()) {
+            Long id = idOf.apply(item);
+            Integer index = indexById.get(id);
+
+            if (!shown.test(item)) {
+                if (index != null) {
+                    removed.add(id);
+                }
+            } else if (index != null && staysInPlace(list, index, item, order)) {
+                // Replacing keeps the row's position and selection
+                list.set(index, item);
+            } else {
+                if (index != null) {
+                    removed.add(id);
+                }
+                if (complete || lastLoaded == null || order.compare(item, lastLoaded) <= 0) {
+                    inserted.add(item);
+                }
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            list.removeIf(item -> removed.contains(idOf.apply(item)));
+        }
+
+        for (T item : inserted) {
+            int position = Collections.binarySearch(list, item, order);
+            list.add(position < 0 ? -position - 1 : position, item);
+        }
+    }
+
+    private static <T> boolean staysInPlace(List<T> list, int index, T item,
+                                            Comparator<? super T> order) {
+        return (index == 0 || order.compare(list.get(index - 1), item) <= 0)
+                && (index == list.size() - 1 || order.compare(item, list.get(index + 1)) <= 0);
+    }
+}
@@ -1,12 +1,27 @@
 package org.skytech.systemdestudent.controller;
 
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.collections.ListChangeListener;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TabPane;
+import javafx.stage.FileChooser;
+import org.skytech.systemdestudent.service.ImportReport;
+import org.skytech.systemdestudent.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Optional;
+
 @Component
 public class MainController {
 
@@ -19,9 +34,187 @@ public class MainController {
     @FXML
     private Label recordCountLabel;
 
+    @FXML
+    private ProgressIndicator busyIndicator;
+
+    @FXML
+    private Label taskLabel;
+
+    @FXML
+    private Button cancelTasksButton;
+
+    private final BackgroundTasks backgroundTasks;
+    private final ImportService importService;
+    private final StudentController studentController;
+    private final CourseController courseController;
+    private final EnrollmentController enrollmentController;
+
+    @Autowired
+    public MainController(BackgroundTasks backgroundTasks,
+                          ImportService importService,
+                          StudentController studentController,
+                          CourseController courseController,
+                          EnrollmentController enrollmentController) {
+        this.backgroundTasks = backgroundTasks;
+        this.importService = importService;
+        this.studentController = studentController;
+        this.courseController = courseController;
+        this.enrollmentController = enrollmentController;
+    }
+
     @FXML
     public void initialize() {
         setStatus("Application initialized successfully");
+
+        // Busy indicator and cancel button show while any database task runs
+        busyIndicator.visibleProperty().bind(
+                Bindings.greaterThan(backgroundTasks.runningCountBinding(), 0));
+        cancelTasksButton.visibleProperty().bind(busyIndicator.visibleProperty());
+        taskLabel.visibleProperty().bind(busyIndicator.visibleProperty());
+
+        backgroundTasks.getRunningTasks().addListener((ListChangeListener<Task<?>>) change -> {
+            var tasks = change.getList();
+            taskLabel.setText(tasks.isEmpty() ? "" : tasks.get(tasks.size() - 1).getTitle() + "...");
+        });
+    }
+
+    @FXML
+    private void handleCancelTasks() {
+        backgroundTasks.cancelAll();
+        setStatus("Cancelled running operations");
+    }
+
+    @FXML
+    private void handleImportStudents() {
+        importFile(ImportService.Kind.STUDENTS);
+    }
+
+    @FXML
+    private void handleImportCourses() {
+        importFile(ImportService.Kind.COURSES);
+    }
+
+    @FXML
+    private void handleImportEnrollments() {
+        importFile(ImportService.Kind.ENROLLMENTS);
+    }
+
+    private void importFile(ImportService.Kind kind) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import " + capitalize(kind.label()));
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV or Excel Files", "*.csv", "*.xlsx"));
+
+        File file = chooser.showOpenDialog(mainTabPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        ButtonType check = new ButtonType("Check Only", ButtonBar.ButtonData.OTHER);
+        ButtonType run = new ButtonType("Import", ButtonBar.ButtonData.OK_DONE);
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION,
+                "Import " + kind.label() + " from " + file.getName() + "?\n\n"
+                        + "Check Only validates every row without saving anything.",
+                check, run, ButtonType.CANCEL);
+        confirmAlert.setTitle("Import " + capitalize(kind.label()));
+        confirmAlert.setHeaderText(null);
+
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        if (result.isEmpty() || result.get() == ButtonType.CANCEL) {
+            return;
+        }
+        boolean dryRun = result.get() == check;
+        Path rejectedFile = rejectedFileFor(file);
+
+        Task<ImportReport> task = backgroundTasks.submit(
+                (dryRun ? "Checking " : "Importing ") + kind.label(),
+                progress -> importService.importFile(kind, file.toPath(), dryRun, rejectedFile,
+                        new ImportService.Progress() {
+                            @Override
+                            public void rowsProcessed(long rows, double fraction) {
+                                progress.message(String.format("%,d rows processed", rows));
+                                if (fraction >= 0) {
+                                    progress.update(Math.round(fraction * 1000), 1000);
+                                }
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return progress.isCancelled();
+                            }
+                        }),
+                report -> {
+                    setStatus(String.format("%s %,d of %,d %s from %s",
+                            dryRun ? "Checked" : "Imported", report.imported(), report.rowsRead(),
+                            kind.label(), file.getName()));
+                    if (!dryRun && report.imported() > 0) {
+                        refreshTable(kind);
+                    }
+                    showImportReport(report);
+                },
+                e -> {
+                    setStatus("Import of " + file.getName() + " failed");
+                    showError("Import Failed", e.getMessage());
+                    e.printStackTrace();
+                });
+        task.messageProperty().addListener((observable, oldMessage, message) -> setStatus(message));
+    }
+
+    private void refreshTable(ImportService.Kind kind) {
+        switch (kind) {
+            case STUDENTS -> studentController.refreshStudents();
+            case COURSES -> courseController.refreshCourses();
+            case ENROLLMENTS -> enrollmentController.refreshEnrollments();
+        }
+    }
+
+    private void showImportReport(ImportReport report) {
+        StringBuilder content = new StringBuilder();
+        content.append(String.format("Rows read: %,d%n", report.rowsRead()));
+        content.append(String.format(report.dryRun() ? "Rows valid: %,d%n" : "Rows imported: %,d%n",
+                report.imported()));
+        content.append(String.format("Rows rejected: %,d%n", report.rejected()));
+        content.append(String.format("Time: %.1f s (%,.0f rows/s)%n",
+                report.elapsed().toMillis() / 1000.0, report.rowsPerSecond()));
+        if (report.cancelled()) {
+            content.append(report.dryRun() ? "\nThe check was cancelled before the end of the file.\n"
+                    : "\nThe import was cancelled; rows imported before that were kept.\n");
+        }
+
+        if (!report.samples().isEmpty()) {
+            content.append("\nFirst rejected rows:\n");
+            report.samples().stream().limit(10).forEach(rejection ->
+                    content.append("  Row ").append(rejection.rowNumber()).append(": ")
+                            .append(rejection.reason()).append('\n'));
+        }
+        if (report.rejectedFile() != null) {
+            content.append("\nAll rejected rows were written to ").append(report.rejectedFile());
+        }
+
+        Alert alert = new Alert(report.rejected() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+        alert.setTitle(report.dryRun() ? "Check Complete" : "Import Complete");
+        alert.setHeaderText(null);
+        alert.setContentText(content.toString());
+        alert.showAndWait();
+    }
+
+    private static Path rejectedFileFor(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return file.toPath().resolveSibling(base + "-rejected.csv");
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
     }
 
     @FXML
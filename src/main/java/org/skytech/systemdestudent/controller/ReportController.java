@@ -2,28 +2,53 @@ package org.skytech.systemdestudent.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.print.PageLayout;
+import javafx.print.PrinterJob;
 import javafx.scene.control.*;
         import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.DashboardStatistics;
 import org.skytech.systemdestudent.model.Enrollment;
 import org.skytech.systemdestudent.model.Student;
 import org.skytech.systemdestudent.service.CourseService;
 import org.skytech.systemdestudent.service.EnrollmentService;
+import org.skytech.systemdestudent.service.ReportExporter;
+import org.skytech.systemdestudent.service.ReportService;
+import org.skytech.systemdestudent.service.StatisticsService;
 import org.skytech.systemdestudent.service.StudentService;
+import org.skytech.systemdestudent.service.TextPageSink;
+import org.skytech.systemdestudent.service.TranscriptBatchExporter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class ReportController {
 
+    private static final double PRINT_FONT_SIZE = 9;
+    // Monospaced glyphs are about 0.6 em wide and lines about 1.2 em high
+    private static final double PRINT_CHAR_WIDTH = PRINT_FONT_SIZE * 0.6;
+    private static final double PRINT_LINE_HEIGHT = PRINT_FONT_SIZE * 1.2;
+
     @FXML private ComboBox<Student> transcriptStudentComboBox;
     @FXML private ComboBox<Course> rosterCourseComboBox;
     @FXML private ComboBox<String> semesterComboBox;
     @FXML private TextField academicYearField;
+    @FXML private ComboBox<String> batchDepartmentComboBox;
+    @FXML private TextField batchCohortField;
+    @FXML private ComboBox<ReportExporter.Format> batchFormatComboBox;
+    @FXML private CheckBox batchZipCheckBox;
 
     @FXML private Label reportTitleLabel;
     @FXML private Label totalStudentsLabel;
@@ -53,6 +78,11 @@ public class ReportController {
     private final StudentService studentService;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
+    private final StatisticsService statisticsService;
+    private final ReportService reportService;
+    private final ReportExporter reportExporter;
+    private final TranscriptBatchExporter transcriptBatchExporter;
+    private final BackgroundTasks backgroundTasks;
 
     private ObservableList<Student> studentList;
     private ObservableList<Course> courseList;
@@ -61,10 +91,20 @@ public class ReportController {
     @Autowired
     public ReportController(StudentService studentService,
                             CourseService courseService,
-                            EnrollmentService enrollmentService) {
+                            EnrollmentService enrollmentService,
+                            StatisticsService statisticsService,
+                            ReportService reportService,
+                            ReportExporter reportExporter,
+                            TranscriptBatchExporter transcriptBatchExporter,
+                            BackgroundTasks backgroundTasks) {
         this.studentService = studentService;
         this.courseService = courseService;
         this.enrollmentService = enrollmentService;
+        this.statisticsService = statisticsService;
+        this.reportService = reportService;
+        this.reportExporter = reportExporter;
+        this.transcriptBatchExporter = transcriptBatchExporter;
+        this.backgroundTasks = backgroundTasks;
         this.studentList = FXCollections.observableArrayList();
         this.courseList = FXCollections.observableArrayList();
         this.rosterList = FXCollections.observableArrayList();
@@ -136,6 +176,9 @@ public class ReportController {
 
         rosterTableView.setItems(rosterList);
 
+        batchFormatComboBox.getItems().setAll(ReportExporter.Format.values());
+        batchFormatComboBox.setValue(ReportExporter.Format.PDF);
+
         // Load initial data
         loadStudents();
         loadCourses();
@@ -144,179 +187,289 @@ public class ReportController {
 
     @FXML
     private void handleGenerateTranscript() {
-        try {
-            Student student = transcriptStudentComboBox.getValue();
-            if (student == null) {
-                showError("No Selection", "Please select a student");
-                return;
-            }
-
-            // Get student's enrollments
-            List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStudent(student.getId());
-
-            // Build transcript
-            StringBuilder transcript = new StringBuilder();
-            transcript.append("═══════════════════════════════════════════════════════\n");
-            transcript.append("                 STUDENT TRANSCRIPT\n");
-            transcript.append("═══════════════════════════════════════════════════════\n\n");
-
-            transcript.append("Student Information:\n");
-            transcript.append("───────────────────────────────────────────────────────\n");
-            transcript.append(String.format("Registration No: %s\n", student.getRegistrationNumber()));
-            transcript.append(String.format("Name: %s\n", student.getFullName()));
-            transcript.append(String.format("Department: %s\n", student.getDepartment() != null ? student.getDepartment() : "N/A"));
-            transcript.append(String.format("Email: %s\n", student.getEmail() != null ? student.getEmail() : "N/A"));
-            transcript.append(String.format("Enrollment Date: %s\n\n", student.getEnrollmentDate()));
-
-            transcript.append("Academic Records:\n");
-            transcript.append("═══════════════════════════════════════════════════════\n");
-            transcript.append(String.format("%-12s %-30s %-8s %-10s %-8s\n",
-                    "Course Code", "Course Title", "Credits", "Semester", "Grade"));
-            transcript.append("───────────────────────────────────────────────────────\n");
-
-            int totalCredits = 0;
-            for (Enrollment enrollment : enrollments) {
-                transcript.append(String.format("%-12s %-30s %-8d %-10s %-8s\n",
-                        enrollment.getCourseCode(),
-                        enrollment.getCourseTitle().length() > 30 ?
-                                enrollment.getCourseTitle().substring(0, 27) + "..." :
-                                enrollment.getCourseTitle(),
-                        enrollment.getCourseCredits(),
-                        enrollment.getSemester() != null ? enrollment.getSemester() : "N/A",
-                        enrollment.getGrade() != null ? enrollment.getGrade() : "In Progress"));
-                totalCredits += enrollment.getCourseCredits();
-            }
-
-            transcript.append("───────────────────────────────────────────────────────\n");
-            transcript.append(String.format("Total Courses: %d\n", enrollments.size()));
-            transcript.append(String.format("Total Credits: %d\n", totalCredits));
-            transcript.append("═══════════════════════════════════════════════════════\n");
-            transcript.append(String.format("\nGenerated on: %s\n", LocalDate.now()));
-
-            transcriptTextArea.setText(transcript.toString());
-            transcriptHeaderLabel.setText("Transcript for " + student.getFullName());
-            reportTabPane.getSelectionModel().select(0); // Switch to transcript tab
-
-        } catch (Exception e) {
-            showError("Error", "Failed to generate transcript: " + e.getMessage());
-            e.printStackTrace();
+        Student student = transcriptStudentComboBox.getValue();
+        if (student == null) {
+            showError("No Selection", "Please select a student");
+            return;
         }
+
+        // Fetch enrollments and build the transcript off the FX thread
+        backgroundTasks.submit("Generating transcript",
+                () -> reportService.generateTranscript(student),
+                transcript -> {
+                    transcriptTextArea.setText(transcript);
+                    transcriptHeaderLabel.setText("Transcript for " + student.getFullName());
+                    reportTabPane.getSelectionModel().select(0); // Switch to transcript tab
+                },
+                e -> {
+                    showError("Error", "Failed to generate transcript: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
     @FXML
     private void handleGenerateCourseRoster() {
-        try {
-            Course course = rosterCourseComboBox.getValue();
-            if (course == null) {
-                showError("No Selection", "Please select a course");
-                return;
-            }
-
-            // Get course enrollments
-            List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourse(course.getId());
-
-            rosterList.clear();
-            rosterList.addAll(enrollments);
-
-            rosterHeaderLabel.setText("Course Roster: " + course.getCourseCode() + " - " + course.getCourseTitle());
-            rosterCountLabel.setText("Total Students: " + enrollments.size());
-
-            reportTabPane.getSelectionModel().select(1); // Switch to roster tab
-
-        } catch (Exception e) {
-            showError("Error", "Failed to generate course roster: " + e.getMessage());
-            e.printStackTrace();
+        Course course = rosterCourseComboBox.getValue();
+        if (course == null) {
+            showError("No Selection", "Please select a course");
+            return;
         }
+
+        // Get course enrollments off the FX thread
+        rosterList.clear();
+        rosterHeaderLabel.setText("Course Roster: " + course.getCourseCode() + " - " + course.getCourseTitle());
+        reportTabPane.getSelectionModel().select(1); // Switch to roster tab
+
+        Task<List<Enrollment>> task = backgroundTasks.submit("Generating course roster",
+                () -> enrollmentService.getEnrollmentsByCourse(course.getId()),
+                enrollments -> {
+                    rosterList.setAll(enrollments);
+                    rosterCountLabel.setText("Total Students: " + enrollments.size());
+                },
+                e -> {
+                    showError("Error", "Failed to generate course roster: " + e.getMessage());
+                    e.printStackTrace();
+                });
+        BackgroundTasks.showLoading(rosterTableView, task);
     }
 
     @FXML
     private void handleGenerateSummary() {
-        try {
-            String semester = semesterComboBox.getValue();
-            String academicYear = academicYearField.getText().trim();
-
-            List<Enrollment> allEnrollments = enrollmentService.getAllEnrollments();
-
-            // Filter enrollments if criteria provided
-            List<Enrollment> filteredEnrollments = allEnrollments;
-            if (semester != null && !semester.equals("All")) {
-                filteredEnrollments = filteredEnrollments.stream()
-                        .filter(e -> semester.equals(e.getSemester()))
-                        .toList();
-            }
-            if (!academicYear.isEmpty()) {
-                filteredEnrollments = filteredEnrollments.stream()
-                        .filter(e -> academicYear.equals(e.getAcademicYear()))
-                        .toList();
-            }
-
-            // Build summary
-            StringBuilder summary = new StringBuilder();
-            summary.append("═══════════════════════════════════════════════════════\n");
-            summary.append("             ENROLLMENT SUMMARY REPORT\n");
-            summary.append("═══════════════════════════════════════════════════════\n\n");
+        String semester = semesterComboBox.getValue();
+        String academicYear = academicYearField.getText().trim();
+
+        // Filtering and grade counting happen in one GROUP BY query
+        backgroundTasks.submit("Generating summary",
+                () -> reportService.generateSummary(
+                        semester != null && !semester.equals("All") ? semester : null,
+                        academicYear),
+                summary -> {
+                    summaryTextArea.setText(summary);
+                    reportTabPane.getSelectionModel().select(2); // Switch to summary tab
+                },
+                e -> {
+                    showError("Error", "Failed to generate summary: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
 
-            if (semester != null && !semester.equals("All")) {
-                summary.append(String.format("Semester: %s\n", semester));
-            }
-            if (!academicYear.isEmpty()) {
-                summary.append(String.format("Academic Year: %s\n", academicYear));
-            }
-            summary.append(String.format("Report Date: %s\n\n", LocalDate.now()));
-
-            summary.append("Summary Statistics:\n");
-            summary.append("───────────────────────────────────────────────────────\n");
-            summary.append(String.format("Total Enrollments: %d\n", filteredEnrollments.size()));
-
-            long enrollmentsWithGrades = filteredEnrollments.stream()
-                    .filter(e -> e.getGrade() != null && !e.getGrade().isEmpty())
-                    .count();
-            summary.append(String.format("Enrollments with Grades: %d\n", enrollmentsWithGrades));
-            summary.append(String.format("Enrollments In Progress: %d\n\n",
-                    filteredEnrollments.size() - enrollmentsWithGrades));
-
-            summary.append("Grade Distribution:\n");
-            summary.append("───────────────────────────────────────────────────────\n");
-
-            String[] grades = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "E", "F"};
-            for (String grade : grades) {
-                long count = filteredEnrollments.stream()
-                        .filter(e -> grade.equals(e.getGrade()))
-                        .count();
-                if (count > 0) {
-                    summary.append(String.format("Grade %s: %d\n", grade, count));
-                }
+    /**
+     * Writes the transcripts of every student in the chosen department
+     * and/or cohort to a zip archive or a directory.
+     */
+    @FXML
+    private void handleGenerateBatchTranscripts() {
+        Integer cohort = null;
+        String cohortText = batchCohortField.getText().trim();
+        if (!cohortText.isEmpty()) {
+            try {
+                cohort = Integer.valueOf(cohortText);
+            } catch (NumberFormatException e) {
+                showError("Invalid Cohort", "Cohort must be a year, e.g. 2023");
+                return;
             }
+        }
 
-            summary.append("\n═══════════════════════════════════════════════════════\n");
-
-            summaryTextArea.setText(summary.toString());
-            reportTabPane.getSelectionModel().select(2); // Switch to summary tab
-
-        } catch (Exception e) {
-            showError("Error", "Failed to generate summary: " + e.getMessage());
-            e.printStackTrace();
+        TranscriptBatchExporter.Selection selection =
+                new TranscriptBatchExporter.Selection(batchDepartmentComboBox.getValue(), cohort);
+        ReportExporter.Format format = batchFormatComboBox.getValue();
+        boolean zip = batchZipCheckBox.isSelected();
+
+        File destination;
+        if (zip) {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Save Transcripts");
+            chooser.setInitialFileName(selection.fileName() + ".zip");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Zip Archives", "*.zip"));
+            destination = chooser.showSaveDialog(reportTabPane.getScene().getWindow());
+        } else {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Choose Transcript Folder");
+            destination = chooser.showDialog(reportTabPane.getScene().getWindow());
         }
+        if (destination == null) {
+            return;
+        }
+
+        backgroundTasks.submit("Generating transcripts",
+                progress -> transcriptBatchExporter.export(selection, format,
+                        zip ? TranscriptBatchExporter.Target.ZIP : TranscriptBatchExporter.Target.DIRECTORY,
+                        destination.toPath(), new TranscriptBatchExporter.Progress() {
+                            @Override
+                            public void transcriptsWritten(long done, long total) {
+                                progress.update(done, total);
+                                progress.message(String.format("%,d of %,d transcripts written", done, total));
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return progress.isCancelled();
+                            }
+                        }),
+                result -> showInfo("Transcripts Complete", String.format(
+                        "Wrote %,d transcripts (%,d enrollments) to %s in %.1f s, %.1f transcripts/s",
+                        result.transcripts(), result.enrollments(), destination.getAbsolutePath(),
+                        result.elapsed().toMillis() / 1000.0, result.transcriptsPerSecond())),
+                e -> {
+                    showError("Error", "Failed to generate transcripts: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
     @FXML
     private void handleRefreshStatistics() {
-        updateStatistics();
+        // An explicit refresh skips the cache
+        backgroundTasks.submit("Refreshing statistics",
+                statisticsService::refresh,
+                this::showStatistics,
+                e -> {
+                    showError("Error", "Failed to update statistics: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
+    /**
+     * Prints the report of the selected tab, streaming it from the database
+     * a page at a time.
+     */
     @FXML
     private void handlePrint() {
-        showInfo("Feature Not Implemented", "Print functionality will be added in future version");
+        ReportExporter.Report report = selectedReport();
+        if (report == null) {
+            return;
+        }
+
+        PrinterJob job = PrinterJob.createPrinterJob();
+        if (job == null) {
+            showError("Print", "No printer is available");
+            return;
+        }
+        if (!job.showPrintDialog(reportTabPane.getScene().getWindow())) {
+            job.cancelJob();
+            return;
+        }
+
+        PageLayout layout = job.getJobSettings().getPageLayout();
+        int width = (int) (layout.getPrintableWidth() / PRINT_CHAR_WIDTH);
+        int lines = (int) (layout.getPrintableHeight() / PRINT_LINE_HEIGHT) - 1;
+        Font font = Font.font("Monospaced", PRINT_FONT_SIZE);
+
+        backgroundTasks.submit("Printing report",
+                progress -> {
+                    // Pages are not in a scene, so they can be printed off the FX thread
+                    TextPageSink sink = new TextPageSink(width, lines, (number, pageLines) -> {
+                        Text page = new Text(String.join("\n", pageLines));
+                        page.setFont(font);
+                        if (!job.printPage(page)) {
+                            throw new IOException("Printing stopped at page " + number);
+                        }
+                        progress.message("Printed page " + number);
+                    });
+                    try {
+                        long rows = reportExporter.write(report, sink, exportProgress(progress));
+                        sink.close();
+                        if (!job.endJob()) {
+                            throw new IOException("The print job did not complete");
+                        }
+                        return rows;
+                    } catch (Exception e) {
+                        job.cancelJob();
+                        throw e;
+                    }
+                },
+                rows -> showInfo("Print", "Report sent to the printer"),
+                e -> {
+                    showError("Error", "Failed to print report: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
     @FXML
     private void handleExportPDF() {
-        showInfo("Feature Not Implemented", "PDF export will be added in future version");
+        export(ReportExporter.Format.PDF);
     }
 
     @FXML
     private void handleExportExcel() {
-        showInfo("Feature Not Implemented", "Excel export will be added in future version");
+        export(ReportExporter.Format.XLSX);
+    }
+
+    @FXML
+    private void handleExportCSV() {
+        export(ReportExporter.Format.CSV);
+    }
+
+    /**
+     * Exports the report of the selected tab. Rows are read from the
+     * database as they are written rather than taken from the tab, so the
+     * export does not depend on what has been generated on screen.
+     */
+    private void export(ReportExporter.Format format) {
+        ReportExporter.Report report = selectedReport();
+        if (report == null) {
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Report");
+        chooser.setInitialFileName(report.fileName() + "." + format.extension());
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter(format.description(), "*." + format.extension()));
+
+        File file = chooser.showSaveDialog(reportTabPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        backgroundTasks.submit("Exporting report",
+                progress -> reportExporter.export(report, format, file.toPath(), exportProgress(progress)),
+                rows -> showInfo("Export Complete",
+                        String.format("Exported %,d rows to %s", rows, file.getAbsolutePath())),
+                e -> {
+                    showError("Error", "Failed to export report: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
+
+    private ReportExporter.Report selectedReport() {
+        switch (reportTabPane.getSelectionModel().getSelectedIndex()) {
+            case 0 -> {
+                Student student = transcriptStudentComboBox.getValue();
+                if (student == null) {
+                    showError("No Selection", "Please select a student");
+                    return null;
+                }
+                return new ReportExporter.Transcript(student);
+            }
+            case 1 -> {
+                Course course = rosterCourseComboBox.getValue();
+                if (course == null) {
+                    showError("No Selection", "Please select a course");
+                    return null;
+                }
+                return new ReportExporter.Roster(course);
+            }
+            default -> {
+                String semester = semesterComboBox.getValue();
+                return new ReportExporter.Summary(
+                        semester != null && !semester.equals("All") ? semester : null,
+                        academicYearField.getText().trim());
+            }
+        }
+    }
+
+    private static ReportExporter.Progress exportProgress(BackgroundTasks.Progress progress) {
+        return new ReportExporter.Progress() {
+            @Override
+            public void rowsWritten(long rows) {
+                progress.message(String.format("%,d rows written", rows));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return progress.isCancelled();
+            }
+        };
     }
 
     @FXML
@@ -330,39 +483,60 @@ public class ReportController {
     }
 
     private void loadStudents() {
-        try {
-            studentList.clear();
-            studentList.addAll(studentService.getAllStudents());
-        } catch (Exception e) {
-            showError("Error", "Failed to load students: " + e.getMessage());
-            e.printStackTrace();
-        }
+        backgroundTasks.submit("Loading students",
+                studentService::getAllStudents,
+                students -> studentList.setAll(students),
+                e -> {
+                    showError("Error", "Failed to load students: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
     private void loadCourses() {
-        try {
-            courseList.clear();
-            courseList.addAll(courseService.getAllCourses());
-        } catch (Exception e) {
-            showError("Error", "Failed to load courses: " + e.getMessage());
-            e.printStackTrace();
-        }
+        backgroundTasks.submit("Loading courses",
+                courseService::getAllCourses,
+                courses -> courseList.setAll(courses),
+                e -> {
+                    showError("Error", "Failed to load courses: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
     private void updateStatistics() {
-        try {
-            int studentCount = studentService.getAllStudents().size();
-            int courseCount = courseService.getAllCourses().size();
-            int enrollmentCount = enrollmentService.getAllEnrollments().size();
-
-            totalStudentsLabel.setText(String.valueOf(studentCount));
-            totalCoursesLabel.setText(String.valueOf(courseCount));
-            totalEnrollmentsLabel.setText(String.valueOf(enrollmentCount));
-
-        } catch (Exception e) {
-            showError("Error", "Failed to update statistics: " + e.getMessage());
-            e.printStackTrace();
+        // Served from a short-lived cache backed by COUNT/GROUP BY queries
+        backgroundTasks.submit("Refreshing statistics",
+                statisticsService::getStatistics,
+                this::showStatistics,
+                e -> {
+                    showError("Error", "Failed to update statistics: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
+
+    private void showStatistics(DashboardStatistics statistics) {
+        totalStudentsLabel.setText(String.valueOf(statistics.getTotalStudents()));
+        totalCoursesLabel.setText(String.valueOf(statistics.getTotalCourses()));
+        totalEnrollmentsLabel.setText(String.valueOf(statistics.getTotalEnrollments()));
+
+        totalStudentsLabel.setTooltip(new Tooltip(formatCounts(statistics.getStudentsByDepartment())));
+
+        String department = batchDepartmentComboBox.getValue();
+        batchDepartmentComboBox.getItems().setAll(statistics.getStudentsByDepartment().keySet().stream()
+                .filter(name -> name != null && !name.isBlank())
+                .toList());
+        batchDepartmentComboBox.setValue(department);
+        totalEnrollmentsLabel.setTooltip(new Tooltip(String.format("Graded: %d\nIn Progress: %d\n\n%s",
+                statistics.getGradedEnrollments(),
+                statistics.getInProgressEnrollments(),
+                formatCounts(statistics.getEnrollmentsByTerm()))));
+    }
+
+    private String formatCounts(Map<String, Long> counts) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            text.append(String.format("%s: %d\n", entry.getKey(), entry.getValue()));
         }
+        return text.length() > 0 ? text.toString().trim() : "No data";
     }
 
     private void showError(String title, String message) {
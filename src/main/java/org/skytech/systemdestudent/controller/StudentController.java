@@ -2,15 +2,20 @@ package org.skytech.systemdestudent.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
         import javafx.scene.control.cell.PropertyValueFactory;
 import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.service.SearchIndex;
 import org.skytech.systemdestudent.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.Optional;
 
 @Component
@@ -25,6 +30,7 @@ public class StudentController {
     @FXML private TextField departmentField;
     @FXML private TextField phoneField;
     @FXML private TextArea addressArea;
+    @FXML private TextField searchField;
 
     @FXML private TableView<Student> studentTable;
     @FXML private TableColumn<Student, Long> idColumn;
@@ -39,14 +45,27 @@ public class StudentController {
     @FXML private Button updateButton;
     @FXML private Button deleteButton;
     @FXML private Button clearButton;
+    @FXML private Button loadMoreButton;
+
+    private static final int PAGE_SIZE = 200;
+
+    // Same order as the repository's keyset pages
+    private static final Comparator<Student> STUDENT_ORDER =
+            Comparator.comparing(Student::getRegistrationNumber, String.CASE_INSENSITIVE_ORDER);
 
     private final StudentService studentService;
+    private final BackgroundTasks backgroundTasks;
     private ObservableList<Student> studentList;
     private Student selectedStudent;
+    private String nextCursor;
+    private LocalDateTime syncedAt;
+    private Task<Page<Student>> loadTask;
+    private Task<?> saveTask;
 
     @Autowired
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, BackgroundTasks backgroundTasks) {
         this.studentService = studentService;
+        this.backgroundTasks = backgroundTasks;
         this.studentList = FXCollections.observableArrayList();
     }
 
@@ -61,8 +80,14 @@ public class StudentController {
         emailColumn.setCellValueFactory(new PropertyValueFactory<>("email"));
         departmentColumn.setCellValueFactory(new PropertyValueFactory<>("department"));
 
-        // Set table data
-        studentTable.setItems(studentList);
+        // Set table data, searchable in memory as the user types
+        SearchIndex<Student> index = new SearchIndex<>(Student::getId)
+                .field("reg", Student::getRegistrationNumber)
+                .field("first", Student::getFirstName)
+                .field("last", Student::getLastName)
+                .field("email", Student::getEmail)
+                .field("dept", Student::getDepartment);
+        new TableSearch<>(studentList, index).attach(studentTable, searchField);
 
         // Add selection listener
         studentTable.getSelectionModel().selectedItemProperty().addListener(
@@ -83,109 +108,111 @@ public class StudentController {
 
     @FXML
     private void handleAddStudent() {
-        try {
-            // Validate input
-            if (!validateInput()) {
-                return;
-            }
-
-            // Create new student
-            Student newStudent = new Student();
-            newStudent.setRegistrationNumber(regNoField.getText().trim());
-            newStudent.setFirstName(firstNameField.getText().trim());
-            newStudent.setLastName(lastNameField.getText().trim());
-            newStudent.setEnrollmentDate(enrollmentDatePicker.getValue());
-            newStudent.setEmail(emailField.getText().trim());
-            newStudent.setDateOfBirth(dobPicker.getValue());
-            newStudent.setDepartment(departmentField.getText().trim());
-            newStudent.setPhoneNumber(phoneField.getText().trim());
-            newStudent.setAddress(addressArea.getText().trim());
-
-            // Save student
-            Student savedStudent = studentService.saveStudent(newStudent);
-
-            // Update UI
-            clearFields();
-            loadStudents();
-            showSuccess("Student added successfully!");
+        if (isSaving()) {
+            return;
+        }
 
-        } catch (IllegalArgumentException e) {
-            showError("Validation Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Error", "Failed to add student: " + e.getMessage());
-            e.printStackTrace();
+        // Validate input
+        if (!validateInput()) {
+            return;
         }
+
+        // Create new student
+        Student newStudent = new Student();
+        newStudent.setRegistrationNumber(regNoField.getText().trim());
+        newStudent.setFirstName(firstNameField.getText().trim());
+        newStudent.setLastName(lastNameField.getText().trim());
+        newStudent.setEnrollmentDate(enrollmentDatePicker.getValue());
+        newStudent.setEmail(emailField.getText().trim());
+        newStudent.setDateOfBirth(dobPicker.getValue());
+        newStudent.setDepartment(departmentField.getText().trim());
+        newStudent.setPhoneNumber(phoneField.getText().trim());
+        newStudent.setAddress(addressArea.getText().trim());
+
+        // Save student in the background, then update UI
+        saveTask = backgroundTasks.submit("Saving student",
+                () -> studentService.saveStudent(newStudent),
+                savedStudent -> {
+                    clearFields();
+                    refreshStudents();
+                    showSuccess("Student added successfully!");
+                },
+                e -> showFailure("Failed to add student", e));
     }
 
     @FXML
     private void handleUpdateStudent() {
-        try {
-            if (selectedStudent == null) {
-                showError("No Selection", "Please select a student to update");
-                return;
-            }
-
-            // Validate input
-            if (!validateInput()) {
-                return;
-            }
-
-            // Update student object
-            selectedStudent.setRegistrationNumber(regNoField.getText().trim());
-            selectedStudent.setFirstName(firstNameField.getText().trim());
-            selectedStudent.setLastName(lastNameField.getText().trim());
-            selectedStudent.setEnrollmentDate(enrollmentDatePicker.getValue());
-            selectedStudent.setEmail(emailField.getText().trim());
-            selectedStudent.setDateOfBirth(dobPicker.getValue());
-            selectedStudent.setDepartment(departmentField.getText().trim());
-            selectedStudent.setPhoneNumber(phoneField.getText().trim());
-            selectedStudent.setAddress(addressArea.getText().trim());
-
-            // Save updated student
-            studentService.saveStudent(selectedStudent);
-
-            // Update UI
-            clearFields();
-            loadStudents();
-            showSuccess("Student updated successfully!");
+        if (isSaving()) {
+            return;
+        }
 
-        } catch (IllegalArgumentException e) {
-            showError("Validation Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Error", "Failed to update student: " + e.getMessage());
-            e.printStackTrace();
+        if (selectedStudent == null) {
+            showError("No Selection", "Please select a student to update");
+            return;
         }
+
+        // Validate input
+        if (!validateInput()) {
+            return;
+        }
+
+        // Update student object
+        Student student = selectedStudent;
+        student.setRegistrationNumber(regNoField.getText().trim());
+        student.setFirstName(firstNameField.getText().trim());
+        student.setLastName(lastNameField.getText().trim());
+        student.setEnrollmentDate(enrollmentDatePicker.getValue());
+        student.setEmail(emailField.getText().trim());
+        student.setDateOfBirth(dobPicker.getValue());
+        student.setDepartment(departmentField.getText().trim());
+        student.setPhoneNumber(phoneField.getText().trim());
+        student.setAddress(addressArea.getText().trim());
+
+        // Save updated student in the background, then update UI
+        saveTask = backgroundTasks.submit("Saving student",
+                () -> studentService.saveStudent(student),
+                savedStudent -> {
+                    clearFields();
+                    refreshStudents();
+                    showSuccess("Student updated successfully!");
+                },
+                e -> showFailure("Failed to update student", e));
     }
 
     @FXML
     private void handleDeleteStudent() {
-        try {
-            if (selectedStudent == null) {
-                showError("No Selection", "Please select a student to delete");
-                return;
-            }
-
-            // Confirm deletion
-            Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-            confirmAlert.setTitle("Confirm Deletion");
-            confirmAlert.setHeaderText("Delete Student");
-            confirmAlert.setContentText("Are you sure you want to delete " +
-                    selectedStudent.getFullName() + "?");
-
-            Optional<ButtonType> result = confirmAlert.showAndWait();
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                // Delete student
-                studentService.deleteStudent(selectedStudent.getId());
-
-                // Update UI
-                clearFields();
-                loadStudents();
-                showSuccess("Student deleted successfully!");
-            }
-
-        } catch (Exception e) {
-            showError("Error", "Failed to delete student: " + e.getMessage());
-            e.printStackTrace();
+        if (isSaving()) {
+            return;
+        }
+
+        if (selectedStudent == null) {
+            showError("No Selection", "Please select a student to delete");
+            return;
+        }
+
+        // Confirm deletion
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Confirm Deletion");
+        confirmAlert.setHeaderText("Delete Student");
+        confirmAlert.setContentText("Are you sure you want to delete " +
+                selectedStudent.getFullName() + "?");
+
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            Long studentId = selectedStudent.getId();
+
+            // Delete student in the background, then update UI
+            saveTask = backgroundTasks.submit("Deleting student",
+                    () -> {
+                        studentService.deleteStudent(studentId);
+                        return studentId;
+                    },
+                    deletedId -> {
+                        clearFields();
+                        refreshStudents();
+                        showSuccess("Student deleted successfully!");
+                    },
+                    e -> showFailure("Failed to delete student", e));
         }
     }
 
@@ -194,14 +221,79 @@ public class StudentController {
         clearFields();
     }
 
+    @FXML
+    private void handleLoadMore() {
+        if (nextCursor != null) {
+            loadPage(nextCursor);
+        }
+    }
+
     private void loadStudents() {
-        try {
-            studentList.clear();
-            studentList.addAll(studentService.getAllStudents());
-        } catch (Exception e) {
-            showError("Error", "Failed to load students: " + e.getMessage());
-            e.printStackTrace();
+        studentList.clear();
+        nextCursor = null;
+        syncedAt = null;
+
+        // Take the sync point before the first page so later edits are not missed
+        backgroundTasks.submit("Loading students",
+                studentService::getSyncPoint,
+                syncPoint -> {
+                    syncedAt = syncPoint;
+                    studentList.clear();
+                    loadPage(null);
+                },
+                e -> showFailure("Failed to load students", e));
+    }
+
+    /**
+     * Patches the loaded rows with what changed since the last sync instead of
+     * reloading the table.
+     */
+    void refreshStudents() {
+        if (syncedAt == null) {
+            loadStudents();
+            return;
         }
+
+        LocalDateTime since = syncedAt;
+        backgroundTasks.submit("Refreshing students",
+                () -> studentService.getStudentChanges(since),
+                changes -> {
+                    syncedAt = changes.syncedAt();
+                    ListChanges.apply(studentList, changes, Student::getId, STUDENT_ORDER,
+                            student -> true, nextCursor == null);
+                },
+                e -> showFailure("Failed to refresh students", e));
+    }
+
+    private void loadPage(String cursor) {
+        // A newer load replaces one still in flight
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        if (loadMoreButton != null) {
+            loadMoreButton.setDisable(true);
+        }
+
+        loadTask = backgroundTasks.submit("Loading students",
+                () -> studentService.getStudentPage(cursor, PAGE_SIZE),
+                page -> {
+                    studentList.addAll(page.items());
+                    nextCursor = page.nextCursor();
+                    if (loadMoreButton != null) {
+                        loadMoreButton.setDisable(!page.hasNext());
+                    }
+                },
+                e -> {
+                    if (loadMoreButton != null) {
+                        loadMoreButton.setDisable(nextCursor == null);
+                    }
+                    showFailure("Failed to load students", e);
+                });
+        BackgroundTasks.showLoading(studentTable, loadTask);
+    }
+
+    private boolean isSaving() {
+        return saveTask != null && !saveTask.isDone();
     }
 
     private void populateFields(Student student) {
@@ -262,6 +354,15 @@ public class StudentController {
         alert.showAndWait();
     }
 
+    private void showFailure(String message, Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            showError("Validation Error", e.getMessage());
+        } else {
+            showError("Error", message + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void showSuccess(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");
@@ -0,0 +1,126 @@
+package org.skytech.systemdestudent.controller;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import org.skytech.systemdestudent.service.SearchIndex;
+
+import java.util.function.Predicate;
+
+/**
+ * Shows a loaded table list through a FilteredList and SortedList, narrowed by
+ * a search box and an optional extra filter. The index follows the list, so
+ * page loads and refreshes are searchable as soon as they arrive.
+ */
+final class TableSearch<T> {
+
+    // Larger changes (a reload or setAll) rebuild the index in one pass
+    private static final int REBUILD_THRESHOLD = 1000;
+
+    private final ObservableList<T> source;
+    private final SearchIndex<T> index;
+    private final FilteredList<T> filtered;
+    private final SortedList<T> sorted;
+
+    private String query = "";
+    private SearchIndex.Matches<T> matches;
+    private Predicate<? super T> filter;
+
+    TableSearch(ObservableList<T> source, SearchIndex<T> index) {
+        this.source = source;
+        this.index = index;
+        index.setAll(source);
+        this.filtered = new FilteredList<>(source);
+        this.sorted = new SortedList<>(filtered);
+
+        // Registered after the FilteredList, which must see a change before its predicate is replaced
+        source.addListener(this::onSourceChanged);
+    }
+
+    /**
+     * Shows the results in table and searches as the user types. Column sorting
+     * sorts the view only, leaving the loaded list in page order.
+     */
+    void attach(TableView<T> table, TextField searchField) {
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+        if (searchField != null) {
+            searchField.textProperty().addListener((observable, oldValue, newValue) -> search(newValue));
+        }
+    }
+
+    /**
+     * Puts the results back in table after it showed another list.
+     */
+    void show(TableView<T> table) {
+        table.setItems(sorted);
+    }
+
+    /**
+     * Narrows the view further, e.g. to one student's enrollments; null shows
+     * everything the search matches.
+     */
+    void setFilter(Predicate<? super T> filter) {
+        this.filter = filter;
+        apply();
+    }
+
+    int shownCount() {
+        return filtered.size();
+    }
+
+    private void search(String text) {
+        query = text == null ? "" : text;
+        matches = index.search(query);
+        apply();
+    }
+
+    private void apply() {
+        Predicate<? super T> extra = filter;
+        SearchIndex.Matches<T> found = matches;
+
+        if (extra == null && (found == null || found.matchesAll())) {
+            filtered.setPredicate(null);
+        } else if (found == null || found.matchesAll()) {
+            filtered.setPredicate(extra::test);
+        } else if (extra == null) {
+            filtered.setPredicate(found);
+        } else {
+            filtered.setPredicate(item -> found.test(item) && extra.test(item));
+        }
+    }
+
+    private void onSourceChanged(ListChangeListener.Change<? extends T> change) {
+        int touched = 0;
+        while (change.next()) {
+            touched += change.getRemovedSize() + change.getAddedSize();
+        }
+        change.reset();
+
+        if (source.isEmpty() || touched > REBUILD_THRESHOLD) {
+            index.setAll(source);
+        } else {
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    continue;
+                }
+                // A replacement reports the old row removed and the new one added
+                for (T removed : change.getRemoved()) {
+                    index.remove(removed);
+                }
+                for (T added : change.getAddedSubList()) {
+                    index.put(added);
+                }
+            }
+        }
+
+        // Old results point at replaced slots, so search again
+        if (matches != null && !matches.matchesAll()) {
+            matches = index.search(query);
+            apply();
+        }
+    }
+}
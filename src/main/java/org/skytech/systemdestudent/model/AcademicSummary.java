@@ -0,0 +1,79 @@
+package org.skytech.systemdestudent.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A student's running totals over all enrollments, with the same totals per
+ * term. Quality points are credits times grade point summed over graded
+ * enrollments; the GPA is their ratio over the graded credits, null until
+ * the first grade.
+ */
+public class AcademicSummary {
+    private final Long studentId;
+    private final int totalCourses;
+    private final int totalCredits;
+    private final int gradedCredits;
+    private final BigDecimal qualityPoints;
+    private final BigDecimal gpa;
+    // Oldest academic year first
+    private final List<TermSummary> terms;
+
+    public AcademicSummary(Long studentId, int totalCourses, int totalCredits, int gradedCredits,
+                           BigDecimal qualityPoints, BigDecimal gpa, List<TermSummary> terms) {
+        this.studentId = studentId;
+        this.totalCourses = totalCourses;
+        this.totalCredits = totalCredits;
+        this.gradedCredits = gradedCredits;
+        this.qualityPoints = qualityPoints;
+        this.gpa = gpa;
+        this.terms = List.copyOf(terms);
+    }
+
+    /**
+     * Totals of a student with no enrollments.
+     */
+    public static AcademicSummary empty(Long studentId) {
+        return new AcademicSummary(studentId, 0, 0, 0, BigDecimal.ZERO, null, List.of());
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public int getTotalCourses() {
+        return totalCourses;
+    }
+
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    public int getGradedCredits() {
+        return gradedCredits;
+    }
+
+    public BigDecimal getQualityPoints() {
+        return qualityPoints;
+    }
+
+    public BigDecimal getGpa() {
+        return gpa;
+    }
+
+    public List<TermSummary> getTerms() {
+        return terms;
+    }
+
+    @Override
+    public String toString() {
+        return "AcademicSummary{" +
+                "studentId=" + studentId +
+                ", totalCourses=" + totalCourses +
+                ", totalCredits=" + totalCredits +
+                ", gradedCredits=" + gradedCredits +
+                ", gpa=" + gpa +
+                ", terms=" + terms.size() +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package org.skytech.systemdestudent.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+public class DashboardStatistics {
+    private final long totalStudents;
+    private final long totalCourses;
+    private final long totalEnrollments;
+    private final long gradedEnrollments;
+    // Department -> student count, ordered by department name
+    private final Map<String, Long> studentsByDepartment;
+    // "academicYear semester" -> enrollment count, newest year first
+    private final Map<String, Long> enrollmentsByTerm;
+    private final LocalDateTime computedAt;
+
+    public DashboardStatistics(long totalStudents, long totalCourses,
+                               long totalEnrollments, long gradedEnrollments,
+                               Map<String, Long> studentsByDepartment,
+                               Map<String, Long> enrollmentsByTerm,
+                               LocalDateTime computedAt) {
+        this.totalStudents = totalStudents;
+        this.totalCourses = totalCourses;
+        this.totalEnrollments = totalEnrollments;
+        this.gradedEnrollments = gradedEnrollments;
+        this.studentsByDepartment = Collections.unmodifiableMap(studentsByDepartment);
+        this.enrollmentsByTerm = Collections.unmodifiableMap(enrollmentsByTerm);
+        this.computedAt = computedAt;
+    }
+
+    public long getTotalStudents() {
+        return totalStudents;
+    }
+
+    public long getTotalCourses() {
+        return totalCourses;
+    }
+
+    public long getTotalEnrollments() {
+        return totalEnrollments;
+    }
+
+    public long getGradedEnrollments() {
+        return gradedEnrollments;
+    }
+
+    public long getInProgressEnrollments() {
+        return totalEnrollments - gradedEnrollments;
+    }
+
+    public Map<String, Long> getStudentsByDepartment() {
+        return studentsByDepartment;
+    }
+
+    public Map<String, Long> getEnrollmentsByTerm() {
+        return enrollmentsByTerm;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardStatistics{" +
+                "totalStudents=" + totalStudents +
+                ", totalCourses=" + totalCourses +
+                ", totalEnrollments=" + totalEnrollments +
+                ", gradedEnrollments=" + gradedEnrollments +
+                ", computedAt=" + computedAt +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package org.skytech.systemdestudent.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One grade given for an enrollment. Every change of grade adds a row, so
+ * the rows for an enrollment are its grade history; the latest is the
+ * grade on the enrollment itself.
+ */
+public class Grade {
+    private Long id;
+    private Long enrollmentId;
+    private String gradeValue;
+    private BigDecimal gradePoint;
+    private String remarks;
+    private LocalDate gradedDate;
+    private String gradedBy;
+
+    // Default constructor
+    public Grade() {
+    }
+
+    public Grade(Long enrollmentId, String gradeValue, String gradedBy, String remarks) {
+        this.enrollmentId = enrollmentId;
+        this.gradeValue = gradeValue;
+        this.gradedBy = gradedBy;
+        this.remarks = remarks;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(Long enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public String getGradeValue() {
+        return gradeValue;
+    }
+
+    public void setGradeValue(String gradeValue) {
+        this.gradeValue = gradeValue;
+    }
+
+    public BigDecimal getGradePoint() {
+        return gradePoint;
+    }
+
+    public void setGradePoint(BigDecimal gradePoint) {
+        this.gradePoint = gradePoint;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+
+    public LocalDate getGradedDate() {
+        return gradedDate;
+    }
+
+    public void setGradedDate(LocalDate gradedDate) {
+        this.gradedDate = gradedDate;
+    }
+
+    public String getGradedBy() {
+        return gradedBy;
+    }
+
+    public void setGradedBy(String gradedBy) {
+        this.gradedBy = gradedBy;
+    }
+
+    @Override
+    public String toString() {
+        return "Grade{" +
+                "id=" + id +
+                ", enrollmentId=" + enrollmentId +
+                ", gradeValue='" + gradeValue + '\'' +
+                ", gradePoint=" + gradePoint +
+                ", gradedDate=" + gradedDate +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package org.skytech.systemdestudent.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class GradeDistribution {
+    private final long totalEnrollments;
+    private final long gradedEnrollments;
+    // Grade -> count, in grade order, only grades that occur
+    private final Map<String, Long> gradeCounts;
+
+    public GradeDistribution(long totalEnrollments, long gradedEnrollments,
+                             Map<String, Long> gradeCounts) {
+        this.totalEnrollments = totalEnrollments;
+        this.gradedEnrollments = gradedEnrollments;
+        this.gradeCounts = Collections.unmodifiableMap(gradeCounts);
+    }
+
+    public long getTotalEnrollments() {
+        return totalEnrollments;
+    }
+
+    public long getGradedEnrollments() {
+        return gradedEnrollments;
+    }
+
+    public long getInProgressEnrollments() {
+        return totalEnrollments - gradedEnrollments;
+    }
+
+    public Map<String, Long> getGradeCounts() {
+        return gradeCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "GradeDistribution{" +
+                "totalEnrollments=" + totalEnrollments +
+                ", gradedEnrollments=" + gradedEnrollments +
+                ", gradeCounts=" + gradeCounts +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package org.skytech.systemdestudent.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grade points on the 4.0 scale for each letter grade. E and F count
+ * towards graded credits with zero points.
+ */
+public final class GradeScale {
+
+    private static final Map<String, BigDecimal> POINTS;
+
+    static {
+        Map<String, BigDecimal> points = new LinkedHashMap<>();
+        points.put("A", new BigDecimal("4.00"));
+        points.put("A-", new BigDecimal("3.70"));
+        points.put("B+", new BigDecimal("3.30"));
+        points.put("B", new BigDecimal("3.00"));
+        points.put("B-", new BigDecimal("2.70"));
+        points.put("C+", new BigDecimal("2.30"));
+        points.put("C", new BigDecimal("2.00"));
+        points.put("C-", new BigDecimal("1.70"));
+        points.put("D+", new BigDecimal("1.30"));
+        points.put("D", new BigDecimal("1.00"));
+        points.put("D-", new BigDecimal("0.70"));
+        points.put("E", new BigDecimal("0.00"));
+        points.put("F", new BigDecimal("0.00"));
+        POINTS = Collections.unmodifiableMap(points);
+    }
+
+    private GradeScale() {
+    }
+
+    /**
+     * Grade point for grade, or null when it is blank or not a letter grade
+     * (an enrollment still in progress).
+     */
+    public static BigDecimal pointsFor(String grade) {
+        return grade == null ? null : POINTS.get(grade.trim());
+    }
+
+    public static boolean isGraded(String grade) {
+        return pointsFor(grade) != null;
+    }
+
+    /**
+     * Every grade with its points, best first.
+     */
+    public static Map<String, BigDecimal> points() {
+        return POINTS;
+    }
+}
@@ -0,0 +1,67 @@
+package org.skytech.systemdestudent.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A student's course, credit and grade totals for one semester of one
+ * academic year. Either may be null for enrollments recorded without it.
+ */
+public class TermSummary {
+    private final String academicYear;
+    private final String semester;
+    private final int totalCourses;
+    private final int totalCredits;
+    private final int gradedCredits;
+    private final BigDecimal qualityPoints;
+    private final BigDecimal gpa;
+
+    public TermSummary(String academicYear, String semester, int totalCourses, int totalCredits,
+                       int gradedCredits, BigDecimal qualityPoints, BigDecimal gpa) {
+        this.academicYear = academicYear;
+        this.semester = semester;
+        this.totalCourses = totalCourses;
+        this.totalCredits = totalCredits;
+        this.gradedCredits = gradedCredits;
+        this.qualityPoints = qualityPoints;
+        this.gpa = gpa;
+    }
+
+    public String getAcademicYear() {
+        return academicYear;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public int getTotalCourses() {
+        return totalCourses;
+    }
+
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    public int getGradedCredits() {
+        return gradedCredits;
+    }
+
+    public BigDecimal getQualityPoints() {
+        return qualityPoints;
+    }
+
+    public BigDecimal getGpa() {
+        return gpa;
+    }
+
+    @Override
+    public String toString() {
+        return "TermSummary{" +
+                "academicYear='" + academicYear + '\'' +
+                ", semester='" + semester + '\'' +
+                ", totalCourses=" + totalCourses +
+                ", totalCredits=" + totalCredits +
+                ", gpa=" + gpa +
+                '}';
+    }
+}
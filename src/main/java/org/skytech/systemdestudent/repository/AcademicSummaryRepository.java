@@ -0,0 +1,261 @@
+package org.skytech.systemdestudent.repository;
+
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.TermSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-student totals in student_academic_summary and per-term totals in
+ * student_term_summary. They are only ever adjusted by the difference a
+ * change makes, never recomputed from the enrollments, so reading one is a
+ * primary key lookup whatever the student's history.
+ */
+@Repository
+public class AcademicSummaryRepository {
+
+    /**
+     * The term an enrollment counts towards. A null semester or academic
+     * year is stored as ''.
+     */
+    public record TermKey(Long studentId, String academicYear, String semester) {
+    }
+
+    /**
+     * An amount to add to a summary; negative to take away.
+     */
+    public record Totals(int courses, int credits, int gradedCredits, BigDecimal qualityPoints) {
+
+        public static final Totals NONE = new Totals(0, 0, 0, BigDecimal.ZERO);
+
+        public Totals plus(Totals other) {
+            return new Totals(courses + other.courses, credits + other.credits,
+                    gradedCredits + other.gradedCredits, qualityPoints.add(other.qualityPoints));
+        }
+
+        public Totals negate() {
+            return new Totals(-courses, -credits, -gradedCredits, qualityPoints.negate());
+        }
+
+        public boolean isNone() {
+            return courses == 0 && credits == 0 && gradedCredits == 0 && qualityPoints.signum() == 0;
+        }
+    }
+
+    // ON DUPLICATE KEY UPDATE assigns left to right, so gpa sees the new totals.
+    // VALUES(column) rather than a row alias, which MariaDB, H2 and MySQL before 8.0.19 lack.
+    private static final String ADD_TO_STUDENT_SQL = """
+            INSERT INTO student_academic_summary (student_id, total_courses, total_credits,
+                                                  graded_credits, quality_points, gpa)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                total_courses = total_courses + VALUES(total_courses),
+                total_credits = total_credits + VALUES(total_credits),
+                graded_credits = graded_credits + VALUES(graded_credits),
+                quality_points = quality_points + VALUES(quality_points),
+                gpa = IF(graded_credits > 0, ROUND(quality_points / graded_credits, 3), NULL)
+        """;
+
+    private static final String ADD_TO_TERM_SQL = """
+            INSERT INTO student_term_summary (student_id, academic_year, semester, total_courses,
+                                              total_credits, graded_credits, quality_points, gpa)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                total_courses = total_courses + VALUES(total_courses),
+                total_credits = total_credits + VALUES(total_credits),
+                graded_credits = graded_credits + VALUES(graded_credits),
+                quality_points = quality_points + VALUES(quality_points),
+                gpa = IF(graded_credits > 0, ROUND(quality_points / graded_credits, 3), NULL)
+        """;
+
+    private static final String FIND_SUMMARY_SQL = """
+            SELECT * FROM student_academic_summary WHERE student_id = ?
+        """;
+
+    // Terms emptied by deletes or moves keep their row with zero courses
+    private static final String FIND_TERMS_SQL = """
+            SELECT * FROM student_term_summary
+            WHERE student_id = ? AND total_courses > 0
+            ORDER BY academic_year, semester
+        """;
+
+    private static final String IN_BATCH = " IN (" + "?, ".repeat(KeyLookup.BATCH_SIZE - 1) + "?)";
+
+    private static final String FIND_SUMMARIES_SQL = "SELECT * FROM student_academic_summary WHERE student_id"
+            + IN_BATCH;
+
+    private static final String FIND_TERMS_OF_SQL = "SELECT * FROM student_term_summary WHERE student_id"
+            + IN_BATCH + " AND total_courses > 0 ORDER BY student_id, academic_year, semester";
+
+    private final Transactions transactions;
+    private final StatementRegistry statements;
+
+    @Autowired
+    public AcademicSummaryRepository(Transactions transactions, StatementRegistry statements) {
+        this.transactions = transactions;
+        this.statements = statements;
+    }
+
+    /**
+     * Adds each term's change to its term row and to its student's overall
+     * row, one JDBC batch per table, creating rows as needed. Run it in the
+     * same unit of work as the change it describes.
+     */
+    public void apply(Map<TermKey, Totals> changes) throws SQLException {
+        Map<Long, Totals> byStudent = new HashMap<>();
+        for (Map.Entry<TermKey, Totals> entry : changes.entrySet()) {
+            if (!entry.getValue().isNone()) {
+                byStudent.merge(entry.getKey().studentId(), entry.getValue(), Totals::plus);
+            }
+        }
+        if (byStudent.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = transactions.getConnection()) {
+            try (PreparedStatement pstmt = statements.prepare(conn, ADD_TO_TERM_SQL)) {
+                for (Map.Entry<TermKey, Totals> entry : changes.entrySet()) {
+                    if (entry.getValue().isNone()) {
+                        continue;
+                    }
+                    TermKey key = entry.getKey();
+                    pstmt.setLong(1, key.studentId());
+                    pstmt.setString(2, key.academicYear() != null ? key.academicYear() : "");
+                    pstmt.setString(3, key.semester() != null ? key.semester() : "");
+                    bindTotals(pstmt, 4, entry.getValue());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement pstmt = statements.prepare(conn, ADD_TO_STUDENT_SQL)) {
+                for (Map.Entry<Long, Totals> entry : byStudent.entrySet()) {
+                    pstmt.setLong(1, entry.getKey());
+                    bindTotals(pstmt, 2, entry.getValue());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    public Optional<AcademicSummary> findByStudentId(Long studentId) throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            int totalCourses;
+            int totalCredits;
+            int gradedCredits;
+            BigDecimal qualityPoints;
+            BigDecimal gpa;
+
+            try (PreparedStatement pstmt = statements.prepare(conn, FIND_SUMMARY_SQL)) {
+                pstmt.setLong(1, studentId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    totalCourses = rs.getInt("total_courses");
+                    totalCredits = rs.getInt("total_credits");
+                    gradedCredits = rs.getInt("graded_credits");
+                    qualityPoints = rs.getBigDecimal("quality_points");
+                    gpa = rs.getBigDecimal("gpa");
+                }
+            }
+
+            List<TermSummary> terms = new ArrayList<>();
+            try (PreparedStatement pstmt = statements.prepare(conn, FIND_TERMS_SQL)) {
+                pstmt.setLong(1, studentId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        terms.add(mapResultSetToTerm(rs));
+                    }
+                }
+            }
+
+            return Optional.of(new AcademicSummary(studentId, totalCourses, totalCredits,
+                    gradedCredits, qualityPoints, gpa, terms));
+        }
+    }
+
+    /**
+     * findByStudentId for many students, two IN queries per batch. Students
+     * without a summary row are missing from the result.
+     */
+    public Map<Long, AcademicSummary> findByStudentIds(Collection<Long> studentIds) throws SQLException {
+        Map<Long, AcademicSummary> summaries = new HashMap<>();
+        List<Long> pending = new ArrayList<>(studentIds);
+        if (pending.isEmpty()) {
+            return summaries;
+        }
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement summaryStmt = statements.prepare(conn, FIND_SUMMARIES_SQL);
+             PreparedStatement termStmt = statements.prepare(conn, FIND_TERMS_OF_SQL)) {
+            for (int start = 0; start < pending.size(); start += KeyLookup.BATCH_SIZE) {
+                int end = Math.min(start + KeyLookup.BATCH_SIZE, pending.size());
+                // A short last batch repeats its final id, so every batch shares one statement
+                for (int i = 0; i < KeyLookup.BATCH_SIZE; i++) {
+                    long id = pending.get(Math.min(start + i, end - 1));
+                    summaryStmt.setLong(i + 1, id);
+                    termStmt.setLong(i + 1, id);
+                }
+
+                Map<Long, List<TermSummary>> terms = new HashMap<>();
+                try (ResultSet rs = termStmt.executeQuery()) {
+                    while (rs.next()) {
+                        terms.computeIfAbsent(rs.getLong("student_id"), id -> new ArrayList<>())
+                                .add(mapResultSetToTerm(rs));
+                    }
+                }
+
+                try (ResultSet rs = summaryStmt.executeQuery()) {
+                    while (rs.next()) {
+                        long studentId = rs.getLong("student_id");
+                        summaries.put(studentId, new AcademicSummary(studentId,
+                                rs.getInt("total_courses"), rs.getInt("total_credits"),
+                                rs.getInt("graded_credits"), rs.getBigDecimal("quality_points"),
+                                rs.getBigDecimal("gpa"), terms.getOrDefault(studentId, List.of())));
+                    }
+                }
+            }
+        }
+
+        return summaries;
+    }
+
+    private static void bindTotals(PreparedStatement pstmt, int index, Totals totals) throws SQLException {
+        pstmt.setInt(index, totals.courses());
+        pstmt.setInt(index + 1, totals.credits());
+        pstmt.setInt(index + 2, totals.gradedCredits());
+        pstmt.setBigDecimal(index + 3, totals.qualityPoints());
+        // Only used when the row is new; an existing row recomputes its own
+        pstmt.setBigDecimal(index + 4, totals.gradedCredits() > 0
+                ? totals.qualityPoints().divide(BigDecimal.valueOf(totals.gradedCredits()), 3, RoundingMode.HALF_UP)
+                : null);
+    }
+
+    private static TermSummary mapResultSetToTerm(ResultSet rs) throws SQLException {
+        String academicYear = rs.getString("academic_year");
+        String semester = rs.getString("semester");
+        return new TermSummary(
+                academicYear.isEmpty() ? null : academicYear,
+                semester.isEmpty() ? null : semester,
+                rs.getInt("total_courses"),
+                rs.getInt("total_credits"),
+                rs.getInt("graded_credits"),
+                rs.getBigDecimal("quality_points"),
+                rs.getBigDecimal("gpa"));
+    }
+}
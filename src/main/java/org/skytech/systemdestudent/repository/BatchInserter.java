@@ -0,0 +1,124 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Chunked JDBC batch insert shared by the repositories.
+ *
+ * Each chunk is sent as one batch (rewritten into a multi-row INSERT by
+ * Connector/J) and committed on its own. If the batch fails, the chunk is
+ * rolled back to a savepoint and replayed row by row so that only the
+ * offending rows are reported as failures. Inside a unit of work the
+ * commits are left to the unit, and the savepoint keeps a failed chunk
+ * from undoing the unit's earlier statements.
+ */
+final class BatchInserter {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @FunctionalInterface
+    interface ParameterBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    private BatchInserter() {
+    }
+
+    static <T> BatchResult<T> insertAll(Transactions transactions, StatementRegistry statements,
+                                        String sql, List<T> items, int chunkSize,
+                                        ParameterBinder<T> binder,
+                                        BiConsumer<T, Long> idSetter) throws SQLException {
+        BatchResult<T> result = new BatchResult<>(items);
+        if (items.isEmpty()) {
+            return result;
+        }
+
+        try (Connection conn = transactions.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                for (int start = 0; start < items.size(); start += chunkSize) {
+                    int end = Math.min(start + chunkSize, items.size());
+                    insertChunk(conn, statements, sql, items, start, end, binder, idSetter, result);
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        return result;
+    }
+
+    private static <T> void insertChunk(Connection conn, StatementRegistry statements, String sql,
+                                        List<T> items, int start, int end,
+                                        ParameterBinder<T> binder, BiConsumer<T, Long> idSetter,
+                                        BatchResult<T> result) throws SQLException {
+        Savepoint chunkStart = conn.setSavepoint();
+        try (PreparedStatement pstmt = statements.prepareInsert(conn, sql)) {
+            for (int i = start; i < end; i++) {
+                binder.bind(pstmt, items.get(i));
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+
+            Long[] ids = new Long[end - start];
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && generatedKeys.next(); i++) {
+                    ids[i] = generatedKeys.getLong(1);
+                }
+            }
+            conn.commit();
+
+            for (int i = start; i < end; i++) {
+                Long id = ids[i - start];
+                if (id == null) {
+                    result.failed(i, "No ID obtained for inserted row");
+                } else {
+                    idSetter.accept(items.get(i), id);
+                    result.succeeded(i, id);
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback(chunkStart);
+            insertRowByRow(conn, statements, sql, items, start, end, binder, idSetter, result);
+        }
+    }
+
+    private static <T> void insertRowByRow(Connection conn, StatementRegistry statements, String sql,
+                                           List<T> items, int start, int end,
+                                           ParameterBinder<T> binder, BiConsumer<T, Long> idSetter,
+                                           BatchResult<T> result) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepareInsert(conn, sql)) {
+            for (int i = start; i < end; i++) {
+                T item = items.get(i);
+                try {
+                    pstmt.clearParameters();
+                    binder.bind(pstmt, item);
+                    pstmt.executeUpdate();
+
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            long id = generatedKeys.getLong(1);
+                            idSetter.accept(item, id);
+                            result.succeeded(i, id);
+                        } else {
+                            result.failed(i, "No ID obtained for inserted row");
+                        }
+                    }
+                } catch (SQLException e) {
+                    // MySQL keeps the transaction open after a failed statement
+                    result.failed(i, e.getMessage());
+                }
+            }
+        }
+        conn.commit();
+    }
+}
@@ -0,0 +1,126 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Outcome of a bulk insert. Generated ids are reported in input order
+ * (null where the row failed) and failed rows carry their input index
+ * and the reason, so one bad row never hides the rest of the batch.
+ */
+public class BatchResult<T> {
+
+    /**
+     * Inserts a list of rows that passed validation, reporting them by their
+     * index in that list.
+     */
+    @FunctionalInterface
+    public interface Insert<T> {
+        BatchResult<T> insertAll(List<T> valid) throws SQLException;
+    }
+
+    private final List<T> items;
+    private final Long[] generatedIds;
+    private final List<Failure<T>> failures = new ArrayList<>();
+
+    public BatchResult(List<T> items) {
+        this.items = items;
+        this.generatedIds = new Long[items.size()];
+    }
+
+    /**
+     * Bulk insert of new rows for the services: rows for which validate
+     * throws IllegalArgumentException fail with its message, the rest go to
+     * insert in one call, and every row is reported by its index in items.
+     */
+    public static <T> BatchResult<T> insertValid(Collection<T> items, Consumer<T> validate, Insert<T> insert)
+            throws SQLException {
+        List<T> input = new ArrayList<>(items);
+        BatchResult<T> result = new BatchResult<>(input);
+
+        List<T> valid = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < input.size(); i++) {
+            try {
+                validate.accept(input.get(i));
+                valid.add(input.get(i));
+                positions.add(i);
+            } catch (IllegalArgumentException e) {
+                result.failed(i, e.getMessage());
+            }
+        }
+        if (valid.isEmpty()) {
+            return result;
+        }
+
+        BatchResult<T> saved = insert.insertAll(valid);
+        for (int j = 0; j < positions.size(); j++) {
+            Long id = saved.generatedIds[j];
+            if (id != null) {
+                result.succeeded(positions.get(j), id);
+            }
+        }
+        for (Failure<T> failure : saved.failures) {
+            result.failed(positions.get(failure.index()), failure.message());
+        }
+
+        return result;
+    }
+
+    public void succeeded(int index, Long id) {
+        generatedIds[index] = id;
+    }
+
+    /**
+     * Records a failed row. Failures are kept in input order as they are
+     * added; most arrive in order already.
+     */
+    public void failed(int index, String message) {
+        int at = failures.size();
+        while (at > 0 && failures.get(at - 1).index() > index) {
+            at--;
+        }
+        failures.add(at, new Failure<>(index, items.get(index), message));
+    }
+
+    public List<Long> getGeneratedIds() {
+        return Collections.unmodifiableList(Arrays.asList(generatedIds));
+    }
+
+    public List<T> getSaved() {
+        List<T> saved = new ArrayList<>();
+        for (int i = 0; i < generatedIds.length; i++) {
+            if (generatedIds[i] != null) {
+                saved.add(items.get(i));
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Failed rows by input index.
+     */
+    public List<Failure<T>> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public int getTotalCount() {
+        return items.size();
+    }
+
+    public int getSuccessCount() {
+        return items.size() - failures.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public record Failure<T>(int index, T item, String message) {
+    }
+}
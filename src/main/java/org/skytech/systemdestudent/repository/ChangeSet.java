@@ -0,0 +1,17 @@
+package org.skytech.systemdestudent.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rows inserted or updated, and ids deleted, since a previous sync point.
+ * syncedAt is the database time the changes were read at; pass it as the
+ * "since" of the next request.
+ */
+public record ChangeSet<T>(List<T> changed, Set<Long> deletedIds, LocalDateTime syncedAt) {
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
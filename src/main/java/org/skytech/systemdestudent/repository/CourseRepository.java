@@ -1,17 +1,85 @@
 package org.skytech.systemdestudent.repository;
 
-import org.skytech.systemdestudent.config.DatabaseConfig;
 import org.skytech.systemdestudent.model.Course;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
+import java.time.LocalDateTime;
         import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class CourseRepository {
 
+    private static final String INSERT_SQL = """
+            INSERT INTO courses (course_code, course_title, credits,
+                                course_description, department, prerequisites, instructor)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE courses SET
+                course_code = ?, course_title = ?, credits = ?,
+                course_description = ?, department = ?,
+                prerequisites = ?, instructor = ?
+            WHERE id = ?
+        """;
+
+    private static final String FIND_BY_ID_SQL = "SELECT * FROM courses WHERE id = ?";
+
+    static final String FIND_BY_CODE_SQL = "SELECT * FROM courses WHERE course_code = ?";
+
+    private static final String FIND_IDS_BY_CODE_SQL = KeyLookup.sql("courses", "course_code");
+
+    private static final String FIND_ALL_SQL = "SELECT * FROM courses ORDER BY course_code";
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT * FROM courses
+            ORDER BY course_code
+            LIMIT ?
+        """;
+
+    static final String NEXT_PAGE_SQL = """
+            SELECT * FROM courses
+            WHERE course_code > ?
+            ORDER BY course_code
+            LIMIT ?
+        """;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM courses";
+
+    private static final String CHANGED_SINCE_SQL = """
+            SELECT * FROM courses
+            WHERE updated_at >= ?
+            ORDER BY course_code
+        """;
+
+    private static final TextSearch.Target SEARCH_TARGET = new TextSearch.Target("courses",
+            List.of("course_title", "course_description", "instructor"),
+            List.of("course_title"), "course_code");
+
+    private static final String DELETE_SQL = "DELETE FROM courses WHERE id = ?";
+
+    private final Transactions transactions;
+    private final StatementRegistry statements;
+    private final EntityCache<Course> cache;
+
+    @Autowired
+    public CourseRepository(Transactions transactions, StatementRegistry statements,
+                            @Value("${app.cache.enabled:true}") boolean cacheEnabled,
+                            @Value("${app.cache.max-entries:10000}") int cacheSize) {
+        this.transactions = transactions;
+        this.statements = statements;
+        this.cache = new EntityCache<>("courses", cacheEnabled, cacheSize,
+                Course::getId, Course::getCourseCode, CourseRepository::copyOf);
+    }
+
     public Course save(Course course) throws SQLException {
         if (course.getId() == null) {
             return insert(course);
@@ -20,23 +88,25 @@ public class CourseRepository {
         }
     }
 
-    private Course insert(Course course) throws SQLException {
-        String sql = """
-            INSERT INTO courses (course_code, course_title, credits, 
-                                course_description, department, prerequisites, instructor)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-        """;
+    /**
+     * Inserts all courses in chunked JDBC batches. Rows that fail (for example on a
+     * unique constraint) are reported in the result without aborting the rest.
+     */
+    public BatchResult<Course> saveAll(Collection<Course> courses) throws SQLException {
+        try {
+            return BatchInserter.insertAll(transactions, statements, INSERT_SQL,
+                    new ArrayList<>(courses), BatchInserter.DEFAULT_CHUNK_SIZE,
+                    this::bindInsert, Course::setId);
+        } finally {
+            invalidateCache();
+        }
+    }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    private Course insert(Course course) throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepareInsert(conn, INSERT_SQL)) {
 
-            pstmt.setString(1, course.getCourseCode());
-            pstmt.setString(2, course.getCourseTitle());
-            pstmt.setInt(3, course.getCredits());
-            pstmt.setString(4, course.getCourseDescription());
-            pstmt.setString(5, course.getDepartment());
-            pstmt.setString(6, course.getPrerequisites());
-            pstmt.setString(7, course.getInstructor());
+            bindInsert(pstmt, course);
 
             int affectedRows = pstmt.executeUpdate();
 
@@ -51,22 +121,16 @@ public class CourseRepository {
                     throw new SQLException("Creating course failed, no ID obtained.");
                 }
             }
+        } finally {
+            invalidateCache();
         }
 
         return course;
     }
 
     private Course update(Course course) throws SQLException {
-        String sql = """
-            UPDATE courses SET 
-                course_code = ?, course_title = ?, credits = ?,
-                course_description = ?, department = ?, 
-                prerequisites = ?, instructor = ?
-            WHERE id = ?
-        """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, UPDATE_SQL)) {
 
             pstmt.setString(1, course.getCourseCode());
             pstmt.setString(2, course.getCourseTitle());
@@ -78,22 +142,32 @@ public class CourseRepository {
             pstmt.setLong(8, course.getId());
 
             pstmt.executeUpdate();
+        } finally {
+            evictCached(course.getId());
         }
 
         return course;
     }
 
     public Optional<Course> findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM courses WHERE id = ?";
+        Course cached = cache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long version = cache.version();
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_ID_SQL)) {
 
             pstmt.setLong(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToCourse(rs));
+                    Course course = mapResultSetToCourse(rs);
+                    if (!transactions.isActive()) {
+                        cache.put(course, version);
+                    }
+                    return Optional.of(course);
                 }
             }
         }
@@ -102,16 +176,24 @@ public class CourseRepository {
     }
 
     public Optional<Course> findByCourseCode(String courseCode) throws SQLException {
-        String sql = "SELECT * FROM courses WHERE course_code = ?";
+        Course cached = cache.getByKey(courseCode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long version = cache.version();
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_CODE_SQL)) {
 
             pstmt.setString(1, courseCode);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToCourse(rs));
+                    Course course = mapResultSetToCourse(rs);
+                    if (!transactions.isActive()) {
+                        cache.put(course, version);
+                    }
+                    return Optional.of(course);
                 }
             }
         }
@@ -119,33 +201,206 @@ public class CourseRepository {
         return Optional.empty();
     }
 
+    /**
+     * Ids of the given course codes that exist, looked up in batches for bulk imports.
+     */
+    public Map<String, Long> findIdsByCourseCodes(Collection<String> keys) throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            return KeyLookup.findIds(conn, statements, FIND_IDS_BY_CODE_SQL, keys);
+        }
+    }
+
     public List<Course> findAll() throws SQLException {
+        List<Course> cached = cache.getAll();
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = cache.version();
         List<Course> courses = new ArrayList<>();
-        String sql = "SELECT * FROM courses ORDER BY course_code";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 courses.add(mapResultSetToCourse(rs));
             }
         }
 
+        if (!transactions.isActive()) {
+            cache.putAll(courses, version);
+        }
         return courses;
     }
 
+    /**
+     * Keyset page ordered by course code. Pass null for the first page,
+     * then the previous page's nextCursor.
+     */
+    public Page<Course> page(String cursor, int size) throws SQLException {
+        List<Course> courses = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn,
+                     cursor == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL)) {
+
+            int index = 1;
+            if (cursor != null) {
+                pstmt.setString(index++, Page.decodeCursor(cursor, 1)[0]);
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, size + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    courses.add(mapResultSetToCourse(rs));
+                }
+            }
+        }
+
+        if (courses.size() <= size) {
+            return new Page<>(courses, null);
+        }
+
+        courses.remove(size);
+        Course last = courses.get(size - 1);
+        return new Page<>(courses, Page.encodeCursor(last.getCourseCode()));
+    }
+
+    public long count() throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, COUNT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Courses matching every word of the query, best match first, searched in
+     * title, description and instructor. See StudentRepository.search for the
+     * modes.
+     */
+    public Page<Course> search(String query, SearchMode mode, String cursor, int size) throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        int offset = TextSearch.offset(cursor);
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = TextSearch.prepare(conn, statements, SEARCH_TARGET,
+                     query, mode, offset, size + 1);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                courses.add(mapResultSetToCourse(rs));
+            }
+        }
+
+        return TextSearch.page(courses, offset, size);
+    }
+
+    /**
+     * Database time to use as the "since" of the first findChangedSince call
+     * after a full load.
+     */
+    public LocalDateTime syncPoint() throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            return Tombstones.now(conn, statements);
+        }
+    }
+
+    /**
+     * Courses inserted or updated at or after the given time, plus the ids of
+     * courses deleted since then. Rows changed within the same second as since
+     * may be returned again.
+     */
+    public ChangeSet<Course> findChangedSince(LocalDateTime since) throws SQLException {
+        List<Course> changed = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection()) {
+            LocalDateTime syncedAt = Tombstones.now(conn, statements);
+
+            try (PreparedStatement pstmt = statements.prepare(conn, CHANGED_SINCE_SQL)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(since));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapResultSetToCourse(rs));
+                    }
+                }
+            }
+
+            Set<Long> deleted = Tombstones.deletedSince(conn, statements, Tombstones.COURSES, since);
+            return new ChangeSet<>(changed, deleted, syncedAt);
+        }
+    }
+
+    /**
+     * Deletes the course and leaves tombstones for it and for the enrollments
+     * the foreign key cascade removes with it.
+     */
     public void deleteById(Long id) throws SQLException {
-        String sql = "DELETE FROM courses WHERE id = ?";
+        try (Connection conn = transactions.getConnection()) {
+            conn.setAutoCommit(false);
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = statements.prepare(conn, DELETE_SQL)) {
+                Tombstones.recordCourseEnrollments(conn, statements, id);
 
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+                pstmt.setLong(1, id);
+                if (pstmt.executeUpdate() > 0) {
+                    Tombstones.record(conn, statements, Tombstones.COURSES, id);
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            evictCached(id);
+        }
+    }
+
+    public EntityCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Drops all cached entries, e.g. after the tables were changed outside this application.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    // Rows read inside a unit of work may not be committed yet, so they are
+    // not cached; a change made in one is evicted again when it ends, in case
+    // another thread cached the old row in between.
+    private void evictCached(Long id) {
+        cache.evict(id);
+        if (transactions.isActive()) {
+            transactions.afterCompletion(() -> cache.evict(id));
+        }
+    }
+
+    private void invalidateCache() {
+        cache.invalidateAll();
+        if (transactions.isActive()) {
+            transactions.afterCompletion(cache::invalidateAll);
         }
     }
 
+    private void bindInsert(PreparedStatement pstmt, Course course) throws SQLException {
+        pstmt.setString(1, course.getCourseCode());
+        pstmt.setString(2, course.getCourseTitle());
+        pstmt.setInt(3, course.getCredits());
+        pstmt.setString(4, course.getCourseDescription());
+        pstmt.setString(5, course.getDepartment());
+        pstmt.setString(6, course.getPrerequisites());
+        pstmt.setString(7, course.getInstructor());
+    }
+
     private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
         Course course = new Course();
         course.setId(rs.getLong("id"));
@@ -159,4 +414,18 @@ public class CourseRepository {
 
         return course;
     }
-}
\ No newline at end of file
+
+    private static Course copyOf(Course source) {
+        Course course = new Course();
+        course.setId(source.getId());
+        course.setCourseCode(source.getCourseCode());
+        course.setCourseTitle(source.getCourseTitle());
+        course.setCredits(source.getCredits());
+        course.setCourseDescription(source.getCourseDescription());
+        course.setDepartment(source.getDepartment());
+        course.setPrerequisites(source.getPrerequisites());
+        course.setInstructor(source.getInstructor());
+
+        return course;
+    }
+}
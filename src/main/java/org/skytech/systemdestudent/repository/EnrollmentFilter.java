@@ -0,0 +1,61 @@
+package org.skytech.systemdestudent.repository;
+
+/**
+ * Optional criteria for streaming enrollment queries. Null fields are not
+ * filtered on. Department and cohort (the year students enrolled) filter on
+ * the student. Instances are immutable; each with-method returns a copy.
+ */
+public record EnrollmentFilter(Long studentId, Long courseId, String semester,
+                               String academicYear, String department, Integer cohortYear,
+                               SortOrder sortOrder) {
+
+    public enum SortOrder {
+        ID("e.id"),
+        NEWEST_FIRST("e.enrollment_date DESC, e.id DESC"),
+        REGISTRATION_NUMBER("s.registration_number, e.id"),
+        // Each student's enrollments together, newest first, as on a transcript
+        STUDENT("s.registration_number, e.enrollment_date DESC, e.id DESC");
+
+        private final String orderBy;
+
+        SortOrder(String orderBy) {
+            this.orderBy = orderBy;
+        }
+
+        String orderBy() {
+            return orderBy;
+        }
+    }
+
+    public static EnrollmentFilter all() {
+        return new EnrollmentFilter(null, null, null, null, null, null, SortOrder.ID);
+    }
+
+    public EnrollmentFilter forStudent(Long id) {
+        return new EnrollmentFilter(id, courseId, semester, academicYear, department, cohortYear, sortOrder);
+    }
+
+    public EnrollmentFilter forCourse(Long id) {
+        return new EnrollmentFilter(studentId, id, semester, academicYear, department, cohortYear, sortOrder);
+    }
+
+    public EnrollmentFilter inSemester(String value) {
+        return new EnrollmentFilter(studentId, courseId, value, academicYear, department, cohortYear, sortOrder);
+    }
+
+    public EnrollmentFilter inAcademicYear(String value) {
+        return new EnrollmentFilter(studentId, courseId, semester, value, department, cohortYear, sortOrder);
+    }
+
+    public EnrollmentFilter inDepartment(String value) {
+        return new EnrollmentFilter(studentId, courseId, semester, academicYear, value, cohortYear, sortOrder);
+    }
+
+    public EnrollmentFilter inCohort(Integer year) {
+        return new EnrollmentFilter(studentId, courseId, semester, academicYear, department, year, sortOrder);
+    }
+
+    public EnrollmentFilter sortedBy(SortOrder order) {
+        return new EnrollmentFilter(studentId, courseId, semester, academicYear, department, cohortYear, order);
+    }
+}
@@ -1,17 +1,106 @@
 package org.skytech.systemdestudent.repository;
 
-import org.skytech.systemdestudent.config.DatabaseConfig;
 import org.skytech.systemdestudent.model.Enrollment;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
         import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 public class EnrollmentRepository {
 
+    private static final String INSERT_SQL = """
+            INSERT INTO enrollments (student_id, course_id, enrollment_date,
+                                    grade, semester, academic_year)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE enrollments SET
+                student_id = ?, course_id = ?, enrollment_date = ?,
+                grade = ?, semester = ?, academic_year = ?
+            WHERE id = ?
+        """;
+
+    private static final String UPDATE_GRADE_SQL = "UPDATE enrollments SET grade = ? WHERE id = ?";
+
+    // Shared projection for every read that needs student and course display fields
+    private static final String SELECT_WITH_DETAILS = """
+            SELECT e.*,
+                   s.registration_number as student_reg_no,
+                   CONCAT(s.first_name, ' ', s.last_name) as student_name,
+                   c.course_code, c.course_title, c.credits as course_credits
+            FROM enrollments e
+            JOIN students s ON e.student_id = s.id
+            JOIN courses c ON e.course_id = c.id
+        """;
+
+    private static final String FIND_BY_ID_SQL = SELECT_WITH_DETAILS + """
+            WHERE e.id = ?
+        """;
+
+    private static final String FIND_ALL_SQL = SELECT_WITH_DETAILS + """
+            ORDER BY e.enrollment_date DESC
+        """;
+
+    static final String FIND_BY_STUDENT_SQL = SELECT_WITH_DETAILS + """
+            WHERE e.student_id = ?
+            ORDER BY e.enrollment_date DESC
+        """;
+
+    static final String FIND_BY_COURSE_SQL = SELECT_WITH_DETAILS + """
+            WHERE e.course_id = ?
+            ORDER BY s.registration_number
+        """;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM enrollments";
+
+    private static final String COUNT_BY_TERM_SQL = """
+            SELECT academic_year, semester, COUNT(*) AS total
+            FROM enrollments
+            GROUP BY academic_year, semester
+            ORDER BY academic_year DESC, semester
+        """;
+
+    // The display fields come from students and courses, so a renamed student or
+    // course also counts as a change to its enrollments. Each branch uses an
+    // updated_at index; UNION drops the duplicates.
+    private static final String CHANGED_SINCE_SQL = SELECT_WITH_DETAILS + """
+            WHERE e.updated_at >= ?
+            UNION
+        """ + SELECT_WITH_DETAILS + """
+            WHERE s.updated_at >= ?
+            UNION
+        """ + SELECT_WITH_DETAILS + """
+            WHERE c.updated_at >= ?
+        """;
+
+    private static final String DELETE_SQL = "DELETE FROM enrollments WHERE id = ?";
+
+    private final Transactions transactions;
+    private final StatementRegistry statements;
+
+    @Autowired
+    public EnrollmentRepository(Transactions transactions, StatementRegistry statements) {
+        this.transactions = transactions;
+        this.statements = statements;
+    }
+
     public Enrollment save(Enrollment enrollment) throws SQLException {
         if (enrollment.getId() == null) {
             return insert(enrollment);
@@ -20,22 +109,21 @@ public class EnrollmentRepository {
         }
     }
 
-    private Enrollment insert(Enrollment enrollment) throws SQLException {
-        String sql = """
-            INSERT INTO enrollments (student_id, course_id, enrollment_date, 
-                                    grade, semester, academic_year)
-            VALUES (?, ?, ?, ?, ?, ?)
-        """;
+    /**
+     * Inserts all enrollments in chunked JDBC batches. Rows that fail (for example on a
+     * unique constraint) are reported in the result without aborting the rest.
+     */
+    public BatchResult<Enrollment> saveAll(Collection<Enrollment> enrollments) throws SQLException {
+        return BatchInserter.insertAll(transactions, statements, INSERT_SQL,
+                new ArrayList<>(enrollments), BatchInserter.DEFAULT_CHUNK_SIZE,
+                this::bindInsert, Enrollment::setId);
+    }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    private Enrollment insert(Enrollment enrollment) throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepareInsert(conn, INSERT_SQL)) {
 
-            pstmt.setLong(1, enrollment.getStudentId());
-            pstmt.setLong(2, enrollment.getCourseId());
-            pstmt.setDate(3, Date.valueOf(enrollment.getEnrollmentDate()));
-            pstmt.setString(4, enrollment.getGrade());
-            pstmt.setString(5, enrollment.getSemester());
-            pstmt.setString(6, enrollment.getAcademicYear());
+            bindInsert(pstmt, enrollment);
 
             int affectedRows = pstmt.executeUpdate();
 
@@ -56,15 +144,8 @@ public class EnrollmentRepository {
     }
 
     private Enrollment update(Enrollment enrollment) throws SQLException {
-        String sql = """
-            UPDATE enrollments SET 
-                student_id = ?, course_id = ?, enrollment_date = ?,
-                grade = ?, semester = ?, academic_year = ?
-            WHERE id = ?
-        """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, UPDATE_SQL)) {
 
             pstmt.setLong(1, enrollment.getStudentId());
             pstmt.setLong(2, enrollment.getCourseId());
@@ -81,19 +162,8 @@ public class EnrollmentRepository {
     }
 
     public Optional<Enrollment> findById(Long id) throws SQLException {
-        String sql = """
-            SELECT e.*, 
-                   s.registration_number as student_reg_no,
-                   CONCAT(s.first_name, ' ', s.last_name) as student_name,
-                   c.course_code, c.course_title, c.credits as course_credits
-            FROM enrollments e
-            JOIN students s ON e.student_id = s.id
-            JOIN courses c ON e.course_id = c.id
-            WHERE e.id = ?
-        """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_ID_SQL)) {
 
             pstmt.setLong(1, id);
 
@@ -109,20 +179,10 @@ public class EnrollmentRepository {
 
     public List<Enrollment> findAll() throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
-        String sql = """
-            SELECT e.*, 
-                   s.registration_number as student_reg_no,
-                   CONCAT(s.first_name, ' ', s.last_name) as student_name,
-                   c.course_code, c.course_title, c.credits as course_credits
-            FROM enrollments e
-            JOIN students s ON e.student_id = s.id
-            JOIN courses c ON e.course_id = c.id
-            ORDER BY e.enrollment_date DESC
-        """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 enrollments.add(mapResultSetToEnrollment(rs));
@@ -132,22 +192,336 @@ public class EnrollmentRepository {
         return enrollments;
     }
 
+    /**
+     * Keyset page ordered by enrollment date, newest first. Pass null for the
+     * first page, then the previous page's nextCursor.
+     */
+    public Page<Enrollment> page(String cursor, int size) throws SQLException {
+        return page(EnrollmentSort.ENROLLMENT_DATE, true, cursor, size);
+    }
+
+    /**
+     * Keyset page in the given order; ties are broken by id in the same
+     * direction. Cursors are only valid for the order that produced them.
+     * For a nullable key the rows with and without a key are read as two
+     * index ranges, so a page that crosses from one to the other takes two
+     * queries.
+     */
+    public Page<Enrollment> page(EnrollmentSort sort, boolean descending, String cursor, int size)
+            throws SQLException {
+        String key = null;
+        Long lastId = null;
+        if (cursor != null) {
+            String[] keys = Page.decodeCursor(cursor, 2);
+            key = decodeSortKey(keys[0]);
+            lastId = Long.parseLong(keys[1]);
+        }
+
+        // Whether each segment holds the rows with a key; MySQL sorts NULL lowest
+        boolean[] segments = !sort.nullable() ? new boolean[] {true}
+                : descending ? new boolean[] {true, false} : new boolean[] {false, true};
+        int first = 0;
+        if (cursor != null && segments[0] != (key != null)) {
+            first = 1;
+        }
+
+        List<Enrollment> enrollments = new ArrayList<>();
+        try (Connection conn = transactions.getConnection()) {
+            // One extra row tells us whether another page exists
+            for (int i = first; i < segments.length && enrollments.size() <= size; i++) {
+                boolean afterCursor = cursor != null && i == first;
+                boolean keyed = segments[i];
+                if (keyed) {
+                    readPage(conn, sort, sort.keyed(descending, afterCursor), sort.orderBy(descending),
+                            afterCursor && sort != EnrollmentSort.ID ? key : null,
+                            afterCursor ? lastId : null, size + 1 - enrollments.size(), enrollments);
+                } else {
+                    readPage(conn, sort, sort.unkeyed(descending, afterCursor), "e.id" + (descending ? " DESC" : ""),
+                            null, afterCursor ? lastId : null, size + 1 - enrollments.size(), enrollments);
+                }
+            }
+        }
+
+        if (enrollments.size() <= size) {
+            return new Page<>(enrollments, null);
+        }
+
+        enrollments.remove(size);
+        Enrollment last = enrollments.get(size - 1);
+        return new Page<>(enrollments,
+                Page.encodeCursor(encodeSortKey(sort.valueOf(last)), String.valueOf(last.getId())));
+    }
+
+    /**
+     * One range of a keyset page, appended to enrollments.
+     */
+    private void readPage(Connection conn, EnrollmentSort sort, String where, String orderBy,
+                          String key, Long lastId, int limit, List<Enrollment> enrollments) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, pageSql(where, orderBy))) {
+            int index = 1;
+            if (key != null) {
+                bindSortKey(pstmt, index++, sort, key);
+            }
+            if (lastId != null) {
+                pstmt.setLong(index++, lastId);
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    enrollments.add(mapResultSetToEnrollment(rs));
+                }
+            }
+        }
+    }
+
+    static String pageSql(String where, String orderBy) {
+        return SELECT_WITH_DETAILS + (where == null ? "" : " WHERE " + where) + " ORDER BY " + orderBy + " LIMIT ?";
+    }
+
+    /**
+     * Cursor that makes page start at the given row, for jumping into the
+     * middle of the list; null for row 0 or past the end. The skipped rows are
+     * still walked, but only through the sort key's index.
+     */
+    public String cursorAt(EnrollmentSort sort, boolean descending, long offset) throws SQLException {
+        if (offset <= 0) {
+            return null;
+        }
+
+        String sql = "SELECT " + sort.key() + " AS sort_key, e.id FROM enrollments e"
+                + " ORDER BY " + sort.orderBy(descending) + " LIMIT 1 OFFSET ?";
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, sql)) {
+            pstmt.setLong(1, offset - 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return Page.encodeCursor(encodeSortKey(rs.getString("sort_key")), String.valueOf(rs.getLong("id")));
+            }
+        }
+    }
+
+    // In a cursor a key is written after '=' and a missing key as nothing, since '' is a key too
+    private static String encodeSortKey(String key) {
+        return key == null ? "" : "=" + key;
+    }
+
+    private static String decodeSortKey(String encoded) {
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        if (encoded.charAt(0) != '=') {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        return encoded.substring(1);
+    }
+
+    /**
+     * Walks every enrollment matching the filter without buffering the result:
+     * rows are streamed from MySQL and handed to the action one at a time.
+     */
+    public void forEach(EnrollmentFilter filter, Consumer<Enrollment> action) throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepareStreaming(conn, buildFilterSql(filter))) {
+
+            bindFilter(pstmt, filter);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapResultSetToEnrollment(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Streaming variant of forEach. The returned stream holds a pooled connection
+     * until it is closed, so always consume it in a try-with-resources block.
+     */
+    public Stream<Enrollment> stream(EnrollmentFilter filter) throws SQLException {
+        Connection conn = transactions.getConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+        try {
+            pstmt = statements.prepareStreaming(conn, buildFilterSql(filter));
+            bindFilter(pstmt, filter);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(pstmt, conn);
+            throw e;
+        }
+
+        PreparedStatement openStatement = pstmt;
+        Spliterator<Enrollment> rows = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Enrollment> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapResultSetToEnrollment(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read enrollment row", e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false)
+                .onClose(() -> closeQuietly(rs, openStatement, conn));
+    }
+
+    /**
+     * Number of enrollments per grade value, optionally restricted to a semester
+     * and/or academic year. Ungraded enrollments are counted under a null key.
+     */
+    public Map<String, Long> countByGrade(String semester, String academicYear) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT e.grade, COUNT(*) AS total FROM enrollments e");
+        List<String> conditions = new ArrayList<>();
+        if (semester != null) {
+            conditions.add("e.semester = ?");
+        }
+        if (academicYear != null) {
+            conditions.add("e.academic_year = ?");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" GROUP BY e.grade");
+
+        Map<String, Long> counts = new HashMap<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, sql.toString())) {
+
+            int index = 1;
+            if (semester != null) {
+                pstmt.setString(index++, semester);
+            }
+            if (academicYear != null) {
+                pstmt.setString(index, academicYear);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String grade = rs.getString("grade");
+                    if (grade != null && grade.isEmpty()) {
+                        grade = null;
+                    }
+                    counts.merge(grade, rs.getLong("total"), Long::sum);
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    public long count() throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, COUNT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Enrollment count per academic year and semester, newest year first.
+     * Keys are "academicYear semester"; missing parts are left out.
+     */
+    public Map<String, Long> countByTerm() throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, COUNT_BY_TERM_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                String year = rs.getString("academic_year");
+                String semester = rs.getString("semester");
+                String term = ((year != null ? year : "") + " " + (semester != null ? semester : "")).trim();
+                counts.merge(term.isEmpty() ? "Unspecified" : term, rs.getLong("total"), Long::sum);
+            }
+        }
+
+        return counts;
+    }
+
+    private String buildFilterSql(EnrollmentFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT_WITH_DETAILS);
+        List<String> conditions = new ArrayList<>();
+        if (filter.studentId() != null) {
+            conditions.add("e.student_id = ?");
+        }
+        if (filter.courseId() != null) {
+            conditions.add("e.course_id = ?");
+        }
+        if (filter.semester() != null) {
+            conditions.add("e.semester = ?");
+        }
+        if (filter.academicYear() != null) {
+            conditions.add("e.academic_year = ?");
+        }
+        if (filter.department() != null) {
+            conditions.add("s.department = ?");
+        }
+        if (filter.cohortYear() != null) {
+            // A date range rather than YEAR(...), so the column is compared directly
+            conditions.add("s.enrollment_date >= ? AND s.enrollment_date < ?");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(filter.sortOrder().orderBy());
+        return sql.toString();
+    }
+
+    private void bindFilter(PreparedStatement pstmt, EnrollmentFilter filter) throws SQLException {
+        int index = 1;
+        if (filter.studentId() != null) {
+            pstmt.setLong(index++, filter.studentId());
+        }
+        if (filter.courseId() != null) {
+            pstmt.setLong(index++, filter.courseId());
+        }
+        if (filter.semester() != null) {
+            pstmt.setString(index++, filter.semester());
+        }
+        if (filter.academicYear() != null) {
+            pstmt.setString(index++, filter.academicYear());
+        }
+        if (filter.department() != null) {
+            pstmt.setString(index++, filter.department());
+        }
+        if (filter.cohortYear() != null) {
+            pstmt.setDate(index++, Date.valueOf(LocalDate.of(filter.cohortYear(), 1, 1)));
+            pstmt.setDate(index, Date.valueOf(LocalDate.of(filter.cohortYear() + 1, 1, 1)));
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public List<Enrollment> findByStudentId(Long studentId) throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
-        String sql = """
-            SELECT e.*, 
-                   s.registration_number as student_reg_no,
-                   CONCAT(s.first_name, ' ', s.last_name) as student_name,
-                   c.course_code, c.course_title, c.credits as course_credits
-            FROM enrollments e
-            JOIN students s ON e.student_id = s.id
-            JOIN courses c ON e.course_id = c.id
-            WHERE e.student_id = ?
-            ORDER BY e.enrollment_date DESC
-        """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_STUDENT_SQL)) {
 
             pstmt.setLong(1, studentId);
 
@@ -163,20 +537,9 @@ public class EnrollmentRepository {
 
     public List<Enrollment> findByCourseId(Long courseId) throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
-        String sql = """
-            SELECT e.*, 
-                   s.registration_number as student_reg_no,
-                   CONCAT(s.first_name, ' ', s.last_name) as student_name,
-                   c.course_code, c.course_title, c.credits as course_credits
-            FROM enrollments e
-            JOIN students s ON e.student_id = s.id
-            JOIN courses c ON e.course_id = c.id
-            WHERE e.course_id = ?
-            ORDER BY s.registration_number
-        """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_COURSE_SQL)) {
 
             pstmt.setLong(1, courseId);
 
@@ -190,17 +553,106 @@ public class EnrollmentRepository {
         return enrollments;
     }
 
-    public void deleteById(Long id) throws SQLException {
-        String sql = "DELETE FROM enrollments WHERE id = ?";
+    /**
+     * Database time to use as the "since" of the first findChangedSince call
+     * after a full load.
+     */
+    public LocalDateTime syncPoint() throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            return Tombstones.now(conn, statements);
+        }
+    }
+
+    /**
+     * Enrollments inserted or updated at or after the given time (including those
+     * whose student or course changed), plus the ids of enrollments deleted since.
+     */
+    public ChangeSet<Enrollment> findChangedSince(LocalDateTime since) throws SQLException {
+        List<Enrollment> changed = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection()) {
+            LocalDateTime syncedAt = Tombstones.now(conn, statements);
+
+            try (PreparedStatement pstmt = statements.prepare(conn, CHANGED_SINCE_SQL)) {
+                Timestamp sinceTimestamp = Timestamp.valueOf(since);
+                pstmt.setTimestamp(1, sinceTimestamp);
+                pstmt.setTimestamp(2, sinceTimestamp);
+                pstmt.setTimestamp(3, sinceTimestamp);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapResultSetToEnrollment(rs));
+                    }
+                }
+            }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Set<Long> deleted = Tombstones.deletedSince(conn, statements, Tombstones.ENROLLMENTS, since);
+            return new ChangeSet<>(changed, deleted, syncedAt);
+        }
+    }
 
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+    /**
+     * Sets the grades of many enrollments in one JDBC batch.
+     */
+    public void updateGrades(Map<Long, String> gradesById) throws SQLException {
+        if (gradesById.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, UPDATE_GRADE_SQL)) {
+            for (Map.Entry<Long, String> entry : gradesById.entrySet()) {
+                pstmt.setString(1, entry.getValue());
+                pstmt.setLong(2, entry.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Returns false when no enrollment has that id.
+     */
+    public boolean deleteById(Long id) throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = statements.prepare(conn, DELETE_SQL)) {
+                pstmt.setLong(1, id);
+                boolean deleted = pstmt.executeUpdate() > 0;
+                if (deleted) {
+                    Tombstones.record(conn, statements, Tombstones.ENROLLMENTS, id);
+                }
+
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
     }
 
+    private static void bindSortKey(PreparedStatement pstmt, int index, EnrollmentSort sort, String key)
+            throws SQLException {
+        if (sort == EnrollmentSort.ENROLLMENT_DATE) {
+            pstmt.setDate(index, Date.valueOf(key));
+        } else {
+            pstmt.setString(index, key);
+        }
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Enrollment enrollment) throws SQLException {
+        pstmt.setLong(1, enrollment.getStudentId());
+        pstmt.setLong(2, enrollment.getCourseId());
+        pstmt.setDate(3, Date.valueOf(enrollment.getEnrollmentDate()));
+        pstmt.setString(4, enrollment.getGrade());
+        pstmt.setString(5, enrollment.getSemester());
+        pstmt.setString(6, enrollment.getAcademicYear());
+    }
+
     private Enrollment mapResultSetToEnrollment(ResultSet rs) throws SQLException {
         Enrollment enrollment = new Enrollment();
         enrollment.setId(rs.getLong("id"));
@@ -220,4 +672,4 @@ public class EnrollmentRepository {
 
         return enrollment;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package org.skytech.systemdestudent.repository;
+
+import org.skytech.systemdestudent.model.Enrollment;
+
+import java.util.function.Function;
+
+/**
+ * Orders the enrollment list can be paged in. Each is a single enrollments
+ * column plus the id, which breaks ties so keyset cursors stay unambiguous,
+ * and each has a (column, id) index so a page is a short index range read.
+ * Columns of the joined students and courses tables have no such index and
+ * are not offered.
+ *
+ * <p>Nullable columns sort NULL first ascending and last descending, as
+ * MySQL does. Their NULL rows are paged as a separate segment by id, since a
+ * row comparison with NULL is never true.
+ */
+public enum EnrollmentSort {
+    ENROLLMENT_DATE("e.enrollment_date", false, enrollment -> enrollment.getEnrollmentDate().toString()),
+    SEMESTER("e.semester", true, Enrollment::getSemester),
+    ACADEMIC_YEAR("e.academic_year", true, Enrollment::getAcademicYear),
+    GRADE("e.grade", true, Enrollment::getGrade),
+    ID("e.id", false, enrollment -> String.valueOf(enrollment.getId()));
+
+    private final String key;
+    private final boolean nullable;
+    private final Function<Enrollment, String> valueOf;
+
+    EnrollmentSort(String key, boolean nullable, Function<Enrollment, String> valueOf) {
+        this.key = key;
+        this.nullable = nullable;
+        this.valueOf = valueOf;
+    }
+
+    String key() {
+        return key;
+    }
+
+    boolean nullable() {
+        return nullable;
+    }
+
+    /**
+     * The row's key, or null.
+     */
+    String valueOf(Enrollment enrollment) {
+        return valueOf.apply(enrollment);
+    }
+
+    String orderBy(boolean descending) {
+        String direction = descending ? " DESC" : "";
+        return this == ID ? key + direction : key + direction + ", e.id" + direction;
+    }
+
+    /**
+     * Condition for the rows with a key, in this order; after the cursor row
+     * it binds the key and then the id.
+     */
+    String keyed(boolean descending, boolean afterCursor) {
+        String op = descending ? " < " : " > ";
+        if (afterCursor) {
+            return this == ID ? key + op + "?" : "(" + key + ", e.id)" + op + "(?, ?)";
+        }
+        return nullable ? key + " IS NOT NULL" : null;
+    }
+
+    /**
+     * Condition for the rows without a key, ordered by id; after the cursor
+     * row it binds the id.
+     */
+    String unkeyed(boolean descending, boolean afterCursor) {
+        return key + " IS NULL" + (afterCursor ? " AND e.id" + (descending ? " < ?" : " > ?") : "");
+    }
+}
@@ -0,0 +1,192 @@
+package org.skytech.systemdestudent.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU cache of entities keyed by id, with a secondary index on a
+ * unique natural key and an optional snapshot of the full table.
+ *
+ * <p>Entities are copied on the way in and out, so callers can modify what
+ * they get without touching the cached value. Loads carry the version seen
+ * before the query; a put is dropped if an invalidation happened meanwhile,
+ * so a slow reader cannot put back a row that was just updated.</p>
+ */
+public final class EntityCache<T> {
+
+    private final String name;
+    private final boolean enabled;
+    private final int maxSize;
+    private final Function<T, Long> idOf;
+    private final Function<T, String> keyOf;
+    private final UnaryOperator<T> copier;
+
+    private final LinkedHashMap<Long, T> byId;
+    private final Map<String, Long> idByKey = new HashMap<>();
+    private List<T> all;
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public EntityCache(String name, boolean enabled, int maxSize,
+                       Function<T, Long> idOf, Function<T, String> keyOf, UnaryOperator<T> copier) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.name = name;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.idOf = idOf;
+        this.keyOf = keyOf;
+        this.copier = copier;
+
+        // Access order makes the eldest entry the least recently used one
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                if (size() <= EntityCache.this.maxSize) {
+                    return false;
+                }
+                idByKey.remove(keyOf.apply(eldest.getValue()));
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Version to pass to put/putAll for a load that starts now.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Copy of the cached entity, or null on a miss.
+     */
+    public synchronized T getById(Long id) {
+        if (!enabled || id == null) {
+            return null;
+        }
+        return count(byId.get(id));
+    }
+
+    public synchronized T getByKey(String key) {
+        if (!enabled || key == null) {
+            return null;
+        }
+        Long id = idByKey.get(key);
+        return count(id != null ? byId.get(id) : null);
+    }
+
+    /**
+     * Copy of the cached full-table list, or null on a miss.
+     */
+    public synchronized List<T> getAll() {
+        if (!enabled) {
+            return null;
+        }
+        if (all == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        List<T> copies = new ArrayList<>(all.size());
+        for (T entity : all) {
+            copies.add(copier.apply(entity));
+        }
+        return copies;
+    }
+
+    public synchronized void put(T entity, long loadedAtVersion) {
+        if (!enabled || entity == null || loadedAtVersion != version) {
+            return;
+        }
+        store(copier.apply(entity));
+    }
+
+    /**
+     * Caches the full table. Individual entries are also indexed, up to the size limit.
+     */
+    public synchronized void putAll(List<T> entities, long loadedAtVersion) {
+        if (!enabled || loadedAtVersion != version) {
+            return;
+        }
+        List<T> copies = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            copies.add(copier.apply(entity));
+        }
+        all = copies;
+        for (T entity : copies.subList(Math.max(0, copies.size() - maxSize), copies.size())) {
+            store(entity);
+        }
+    }
+
+    /**
+     * Drops one entity (and the full-table snapshot) after it was updated or deleted.
+     */
+    public synchronized void evict(Long id) {
+        version++;
+        all = null;
+        T removed = byId.remove(id);
+        if (removed != null) {
+            idByKey.remove(keyOf.apply(removed));
+        }
+    }
+
+    /**
+     * Drops the full-table snapshot after an insert; cached single entities stay valid.
+     */
+    public synchronized void invalidateAll() {
+        version++;
+        all = null;
+    }
+
+    public synchronized void clear() {
+        version++;
+        all = null;
+        byId.clear();
+        idByKey.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(name, enabled, byId.size(), maxSize, hits, misses, evictions);
+    }
+
+    private T count(T entity) {
+        if (entity == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copier.apply(entity);
+    }
+
+    private void store(T entity) {
+        T previous = byId.put(idOf.apply(entity), entity);
+        if (previous != null) {
+            idByKey.remove(keyOf.apply(previous));
+        }
+        idByKey.put(keyOf.apply(entity), idOf.apply(entity));
+    }
+
+    public record Stats(String name, boolean enabled, int size, int maxSize,
+                        long hits, long misses, long evictions) {
+
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+}
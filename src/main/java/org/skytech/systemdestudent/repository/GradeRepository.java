@@ -0,0 +1,201 @@
+package org.skytech.systemdestudent.repository;
+
+import org.skytech.systemdestudent.model.Grade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Grade history rows, and the locking reads of enrollment state that
+ * changes to the students' academic summaries are worked out from.
+ */
+@Repository
+public class GradeRepository {
+
+    /**
+     * What the academic summaries need to know about an enrollment.
+     */
+    public record GradeState(Long enrollmentId, Long studentId, int credits, String grade,
+                             String academicYear, String semester) {
+    }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO grades (enrollment_id, grade_value, grade_point,
+                                remarks, graded_date, graded_by)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    static final String FIND_BY_ENROLLMENT_SQL = """
+            SELECT * FROM grades WHERE enrollment_id = ? ORDER BY id DESC
+        """;
+
+    // The credits come from a subquery so that only the enrollment row is
+    // locked, not the course every other grading of that course also reads
+    private static final String LOCK_STATE_COLUMNS = """
+            SELECT e.id, e.student_id, e.grade, e.academic_year, e.semester,
+                   (SELECT c.credits FROM courses c WHERE c.id = e.course_id) AS credits
+            FROM enrollments e
+        """;
+
+    private static final String LOCK_STATE_SQL = LOCK_STATE_COLUMNS + """
+            WHERE e.id = ?
+            FOR UPDATE
+        """;
+
+    private static final String LOCK_STATES_SQL = LOCK_STATE_COLUMNS
+            + "WHERE e.id IN (" + "?, ".repeat(KeyLookup.BATCH_SIZE - 1) + "?)\nFOR UPDATE";
+
+    private static final String LOCK_COURSE_STATES_SQL = """
+            SELECT e.id, e.student_id, e.grade, e.academic_year, e.semester, c.credits
+            FROM enrollments e
+            JOIN courses c ON c.id = e.course_id
+            WHERE e.course_id = ?
+            FOR UPDATE
+        """;
+
+    private final Transactions transactions;
+    private final StatementRegistry statements;
+
+    @Autowired
+    public GradeRepository(Transactions transactions, StatementRegistry statements) {
+        this.transactions = transactions;
+        this.statements = statements;
+    }
+
+    /**
+     * Inserts grade history rows in chunked JDBC batches. Rows that fail are
+     * reported in the result without aborting the rest.
+     */
+    public BatchResult<Grade> saveAll(Collection<Grade> grades) throws SQLException {
+        return BatchInserter.insertAll(transactions, statements, INSERT_SQL,
+                new ArrayList<>(grades), BatchInserter.DEFAULT_CHUNK_SIZE,
+                this::bindInsert, Grade::setId);
+    }
+
+    /**
+     * Grade history of one enrollment, latest first.
+     */
+    public List<Grade> findByEnrollmentId(Long enrollmentId) throws SQLException {
+        List<Grade> grades = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_ENROLLMENT_SQL)) {
+
+            pstmt.setLong(1, enrollmentId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    grades.add(mapResultSetToGrade(rs));
+                }
+            }
+        }
+
+        return grades;
+    }
+
+    /**
+     * Reads an enrollment's grade state and locks the enrollment until the
+     * current unit of work ends, so concurrent grade changes apply their
+     * differences one after the other.
+     */
+    public Optional<GradeState> lockState(Long enrollmentId) throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, LOCK_STATE_SQL)) {
+
+            pstmt.setLong(1, enrollmentId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapState(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * lockState for many enrollments, one IN query per batch. Ids that do
+     * not exist are missing from the result.
+     */
+    public Map<Long, GradeState> lockStates(Collection<Long> enrollmentIds) throws SQLException {
+        Map<Long, GradeState> states = new HashMap<>();
+        List<Long> pending = new ArrayList<>(enrollmentIds);
+        if (pending.isEmpty()) {
+            return states;
+        }
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, LOCK_STATES_SQL)) {
+            for (int start = 0; start < pending.size(); start += KeyLookup.BATCH_SIZE) {
+                int end = Math.min(start + KeyLookup.BATCH_SIZE, pending.size());
+                // A short last batch repeats its final id, so every batch shares one statement
+                for (int i = 0; i < KeyLookup.BATCH_SIZE; i++) {
+                    pstmt.setLong(i + 1, pending.get(Math.min(start + i, end - 1)));
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        GradeState state = mapState(rs);
+                        states.put(state.enrollmentId(), state);
+                    }
+                }
+            }
+        }
+
+        return states;
+    }
+
+    /**
+     * Locks and returns the states of a course's enrollments, for adjusting
+     * the summaries when the course's credits change or it is deleted.
+     */
+    public List<GradeState> lockCourseStates(Long courseId) throws SQLException {
+        List<GradeState> states = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, LOCK_COURSE_STATES_SQL)) {
+
+            pstmt.setLong(1, courseId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    states.add(mapState(rs));
+                }
+            }
+        }
+
+        return states;
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Grade grade) throws SQLException {
+        pstmt.setLong(1, grade.getEnrollmentId());
+        pstmt.setString(2, grade.getGradeValue());
+        pstmt.setBigDecimal(3, grade.getGradePoint());
+        pstmt.setString(4, grade.getRemarks());
+        pstmt.setDate(5, grade.getGradedDate() != null ? Date.valueOf(grade.getGradedDate()) : null);
+        pstmt.setString(6, grade.getGradedBy());
+    }
+
+    private static GradeState mapState(ResultSet rs) throws SQLException {
+        return new GradeState(rs.getLong("id"), rs.getLong("student_id"),
+                rs.getInt("credits"), rs.getString("grade"),
+                rs.getString("academic_year"), rs.getString("semester"));
+    }
+
+    private Grade mapResultSetToGrade(ResultSet rs) throws SQLException {
+        Grade grade = new Grade();
+        grade.setId(rs.getLong("id"));
+        grade.setEnrollmentId(rs.getLong("enrollment_id"));
+        grade.setGradeValue(rs.getString("grade_value"));
+        grade.setGradePoint(rs.getBigDecimal("grade_point"));
+        grade.setRemarks(rs.getString("remarks"));
+        Date gradedDate = rs.getDate("graded_date");
+        grade.setGradedDate(gradedDate != null ? gradedDate.toLocalDate() : null);
+        grade.setGradedBy(rs.getString("graded_by"));
+        return grade;
+    }
+}
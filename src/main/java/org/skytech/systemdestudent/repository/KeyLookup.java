@@ -0,0 +1,62 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps natural keys (registration numbers, course codes) to ids with one
+ * IN query per batch of keys instead of one query per key.
+ */
+final class KeyLookup {
+
+    static final int BATCH_SIZE = 500;
+
+    private KeyLookup() {
+    }
+
+    /**
+     * SELECT of id and keyColumn for a full batch of keys.
+     */
+    static String sql(String table, String keyColumn) {
+        return "SELECT id, " + keyColumn + " FROM " + table + " WHERE " + keyColumn
+                + " IN (" + "?, ".repeat(BATCH_SIZE - 1) + "?)";
+    }
+
+    /**
+     * Ids of the keys that exist. Keys compare case-insensitively, like the
+     * columns' collation.
+     */
+    static Map<String, Long> findIds(Connection conn, StatementRegistry statements, String sql,
+                                     Collection<String> keys) throws SQLException {
+        Map<String, Long> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> pending = new ArrayList<>(keys);
+        if (pending.isEmpty()) {
+            return ids;
+        }
+
+        try (PreparedStatement pstmt = statements.prepare(conn, sql)) {
+            for (int start = 0; start < pending.size(); start += BATCH_SIZE) {
+                int end = Math.min(start + BATCH_SIZE, pending.size());
+                // A short last batch repeats its final key, so every batch shares one statement
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    pstmt.setString(i + 1, pending.get(Math.min(start + i, end - 1)));
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString(2), rs.getLong(1));
+                    }
+                }
+            }
+        }
+
+        return ids;
+    }
+}
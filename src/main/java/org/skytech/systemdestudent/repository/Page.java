@@ -0,0 +1,38 @@
+package org.skytech.systemdestudent.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated query. nextCursor is an opaque token
+ * holding the sort key of the last row; pass it back to fetch the
+ * following page. It is null when there are no more rows.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    private static final char SEPARATOR = '\u001F';
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    static String encodeCursor(String... keys) {
+        String joined = String.join(String.valueOf(SEPARATOR), keys);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor, int expectedKeys) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = joined.split(String.valueOf(SEPARATOR), -1);
+            if (keys.length != expectedKeys) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of running MySQL EXPLAIN on a query, for checking in tests and
+ * diagnostics that the hot queries use the indexes from the migrations.
+ */
+public final class QueryPlan {
+
+    private final List<Step> steps;
+
+    private QueryPlan(List<Step> steps) {
+        this.steps = List.copyOf(steps);
+    }
+
+    /**
+     * Runs EXPLAIN for the given SELECT with its parameters bound in order.
+     */
+    public static QueryPlan explain(Connection conn, String sql, Object... params) throws SQLException {
+        List<Step> steps = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql.strip())) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(new Step(
+                            rs.getString("table"),
+                            rs.getString("type"),
+                            rs.getString("possible_keys"),
+                            rs.getString("key"),
+                            rs.getLong("rows"),
+                            rs.getString("Extra")));
+                }
+            }
+        }
+
+        return new QueryPlan(steps);
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * True if the step reading the given table (or alias) uses the named index.
+     */
+    public boolean usesIndex(String table, String index) {
+        for (Step step : steps) {
+            if (table.equals(step.table()) && index.equals(step.key())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if any table is read with a full scan (access type ALL).
+     */
+    public boolean hasFullTableScan() {
+        for (Step step : steps) {
+            if ("ALL".equals(step.accessType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean usesFilesort() {
+        for (Step step : steps) {
+            if (step.extra() != null && step.extra().contains("Using filesort")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Step step : steps) {
+            text.append(String.format("%-12s %-8s key=%-32s rows=%-8d %s%n",
+                    step.table(), step.accessType(), step.key(), step.rows(),
+                    step.extra() != null ? step.extra() : ""));
+        }
+        return text.toString();
+    }
+
+    public record Step(String table, String accessType, String possibleKeys,
+                       String key, long rows, String extra) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.skytech.systemdestudent.repository;
+
+/**
+ * How the repositories' search methods find rows.
+ */
+public enum SearchMode {
+
+    /** MATCH ... AGAINST on the FULLTEXT indexes, ranked by relevance. */
+    FULLTEXT,
+
+    /** '%word%' scans on the same columns, for comparison and for databases without FULLTEXT. */
+    LIKE
+}
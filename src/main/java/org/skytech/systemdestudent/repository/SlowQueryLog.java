@@ -0,0 +1,461 @@
+package org.skytech.systemdestudent.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Logs repository statements that run longer than a threshold, with their SQL,
+ * bound parameters, row count and (for SELECTs) the EXPLAIN plan.
+ *
+ * StatementRegistry passes every prepared statement through {@link #wrap}. A
+ * query is timed from execute until its result set is closed, so the time to
+ * fetch the rows is included. A streaming query is timed only to its first
+ * row, since the rest of its time is spent by whoever consumes the rows, but
+ * it is logged when its result set is closed: the driver allows no other
+ * statement on the connection while a stream is open, so EXPLAIN has to wait
+ * until then.
+ * Parameters bound to the columns listed in app.jdbc.slow-query.redact-columns
+ * are written as ***, and so are search text for MATCH ... AGAINST and LIKE
+ * patterns.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int RECENT_LIMIT = 50;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private static final Pattern INSERT_COLUMNS =
+            Pattern.compile("(?is)^\\s*INSERT\\s+INTO\\s+\\w+\\s*\\(([^)]*)\\)\\s*VALUES");
+    private static final Pattern COMPARED_COLUMN =
+            Pattern.compile("(?i)([\\w.]+)\\s*(?:=|<>|!=|<=|>=|<|>|\\bLIKE)\\s*$");
+    // What users typed into a search box; it can hold names and e-mail addresses
+    private static final Pattern SEARCH_TEXT =
+            Pattern.compile("(?i)(?:\\bAGAINST\\s*\\(|\\bLIKE)\\s*$");
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final Set<String> redactedColumns;
+
+    private final Map<String, List<Placeholder>> placeholdersBySql = new ConcurrentHashMap<>();
+    private final Deque<Entry> recent = new ArrayDeque<>();
+
+    @Autowired
+    public SlowQueryLog(@Value("${app.jdbc.slow-query.enabled:true}") boolean enabled,
+                        @Value("${app.jdbc.slow-query.threshold-ms:250}") long thresholdMillis,
+                        @Value("${app.jdbc.slow-query.explain:true}") boolean explain,
+                        @Value("${app.jdbc.slow-query.redact-columns:email,phone_number,address,date_of_birth}")
+                        String redactColumns) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+        this.explain = explain;
+        this.redactedColumns = Arrays.stream(redactColumns.split(","))
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .filter(column -> !column.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a statement that reports itself here when an execution is slow,
+     * or the statement itself when the log is switched off.
+     */
+    public PreparedStatement wrap(PreparedStatement pstmt, String sql) {
+        return wrap(pstmt, sql, false);
+    }
+
+    /**
+     * Like {@link #wrap}, for a statement whose rows are streamed to the
+     * caller: an execution is timed until its first row is read.
+     */
+    public PreparedStatement wrapStreaming(PreparedStatement pstmt, String sql) {
+        return wrap(pstmt, sql, true);
+    }
+
+    private PreparedStatement wrap(PreparedStatement pstmt, String sql, boolean streaming) {
+        if (!enabled) {
+            return pstmt;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, new StatementHandler(pstmt, sql, streaming));
+    }
+
+    /**
+     * The most recent slow statements, newest first.
+     */
+    public List<Entry> recent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    private void report(Connection conn, String sql, Map<Integer, Object> params,
+                        long rows, boolean streamed, long elapsedNanos, Throwable failure) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        List<String> shownParams = formatParameters(sql, params);
+        String plan = null;
+        if (explain && conn != null && failure == null && isSelect(sql)) {
+            plan = explain(conn, sql, params);
+        }
+
+        Entry entry = new Entry(LocalDateTime.now(), normalize(sql), shownParams, rows, streamed,
+                (double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                failure != null ? failure.getMessage() : null, plan);
+
+        synchronized (recent) {
+            recent.addFirst(entry);
+            while (recent.size() > RECENT_LIMIT) {
+                recent.removeLast();
+            }
+        }
+
+        log.warn(entry.toString());
+    }
+
+    private String explain(Connection conn, String sql, Map<Integer, Object> params) {
+        try {
+            return QueryPlan.explain(conn, sql, params.values().toArray()).toString();
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private List<String> formatParameters(String sql, Map<Integer, Object> params) {
+        List<Placeholder> placeholders = placeholdersBySql.computeIfAbsent(sql, SlowQueryLog::placeholders);
+        List<String> shown = new ArrayList<>();
+
+        for (Map.Entry<Integer, Object> param : params.entrySet()) {
+            int index = param.getKey() - 1;
+            Placeholder placeholder = index < placeholders.size() ? placeholders.get(index) : null;
+            String column = placeholder != null ? placeholder.column() : null;
+
+            String value;
+            if ((column != null && redactedColumns.contains(column))
+                    || (placeholder != null && placeholder.searchText())) {
+                value = "***";
+            } else if (param.getValue() == null) {
+                value = "NULL";
+            } else if (param.getValue() instanceof CharSequence text) {
+                value = "'" + truncate(text.toString()) + "'";
+            } else {
+                value = truncate(String.valueOf(param.getValue()));
+            }
+
+            shown.add(column != null ? column + "=" + value : value);
+        }
+
+        return shown;
+    }
+
+    /**
+     * Best-effort column name for each ? in the statement: the INSERT column
+     * list, or the column compared against the placeholder; null where
+     * unknown. Also whether the placeholder takes search text.
+     */
+    static List<Placeholder> placeholders(String sql) {
+        List<Placeholder> placeholders = new ArrayList<>();
+
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        List<String> insertColumns = insert.find() ?
+                Arrays.stream(insert.group(1).split(",")).map(String::trim).toList() : List.of();
+
+        int valuesStart = insertColumns.isEmpty() ? -1 : insert.end();
+        int insertIndex = 0;
+
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) != '?') {
+                continue;
+            }
+
+            String column = null;
+            boolean searchText = false;
+            if (valuesStart >= 0 && i > valuesStart && insertIndex < insertColumns.size()) {
+                column = insertColumns.get(insertIndex++);
+            } else {
+                String before = sql.substring(0, i);
+                Matcher compared = COMPARED_COLUMN.matcher(before);
+                if (compared.find()) {
+                    column = compared.group(1);
+                }
+                searchText = SEARCH_TEXT.matcher(before).find();
+            }
+
+            if (column != null) {
+                column = column.substring(column.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            }
+            placeholders.add(new Placeholder(column, searchText));
+        }
+
+        return placeholders;
+    }
+
+    record Placeholder(String column, boolean searchText) {
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_VALUE_LENGTH ? value : value.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Tracks one prepared statement: the parameters currently bound and the
+     * execution in flight, if any. Used by one thread at a time, like the statement.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final PreparedStatement delegate;
+        private final String sql;
+        private final boolean streaming;
+        private final Map<Integer, Object> params = new TreeMap<>();
+
+        private Map<Integer, Object> executedParams;
+        private long startNanos = -1;
+        private long firstRowNanos = -1;
+        private long rows;
+        private int batchSize;
+
+        private StatementHandler(PreparedStatement delegate, String sql, boolean streaming) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.streaming = streaming;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean noArgs = args == null || args.length == 0;
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                params.put(index, name.equals("setNull") ? null : args[1]);
+                return SlowQueryLog.invoke(delegate, method, args);
+            }
+
+            switch (name) {
+                case "clearParameters" -> params.clear();
+                case "addBatch" -> {
+                    if (noArgs) {
+                        batchSize++;
+                    }
+                }
+                case "executeQuery" -> {
+                    if (noArgs) {
+                        return executeQuery(method);
+                    }
+                }
+                case "executeUpdate", "executeLargeUpdate", "execute", "executeBatch", "executeLargeBatch" -> {
+                    if (noArgs) {
+                        return executeUpdate(method);
+                    }
+                }
+                case "close" -> {
+                    Connection conn = connection();
+                    try {
+                        return SlowQueryLog.invoke(delegate, method, args);
+                    } finally {
+                        finish(conn, null);
+                    }
+                }
+                default -> {
+                }
+            }
+
+            return SlowQueryLog.invoke(delegate, method, args);
+        }
+
+        private Connection connection() throws SQLException {
+            return delegate.isClosed() ? null : delegate.getConnection();
+        }
+
+        private Object executeQuery(Method method) throws Throwable {
+            // A stream still open here is closed by the driver; no EXPLAIN until it is
+            finish(streaming ? null : delegate.getConnection(), null);
+            begin();
+
+            try {
+                ResultSet rs = (ResultSet) SlowQueryLog.invoke(delegate, method, null);
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[] {ResultSet.class}, new ResultSetHandler(rs, this));
+            } catch (Throwable e) {
+                finish(delegate.getConnection(), e);
+                throw e;
+            }
+        }
+
+        private Object executeUpdate(Method method) throws Throwable {
+            finish(delegate.getConnection(), null);
+            begin();
+            int batched = batchSize;
+            batchSize = 0;
+
+            Throwable failure = null;
+            try {
+                Object result = SlowQueryLog.invoke(delegate, method, null);
+                rows = affectedRows(result, batched);
+                return result;
+            } catch (Throwable e) {
+                failure = e;
+                throw e;
+            } finally {
+                finish(delegate.getConnection(), failure);
+            }
+        }
+
+        private void begin() {
+            executedParams = new TreeMap<>(params);
+            rows = 0;
+            firstRowNanos = -1;
+            startNanos = System.nanoTime();
+        }
+
+        private void finish(Connection conn, Throwable failure) {
+            if (startNanos < 0) {
+                return;
+            }
+            long end = streaming && firstRowNanos >= 0 ? firstRowNanos : System.nanoTime();
+            long elapsed = end - startNanos;
+            startNanos = -1;
+            report(conn, sql, executedParams, failure != null ? -1 : rows, streaming, elapsed, failure);
+        }
+
+        private long affectedRows(Object result, int batched) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    // SUCCESS_NO_INFO (-2) from rewritten batches: count the row once
+                    total += count >= 0 ? count : 1;
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                return Arrays.stream(counts).map(count -> count >= 0 ? count : 1).sum();
+            }
+            return batched > 0 ? batched : -1;
+        }
+    }
+
+    /**
+     * Counts rows as they are read and ends the statement's execution on
+     * close. For a streaming statement it also notes when the first row
+     * arrived, which is where its timing stops.
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet delegate;
+        private final StatementHandler statement;
+
+        private ResultSetHandler(ResultSet delegate, StatementHandler statement) {
+            this.delegate = delegate;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    Object hasRow = SlowQueryLog.invoke(delegate, method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        statement.rows++;
+                    }
+                    if (statement.streaming && statement.startNanos >= 0 && statement.firstRowNanos < 0) {
+                        statement.firstRowNanos = System.nanoTime();
+                    }
+                    return hasRow;
+                }
+                case "close" -> {
+                    Connection conn = statement.connection();
+                    try {
+                        return SlowQueryLog.invoke(delegate, method, args);
+                    } finally {
+                        statement.finish(conn, null);
+                    }
+                }
+                default -> {
+                    return SlowQueryLog.invoke(delegate, method, args);
+                }
+            }
+        }
+    }
+
+    /**
+     * One slow execution. For a streamed query, elapsedMillis is the time to
+     * the first row and rows is the number read before the result set was
+     * closed.
+     */
+    public record Entry(LocalDateTime loggedAt, String sql, List<String> parameters, long rows,
+                        boolean streamed, double elapsedMillis, String error, String plan) {
+
+        @Override
+        public String toString() {
+            String outcome = error != null ? "failed: " + error
+                    : streamed ? rows + " rows, timed to first row" : rows + " rows";
+            StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                    "Slow query (%.1f ms, %s): %s", elapsedMillis, outcome, sql));
+            if (!parameters.isEmpty()) {
+                text.append("\n  parameters: ").append(String.join(", ", parameters));
+            }
+            if (plan != null) {
+                text.append("\n  plan:\n").append(plan.stripTrailing().indent(4).stripTrailing());
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.skytech.systemdestudent.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for preparing repository SQL.
+ *
+ * The actual statement reuse happens in Connector/J (cachePrepStmts and
+ * useServerPrepStmts are switched on in DatabaseConfig): closing a cached
+ * server-side statement returns it to its physical connection instead of
+ * deallocating it. The driver does not report its cache hits, so this
+ * registry estimates them: it keeps, per physical connection, an LRU of the
+ * SQL prepared through it, bounded like the driver's by
+ * app.jdbc.statement-cache-size, and SQL longer than
+ * app.jdbc.statement-cache-sql-limit is never counted as cached. A hit is a
+ * prepare whose SQL is still in that LRU. Statements prepared elsewhere on
+ * the connection, such as the slow query log's EXPLAINs, also take driver
+ * cache slots but are not seen here, so the real hit count can be lower.
+ *
+ * Statements are handed out through the SlowQueryLog, which times each
+ * execution; streaming ones only up to their first row.
+ */
+@Component
+public class StatementRegistry {
+
+    private final Map<Connection, Map<String, Boolean>> preparedByConnection =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final SlowQueryLog slowQueries;
+    private final int cacheSize;
+    private final int sqlLimit;
+
+    @Autowired
+    public StatementRegistry(SlowQueryLog slowQueries,
+                             @Value("${app.jdbc.statement-cache-size:250}") int cacheSize,
+                             @Value("${app.jdbc.statement-cache-sql-limit:2048}") int sqlLimit) {
+        this.slowQueries = slowQueries;
+        this.cacheSize = cacheSize;
+        this.sqlLimit = sqlLimit;
+    }
+
+    public PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        record(conn, sql);
+        return slowQueries.wrap(conn.prepareStatement(sql), sql);
+    }
+
+    public PreparedStatement prepareInsert(Connection conn, String sql) throws SQLException {
+        record(conn, sql);
+        return slowQueries.wrap(conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS), sql);
+    }
+
+    /**
+     * Prepares a forward-only, read-only statement whose rows are streamed
+     * from the server one at a time instead of being buffered client-side.
+     * The connection cannot run other statements until the result set is closed.
+     */
+    public PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        record(conn, sql);
+        PreparedStatement pstmt = conn.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // Connector/J's signal for row-by-row streaming
+        pstmt.setFetchSize(Integer.MIN_VALUE);
+        // The rest of a streamed query's time is the consumer's, not the server's
+        return slowQueries.wrapStreaming(pstmt, sql);
+    }
+
+    public Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int connections;
+        synchronized (preparedByConnection) {
+            connections = preparedByConnection.size();
+        }
+        return new Stats(hitCount, missCount, connections);
+    }
+
+    private void record(Connection conn, String sql) throws SQLException {
+        // Pool proxies hand out a new wrapper per checkout; key on the physical connection
+        Connection physical = conn.isWrapperFor(Connection.class) ?
+                conn.unwrap(Connection.class) : conn;
+
+        if (sql.length() > sqlLimit) {
+            misses.increment();
+            return;
+        }
+
+        Map<String, Boolean> prepared;
+        synchronized (preparedByConnection) {
+            prepared = preparedByConnection.computeIfAbsent(physical, c -> lru());
+        }
+
+        // get() refreshes the entry's place, as a cache lookup does in the driver
+        boolean cached;
+        synchronized (prepared) {
+            cached = prepared.get(sql) != null;
+            if (!cached) {
+                prepared.put(sql, Boolean.TRUE);
+            }
+        }
+        if (cached) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    private Map<String, Boolean> lru() {
+        // Access order makes the eldest entry the least recently used one
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public record Stats(long hits, long misses, int connections) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
@@ -1,17 +1,95 @@
 package org.skytech.systemdestudent.repository;
 
-import org.skytech.systemdestudent.config.DatabaseConfig;
 import org.skytech.systemdestudent.model.Student;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
         import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class StudentRepository {
 
+    private static final String INSERT_SQL = """
+            INSERT INTO students (registration_number, first_name, last_name,
+                                 enrollment_date, email, date_of_birth,
+                                 department, phone_number, address)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE students SET
+                registration_number = ?, first_name = ?, last_name = ?,
+                enrollment_date = ?, email = ?, date_of_birth = ?,
+                department = ?, phone_number = ?, address = ?
+            WHERE id = ?
+        """;
+
+    private static final String FIND_BY_ID_SQL = "SELECT * FROM students WHERE id = ?";
+
+    static final String FIND_BY_REG_NO_SQL = "SELECT * FROM students WHERE registration_number = ?";
+
+    private static final String FIND_IDS_BY_REG_NO_SQL = KeyLookup.sql("students", "registration_number");
+
+    private static final String FIND_ALL_SQL = "SELECT * FROM students ORDER BY registration_number";
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT * FROM students
+            ORDER BY registration_number
+            LIMIT ?
+        """;
+
+    static final String NEXT_PAGE_SQL = """
+            SELECT * FROM students
+            WHERE registration_number > ?
+            ORDER BY registration_number
+            LIMIT ?
+        """;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM students";
+
+    private static final String COUNT_BY_DEPARTMENT_SQL = """
+            SELECT department, COUNT(*) AS total
+            FROM students
+            GROUP BY department
+            ORDER BY department
+        """;
+
+    private static final String CHANGED_SINCE_SQL = """
+            SELECT * FROM students
+            WHERE updated_at >= ?
+            ORDER BY registration_number
+        """;
+
+    private static final TextSearch.Target SEARCH_TARGET = new TextSearch.Target("students",
+            List.of("first_name", "last_name", "email", "department"),
+            List.of("last_name", "first_name"), "registration_number");
+
+    private static final String DELETE_SQL = "DELETE FROM students WHERE id = ?";
+
+    private final Transactions transactions;
+    private final StatementRegistry statements;
+    private final EntityCache<Student> cache;
+
+    @Autowired
+    public StudentRepository(Transactions transactions, StatementRegistry statements,
+                             @Value("${app.cache.enabled:true}") boolean cacheEnabled,
+                             @Value("${app.cache.max-entries:10000}") int cacheSize) {
+        this.transactions = transactions;
+        this.statements = statements;
+        this.cache = new EntityCache<>("students", cacheEnabled, cacheSize,
+                Student::getId, Student::getRegistrationNumber, StudentRepository::copyOf);
+    }
+
     public Student save(Student student) throws SQLException {
         if (student.getId() == null) {
             return insert(student);
@@ -20,27 +98,25 @@ public class StudentRepository {
         }
     }
 
-    private Student insert(Student student) throws SQLException {
-        String sql = """
-            INSERT INTO students (registration_number, first_name, last_name, 
-                                 enrollment_date, email, date_of_birth, 
-                                 department, phone_number, address)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+    /**
+     * Inserts all students in chunked JDBC batches. Rows that fail (for example on a
+     * unique constraint) are reported in the result without aborting the rest.
+     */
+    public BatchResult<Student> saveAll(Collection<Student> students) throws SQLException {
+        try {
+            return BatchInserter.insertAll(transactions, statements, INSERT_SQL,
+                    new ArrayList<>(students), BatchInserter.DEFAULT_CHUNK_SIZE,
+                    this::bindInsert, Student::setId);
+        } finally {
+            invalidateCache();
+        }
+    }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    private Student insert(Student student) throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepareInsert(conn, INSERT_SQL)) {
 
-            pstmt.setString(1, student.getRegistrationNumber());
-            pstmt.setString(2, student.getFirstName());
-            pstmt.setString(3, student.getLastName());
-            pstmt.setDate(4, Date.valueOf(student.getEnrollmentDate()));
-            pstmt.setString(5, student.getEmail());
-            pstmt.setDate(6, student.getDateOfBirth() != null ?
-                    Date.valueOf(student.getDateOfBirth()) : null);
-            pstmt.setString(7, student.getDepartment());
-            pstmt.setString(8, student.getPhoneNumber());
-            pstmt.setString(9, student.getAddress());
+            bindInsert(pstmt, student);
 
             int affectedRows = pstmt.executeUpdate();
 
@@ -55,22 +131,16 @@ public class StudentRepository {
                     throw new SQLException("Creating student failed, no ID obtained.");
                 }
             }
+        } finally {
+            invalidateCache();
         }
 
         return student;
     }
 
     private Student update(Student student) throws SQLException {
-        String sql = """
-            UPDATE students SET 
-                registration_number = ?, first_name = ?, last_name = ?,
-                enrollment_date = ?, email = ?, date_of_birth = ?,
-                department = ?, phone_number = ?, address = ?
-            WHERE id = ?
-        """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, UPDATE_SQL)) {
 
             pstmt.setString(1, student.getRegistrationNumber());
             pstmt.setString(2, student.getFirstName());
@@ -85,22 +155,32 @@ public class StudentRepository {
             pstmt.setLong(10, student.getId());
 
             pstmt.executeUpdate();
+        } finally {
+            evictCached(student.getId());
         }
 
         return student;
     }
 
     public Optional<Student> findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM students WHERE id = ?";
+        Student cached = cache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long version = cache.version();
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_ID_SQL)) {
 
             pstmt.setLong(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToStudent(rs));
+                    Student student = mapResultSetToStudent(rs);
+                    if (!transactions.isActive()) {
+                        cache.put(student, version);
+                    }
+                    return Optional.of(student);
                 }
             }
         }
@@ -109,16 +189,24 @@ public class StudentRepository {
     }
 
     public Optional<Student> findByRegistrationNumber(String regNo) throws SQLException {
-        String sql = "SELECT * FROM students WHERE registration_number = ?";
+        Student cached = cache.getByKey(regNo);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long version = cache.version();
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_BY_REG_NO_SQL)) {
 
             pstmt.setString(1, regNo);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToStudent(rs));
+                    Student student = mapResultSetToStudent(rs);
+                    if (!transactions.isActive()) {
+                        cache.put(student, version);
+                    }
+                    return Optional.of(student);
                 }
             }
         }
@@ -126,33 +214,271 @@ public class StudentRepository {
         return Optional.empty();
     }
 
+    /**
+     * Ids of the given registration numbers that exist, looked up in batches for bulk imports.
+     */
+    public Map<String, Long> findIdsByRegistrationNumbers(Collection<String> keys) throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            return KeyLookup.findIds(conn, statements, FIND_IDS_BY_REG_NO_SQL, keys);
+        }
+    }
+
     public List<Student> findAll() throws SQLException {
+        List<Student> cached = cache.getAll();
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = cache.version();
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students ORDER BY registration_number";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, FIND_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 students.add(mapResultSetToStudent(rs));
             }
         }
 
+        if (!transactions.isActive()) {
+            cache.putAll(students, version);
+        }
         return students;
     }
 
+    /**
+     * Students of a department and/or cohort (the year they enrolled), by
+     * registration number. Null means no filter on that part.
+     */
+    public List<Student> findByCohort(String department, Integer enrollmentYear) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM students");
+        List<String> conditions = new ArrayList<>();
+        if (department != null) {
+            conditions.add("department = ?");
+        }
+        if (enrollmentYear != null) {
+            conditions.add("enrollment_date >= ? AND enrollment_date < ?");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY registration_number");
+
+        List<Student> students = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, sql.toString())) {
+
+            int index = 1;
+            if (department != null) {
+                pstmt.setString(index++, department);
+            }
+            if (enrollmentYear != null) {
+                pstmt.setDate(index++, Date.valueOf(LocalDate.of(enrollmentYear, 1, 1)));
+                pstmt.setDate(index, Date.valueOf(LocalDate.of(enrollmentYear + 1, 1, 1)));
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(mapResultSetToStudent(rs));
+                }
+            }
+        }
+
+        return students;
+    }
+
+    /**
+     * Keyset page ordered by registration number. Pass null for the first page,
+     * then the previous page's nextCursor.
+     */
+    public Page<Student> page(String cursor, int size) throws SQLException {
+        List<Student> students = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn,
+                     cursor == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL)) {
+
+            int index = 1;
+            if (cursor != null) {
+                pstmt.setString(index++, Page.decodeCursor(cursor, 1)[0]);
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, size + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(mapResultSetToStudent(rs));
+                }
+            }
+        }
+
+        if (students.size() <= size) {
+            return new Page<>(students, null);
+        }
+
+        students.remove(size);
+        Student last = students.get(size - 1);
+        return new Page<>(students, Page.encodeCursor(last.getRegistrationNumber()));
+    }
+
+    public long count() throws SQLException {
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, COUNT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Student count per department, ordered by department name. Students
+     * without a department are counted under a null key.
+     */
+    public Map<String, Long> countByDepartment() throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = statements.prepare(conn, COUNT_BY_DEPARTMENT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                counts.put(rs.getString("department"), rs.getLong("total"));
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Students matching every word of the query, best match first. FULLTEXT mode
+     * ranks by MySQL relevance on first/last name, email and department; LIKE
+     * mode, and databases without FULLTEXT, scan the same columns and rank name
+     * prefix matches first. Pass null for the first page, then nextCursor.
+     */
+    public Page<Student> search(String query, SearchMode mode, String cursor, int size) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        int offset = TextSearch.offset(cursor);
+
+        try (Connection conn = transactions.getConnection();
+             PreparedStatement pstmt = TextSearch.prepare(conn, statements, SEARCH_TARGET,
+                     query, mode, offset, size + 1);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                students.add(mapResultSetToStudent(rs));
+            }
+        }
+
+        return TextSearch.page(students, offset, size);
+    }
+
+    /**
+     * Database time to use as the "since" of the first findChangedSince call
+     * after a full load.
+     */
+    public LocalDateTime syncPoint() throws SQLException {
+        try (Connection conn = transactions.getConnection()) {
+            return Tombstones.now(conn, statements);
+        }
+    }
+
+    /**
+     * Students inserted or updated at or after the given time, plus the ids of
+     * students deleted since then. Rows changed within the same second as since
+     * may be returned again.
+     */
+    public ChangeSet<Student> findChangedSince(LocalDateTime since) throws SQLException {
+        List<Student> changed = new ArrayList<>();
+
+        try (Connection conn = transactions.getConnection()) {
+            LocalDateTime syncedAt = Tombstones.now(conn, statements);
+
+            try (PreparedStatement pstmt = statements.prepare(conn, CHANGED_SINCE_SQL)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(since));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapResultSetToStudent(rs));
+                    }
+                }
+            }
+
+            Set<Long> deleted = Tombstones.deletedSince(conn, statements, Tombstones.STUDENTS, since);
+            return new ChangeSet<>(changed, deleted, syncedAt);
+        }
+    }
+
+    /**
+     * Deletes the student and leaves tombstones for it and for the enrollments
+     * the foreign key cascade removes with it.
+     */
     public void deleteById(Long id) throws SQLException {
-        String sql = "DELETE FROM students WHERE id = ?";
+        try (Connection conn = transactions.getConnection()) {
+            conn.setAutoCommit(false);
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = statements.prepare(conn, DELETE_SQL)) {
+                Tombstones.recordStudentEnrollments(conn, statements, id);
 
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+                pstmt.setLong(1, id);
+                if (pstmt.executeUpdate() > 0) {
+                    Tombstones.record(conn, statements, Tombstones.STUDENTS, id);
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            evictCached(id);
+        }
+    }
+
+    public EntityCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Drops all cached entries, e.g. after the tables were changed outside this application.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    // Rows read inside a unit of work may not be committed yet, so they are
+    // not cached; a change made in one is evicted again when it ends, in case
+    // another thread cached the old row in between.
+    private void evictCached(Long id) {
+        cache.evict(id);
+        if (transactions.isActive()) {
+            transactions.afterCompletion(() -> cache.evict(id));
+        }
+    }
+
+    private void invalidateCache() {
+        cache.invalidateAll();
+        if (transactions.isActive()) {
+            transactions.afterCompletion(cache::invalidateAll);
         }
     }
 
+    private void bindInsert(PreparedStatement pstmt, Student student) throws SQLException {
+        pstmt.setString(1, student.getRegistrationNumber());
+        pstmt.setString(2, student.getFirstName());
+        pstmt.setString(3, student.getLastName());
+        pstmt.setDate(4, Date.valueOf(student.getEnrollmentDate()));
+        pstmt.setString(5, student.getEmail());
+        pstmt.setDate(6, student.getDateOfBirth() != null ?
+                Date.valueOf(student.getDateOfBirth()) : null);
+        pstmt.setString(7, student.getDepartment());
+        pstmt.setString(8, student.getPhoneNumber());
+        pstmt.setString(9, student.getAddress());
+    }
+
     private Student mapResultSetToStudent(ResultSet rs) throws SQLException {
         Student student = new Student();
         student.setId(rs.getLong("id"));
@@ -173,4 +499,20 @@ public class StudentRepository {
 
         return student;
     }
-}
\ No newline at end of file
+
+    private static Student copyOf(Student source) {
+        Student student = new Student();
+        student.setId(source.getId());
+        student.setRegistrationNumber(source.getRegistrationNumber());
+        student.setFirstName(source.getFirstName());
+        student.setLastName(source.getLastName());
+        student.setEnrollmentDate(source.getEnrollmentDate());
+        student.setEmail(source.getEmail());
+        student.setDateOfBirth(source.getDateOfBirth());
+        student.setDepartment(source.getDepartment());
+        student.setPhoneNumber(source.getPhoneNumber());
+        student.setAddress(source.getAddress());
+
+        return student;
+    }
+}
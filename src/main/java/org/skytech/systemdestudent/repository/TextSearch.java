@@ -0,0 +1,176 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the ranked search queries shared by the student and course
+ * repositories. Words long enough for the FULLTEXT index go into one
+ * MATCH ... AGAINST; shorter words, and every word in LIKE mode, become
+ * '%word%' conditions.
+ */
+final class TextSearch {
+
+    // Extra words narrow the result little but add a LIKE condition each
+    static final int MAX_TERMS = 5;
+
+    // InnoDB's default innodb_ft_min_token_size; shorter words are not indexed
+    private static final int MIN_FULLTEXT_TERM = 3;
+
+    /**
+     * A searchable table: the FULLTEXT index columns, the columns whose prefix
+     * ranks a LIKE match first, and the unique key that breaks ties.
+     */
+    record Target(String table, List<String> columns, List<String> rankColumns, String orderKey) {
+    }
+
+    private TextSearch() {
+    }
+
+    /**
+     * Prepares the search for rows limit at offset. The caller closes the statement.
+     */
+    static PreparedStatement prepare(Connection conn, StatementRegistry statements, Target target,
+                                     String query, SearchMode mode, int offset, int limit) throws SQLException {
+        boolean fullText = mode == SearchMode.FULLTEXT && supportsFullText(conn);
+        List<String> indexed = new ArrayList<>();
+        List<String> scanned = new ArrayList<>();
+        for (String term : terms(query)) {
+            (fullText && term.length() >= MIN_FULLTEXT_TERM ? indexed : scanned).add(term);
+        }
+
+        String match = "MATCH (" + String.join(", ", target.columns()) + ") AGAINST (? IN BOOLEAN MODE)";
+        StringBuilder sql = new StringBuilder("SELECT *");
+        if (!indexed.isEmpty()) {
+            sql.append(", ").append(match).append(" AS score");
+        }
+        sql.append(" FROM ").append(target.table()).append(" WHERE ");
+        if (!indexed.isEmpty()) {
+            sql.append(match).append(scanned.isEmpty() ? "" : " AND ");
+        }
+        sql.append(likeCondition(target.columns(), scanned.size()));
+        if (!indexed.isEmpty()) {
+            sql.append(" ORDER BY score DESC, ");
+        } else {
+            sql.append(" ORDER BY CASE WHEN ");
+            for (int c = 0; c < target.rankColumns().size(); c++) {
+                sql.append(c == 0 ? "" : " OR ").append(target.rankColumns().get(c)).append(" LIKE ?");
+            }
+            sql.append(" THEN 0 ELSE 1 END, ");
+        }
+        sql.append(target.orderKey()).append(" LIMIT ? OFFSET ?");
+
+        PreparedStatement pstmt = statements.prepare(conn, sql.toString());
+        try {
+            int index = 1;
+            if (!indexed.isEmpty()) {
+                String expression = booleanExpression(indexed);
+                pstmt.setString(index++, expression);
+                pstmt.setString(index++, expression);
+            }
+            for (String term : scanned) {
+                for (int c = 0; c < target.columns().size(); c++) {
+                    pstmt.setString(index++, "%" + term + "%");
+                }
+            }
+            if (indexed.isEmpty()) {
+                for (int c = 0; c < target.rankColumns().size(); c++) {
+                    pstmt.setString(index++, scanned.get(0) + "%");
+                }
+            }
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+            return pstmt;
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The words of a query, split the way InnoDB tokenises the indexed values.
+     * Words hold only letters and digits, so they need no escaping in a LIKE
+     * pattern or a BOOLEAN MODE expression.
+     */
+    static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(word);
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain a letter or digit");
+        }
+        return terms;
+    }
+
+    /**
+     * Every word required, each matching as a prefix ("smi" finds "Smith").
+     */
+    static String booleanExpression(List<String> terms) {
+        StringBuilder expression = new StringBuilder();
+        for (String term : terms) {
+            expression.append(expression.isEmpty() ? "" : " ").append('+').append(term).append('*');
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Condition requiring each of termCount words in at least one column;
+     * empty for none.
+     */
+    static String likeCondition(List<String> columns, int termCount) {
+        if (termCount == 0) {
+            return "";
+        }
+        StringBuilder condition = new StringBuilder();
+        for (int t = 0; t < termCount; t++) {
+            condition.append(t == 0 ? "(" : " AND (");
+            for (int c = 0; c < columns.size(); c++) {
+                condition.append(c == 0 ? "" : " OR ").append(columns.get(c)).append(" LIKE ?");
+            }
+            condition.append(')');
+        }
+        return condition.toString();
+    }
+
+    static boolean supportsFullText(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    /**
+     * Search results are ranked, and a relevance score is not a stable key,
+     * so their cursors hold a row offset instead.
+     */
+    static int offset(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(Page.decodeCursor(cursor, 1)[0]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * Page of rows fetched with LIMIT size + 1 at the given offset.
+     */
+    static <T> Page<T> page(List<T> rows, int offset, int size) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        rows.remove(size);
+        return new Page<>(rows, Page.encodeCursor(String.valueOf(offset + size)));
+    }
+}
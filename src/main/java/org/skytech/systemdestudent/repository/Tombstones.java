@@ -0,0 +1,104 @@
+package org.skytech.systemdestudent.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records deleted row ids in deleted_rows so incremental refreshes can drop
+ * them, and reads them back. Shared by the repositories' delete and
+ * "changed since" methods.
+ */
+final class Tombstones {
+
+    static final String STUDENTS = "students";
+    static final String COURSES = "courses";
+    static final String ENROLLMENTS = "enrollments";
+
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP";
+
+    private static final String RECORD_SQL =
+            "INSERT INTO deleted_rows (table_name, row_id) VALUES (?, ?)";
+
+    // Enrollments removed by ON DELETE CASCADE do not pass through the repository
+    private static final String RECORD_STUDENT_ENROLLMENTS_SQL = """
+            INSERT INTO deleted_rows (table_name, row_id)
+            SELECT 'enrollments', id FROM enrollments WHERE student_id = ?
+        """;
+
+    private static final String RECORD_COURSE_ENROLLMENTS_SQL = """
+            INSERT INTO deleted_rows (table_name, row_id)
+            SELECT 'enrollments', id FROM enrollments WHERE course_id = ?
+        """;
+
+    private static final String DELETED_SINCE_SQL = """
+            SELECT row_id FROM deleted_rows
+            WHERE table_name = ? AND deleted_at >= ?
+        """;
+
+    private Tombstones() {
+    }
+
+    /**
+     * Current database time. Read before the changed rows, so anything written
+     * while they are being read is picked up again by the next sync.
+     */
+    static LocalDateTime now(Connection conn, StatementRegistry statements) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, NOW_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            rs.next();
+            return rs.getTimestamp(1).toLocalDateTime();
+        }
+    }
+
+    static void record(Connection conn, StatementRegistry statements,
+                       String table, long id) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, RECORD_SQL)) {
+            pstmt.setString(1, table);
+            pstmt.setLong(2, id);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static void recordStudentEnrollments(Connection conn, StatementRegistry statements,
+                                         long studentId) throws SQLException {
+        recordCascade(conn, statements, RECORD_STUDENT_ENROLLMENTS_SQL, studentId);
+    }
+
+    static void recordCourseEnrollments(Connection conn, StatementRegistry statements,
+                                        long courseId) throws SQLException {
+        recordCascade(conn, statements, RECORD_COURSE_ENROLLMENTS_SQL, courseId);
+    }
+
+    static Set<Long> deletedSince(Connection conn, StatementRegistry statements,
+                                  String table, LocalDateTime since) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+
+        try (PreparedStatement pstmt = statements.prepare(conn, DELETED_SINCE_SQL)) {
+            pstmt.setString(1, table);
+            pstmt.setTimestamp(2, Timestamp.valueOf(since));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong("row_id"));
+                }
+            }
+        }
+
+        return ids;
+    }
+
+    private static void recordCascade(Connection conn, StatementRegistry statements,
+                                      String sql, long parentId) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, sql)) {
+            pstmt.setLong(1, parentId);
+            pstmt.executeUpdate();
+        }
+    }
+}
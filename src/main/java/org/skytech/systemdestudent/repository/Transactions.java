@@ -0,0 +1,238 @@
+package org.skytech.systemdestudent.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs several repository calls as one unit of work on one connection.
+ *
+ * Inside {@link #inTransaction} the repositories' getConnection() returns
+ * the connection bound to the current thread instead of a fresh pooled one,
+ * and their own commit, rollback and close calls are absorbed; the unit
+ * commits once when the work returns and rolls back if it throws. Calls
+ * nested in an active unit join it. Outside a unit every repository call
+ * still runs on its own autocommit connection.
+ *
+ * The binding is per thread, so work handed to other threads (parallel
+ * streams, virtual threads) runs outside the unit. A streamed query holds
+ * the connection until its stream is closed, so close it before the next
+ * statement in the same unit.
+ */
+@Component
+public class Transactions {
+
+    public enum Isolation {
+        DEFAULT(-1),
+        READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+        READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+        REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+        SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+        private final int level;
+
+        Isolation(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * How a unit of work starts. DEFAULT isolation keeps the configured
+     * app.jdbc.transaction-isolation, or the server's when that is unset.
+     */
+    public record Options(boolean readOnly, Isolation isolation) {
+
+        public static Options readWrite() {
+            return new Options(false, Isolation.DEFAULT);
+        }
+
+        public static Options readOnlyWork() {
+            return new Options(true, Isolation.DEFAULT);
+        }
+
+        public Options withIsolation(Isolation value) {
+            return new Options(readOnly, value);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final Isolation defaultIsolation;
+    private final ThreadLocal<Unit> current = new ThreadLocal<>();
+
+    @Autowired
+    public Transactions(DataSource dataSource,
+                        @Value("${app.jdbc.transaction-isolation:DEFAULT}") Isolation defaultIsolation) {
+        this.dataSource = dataSource;
+        this.defaultIsolation = defaultIsolation;
+    }
+
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        return inTransaction(Options.readWrite(), work);
+    }
+
+    /**
+     * Runs work in a read-only transaction: every read sees the same
+     * snapshot, and MySQL skips the bookkeeping it needs for writes.
+     */
+    public <T> T readOnly(Work<T> work) throws SQLException {
+        return inTransaction(Options.readOnlyWork(), work);
+    }
+
+    public <T> T inTransaction(Options options, Work<T> work) throws SQLException {
+        Unit outer = current.get();
+        if (outer != null) {
+            if (outer.readOnly && !options.readOnly()) {
+                throw new IllegalStateException("Cannot start a read-write unit of work inside a read-only one");
+            }
+            return work.run();
+        }
+
+        Isolation isolation = options.isolation() != Isolation.DEFAULT ? options.isolation() : defaultIsolation;
+
+        // The pool restores auto-commit, read-only and isolation when the connection is returned
+        try (Connection conn = dataSource.getConnection()) {
+            if (isolation != Isolation.DEFAULT) {
+                conn.setTransactionIsolation(isolation.level);
+            }
+            conn.setReadOnly(options.readOnly());
+            conn.setAutoCommit(false);
+
+            Unit unit = new Unit(conn, options.readOnly());
+            current.set(unit);
+            T result;
+            try {
+                result = work.run();
+                if (unit.rollbackOnly) {
+                    throw new SQLException("Unit of work rolled back: a statement in it failed");
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                current.remove();
+                unit.complete();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * True while the current thread is inside a unit of work.
+     */
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Runs action once the current unit of work has committed or rolled
+     * back, or straight away outside one.
+     */
+    public void afterCompletion(Runnable action) {
+        Unit unit = current.get();
+        if (unit == null) {
+            action.run();
+        } else {
+            unit.afterCompletion.add(action);
+        }
+    }
+
+    /**
+     * The connection for a repository call: the current unit's, or a new
+     * pooled autocommit connection. Close it either way.
+     */
+    Connection getConnection() throws SQLException {
+        Unit unit = current.get();
+        return unit != null ? unit.handle : dataSource.getConnection();
+    }
+
+    private static final class Unit {
+        private final Connection handle;
+        private final boolean readOnly;
+        private final List<Runnable> afterCompletion = new ArrayList<>();
+        private boolean rollbackOnly;
+
+        Unit(Connection conn, boolean readOnly) {
+            this.readOnly = readOnly;
+            this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new BoundHandler(conn, this));
+        }
+
+        void complete() {
+            for (Runnable action : afterCompletion) {
+                action.run();
+            }
+        }
+    }
+
+    /**
+     * Keeps repository code that manages its own transaction from ending the
+     * unit early. A full rollback cannot be undone, so it marks the unit to
+     * roll back at the end; savepoint rollbacks pass through.
+     */
+    private static final class BoundHandler implements InvocationHandler {
+        private final Connection conn;
+        private final Unit unit;
+
+        BoundHandler(Connection conn, Unit unit) {
+            this.conn = conn;
+            this.unit = unit;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close", "commit", "setAutoCommit", "setReadOnly", "setTransactionIsolation" -> {
+                    return null;
+                }
+                case "isClosed" -> {
+                    return false;
+                }
+                case "getAutoCommit" -> {
+                    return false;
+                }
+                case "rollback" -> {
+                    if (args == null) {
+                        conn.rollback();
+                        unit.rollbackOnly = true;
+                        return null;
+                    }
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+
+            try {
+                return method.invoke(conn, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
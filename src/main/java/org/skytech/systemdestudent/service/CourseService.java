@@ -1,22 +1,46 @@
 package org.skytech.systemdestudent.service;
 
 import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.skytech.systemdestudent.repository.ChangeSet;
 import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.GradeRepository.GradeState;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.repository.SearchMode;
+import org.skytech.systemdestudent.repository.Transactions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class CourseService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final CourseRepository repository;
+    private final GradeService gradeService;
+    private final StatisticsService statisticsService;
+    private final Transactions transactions;
+    private final SearchMode searchMode;
 
     @Autowired
-    public CourseService(CourseRepository repository) {
+    public CourseService(CourseRepository repository,
+                         GradeService gradeService,
+                         StatisticsService statisticsService,
+                         Transactions transactions,
+                         @Value("${app.search.mode:FULLTEXT}") SearchMode searchMode) {
         this.repository = repository;
+        this.gradeService = gradeService;
+        this.statisticsService = statisticsService;
+        this.transactions = transactions;
+        this.searchMode = searchMode;
     }
 
     public Course saveCourse(Course course) throws SQLException {
@@ -31,9 +55,37 @@ public class CourseService {
                 throw new IllegalArgumentException(
                         "Course code already exists: " + course.getCourseCode());
             }
+            Course saved = repository.save(course);
+            statisticsService.invalidate();
+            return saved;
         }
 
-        return repository.save(course);
+        // The course's credits count towards its students' academic summaries
+        return transactions.inTransaction(() -> {
+            List<GradeState> enrolled = gradeService.lockCourseEnrollments(course.getId());
+            Course saved = repository.save(course);
+            if (!enrolled.isEmpty() && enrolled.get(0).credits() != saved.getCredits()) {
+                gradeService.courseCreditsChanged(enrolled, saved.getCredits());
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * Bulk insert for new courses. Rows failing validation or a database
+     * constraint are reported by input index; the remaining rows are saved.
+     */
+    public BatchResult<Course> saveCourses(Collection<Course> courses) throws SQLException {
+        return BatchResult.insertValid(courses, course -> {
+            validateCourse(course);
+            if (course.getId() != null) {
+                throw new IllegalArgumentException("Course already has an ID; use saveCourse to update");
+            }
+        }, valid -> {
+            BatchResult<Course> saved = repository.saveAll(valid);
+            statisticsService.invalidate();
+            return saved;
+        });
     }
 
     public Optional<Course> findCourseById(Long id) throws SQLException {
@@ -50,10 +102,61 @@ public class CourseService {
         return repository.findByCourseCode(courseCode);
     }
 
+    /**
+     * Ids of the course codes that already exist, keyed case-insensitively.
+     */
+    public Map<String, Long> findIdsByCourseCodes(Collection<String> courseCodes) throws SQLException {
+        return repository.findIdsByCourseCodes(courseCodes);
+    }
+
     public List<Course> getAllCourses() throws SQLException {
         return repository.findAll();
     }
 
+    public Page<Course> getCoursePage(String cursor, int size) throws SQLException {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return repository.page(cursor, size);
+    }
+
+    /**
+     * The best limit matches for the query across title, description and
+     * instructor, for finding a course without loading the whole table.
+     */
+    public List<Course> search(String query, int limit) throws SQLException {
+        return searchCourses(query, null, limit).items();
+    }
+
+    /**
+     * Ranked search results a page at a time; the cursor comes from the
+     * previous page.
+     */
+    public Page<Course> searchCourses(String query, String cursor, int size) throws SQLException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return repository.search(query, searchMode, cursor, size);
+    }
+
+    public LocalDateTime getSyncPoint() throws SQLException {
+        return repository.syncPoint();
+    }
+
+    /**
+     * Courses added, changed or deleted since the given sync point, for patching
+     * an already loaded list instead of reloading it.
+     */
+    public ChangeSet<Course> getCourseChanges(LocalDateTime since) throws SQLException {
+        if (since == null) {
+            throw new IllegalArgumentException("Sync point is required");
+        }
+        return repository.findChangedSince(since);
+    }
+
     public void deleteCourse(Long id) throws SQLException {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid course ID");
@@ -64,10 +167,19 @@ public class CourseService {
             throw new IllegalArgumentException("Course not found with ID: " + id);
         }
 
-        repository.deleteById(id);
+        transactions.inTransaction(() -> {
+            gradeService.courseDeleted(gradeService.lockCourseEnrollments(id));
+            repository.deleteById(id);
+            statisticsService.invalidate();
+            return null;
+        });
     }
 
-    private void validateCourse(Course course) {
+    /**
+     * Checks the fields a course needs before it can be saved, throwing
+     * IllegalArgumentException with the first problem found.
+     */
+    public void validateCourse(Course course) {
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
@@ -0,0 +1,21 @@
+package org.skytech.systemdestudent.service;
+
+/**
+ * RFC 4180 quoting for the CSV files the application writes.
+ */
+final class Csv {
+
+    private Csv() {
+    }
+
+    static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,80 @@
+package org.skytech.systemdestudent.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a report as CSV: the title and details as single-cell lines, then
+ * each table as a header line and its rows, separated by blank lines.
+ */
+final class CsvReportSink implements ReportSink {
+
+    private final BufferedWriter out;
+    private final StringBuilder line = new StringBuilder();
+    private boolean empty = true;
+
+    CsvReportSink(OutputStream stream) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+        // Lets spreadsheet programs detect UTF-8
+        out.write('﻿');
+    }
+
+    @Override
+    public void title(String title, List<String> details) throws IOException {
+        writeLine(title);
+        for (String detail : details) {
+            writeLine(detail);
+        }
+    }
+
+    @Override
+    public void table(String name, List<Column> columns) throws IOException {
+        separate();
+        Object[] headers = new Object[columns.size()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = columns.get(i).header();
+        }
+        writeLine(headers);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        writeLine(values);
+    }
+
+    @Override
+    public void notes(List<String> lines) throws IOException {
+        separate();
+        for (String note : lines) {
+            writeLine(note);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separate() throws IOException {
+        if (!empty) {
+            out.newLine();
+        }
+    }
+
+    private void writeLine(Object... values) throws IOException {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Csv.appendField(line, values[i] == null ? null : values[i].toString());
+        }
+        out.write(line.toString());
+        out.newLine();
+        empty = false;
+    }
+}
@@ -1,49 +1,97 @@
 package org.skytech.systemdestudent.service;
 
 import org.skytech.systemdestudent.model.Enrollment;
-import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.model.GradeDistribution;
+import org.skytech.systemdestudent.model.GradeScale;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.skytech.systemdestudent.repository.ChangeSet;
+import org.skytech.systemdestudent.repository.EnrollmentFilter;
 import org.skytech.systemdestudent.repository.EnrollmentRepository;
-import org.skytech.systemdestudent.repository.StudentRepository;
+import org.skytech.systemdestudent.repository.EnrollmentSort;
+import org.skytech.systemdestudent.repository.GradeRepository.GradeState;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.repository.Transactions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EnrollmentService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // ER_DUP_ENTRY
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
     private final EnrollmentRepository enrollmentRepository;
-    private final StudentRepository studentRepository;
-    private final CourseRepository courseRepository;
+    private final GradeService gradeService;
+    private final StatisticsService statisticsService;
+    private final Transactions transactions;
 
     @Autowired
     public EnrollmentService(EnrollmentRepository enrollmentRepository,
-                             StudentRepository studentRepository,
-                             CourseRepository courseRepository) {
+                             GradeService gradeService,
+                             StatisticsService statisticsService,
+                             Transactions transactions) {
         this.enrollmentRepository = enrollmentRepository;
-        this.studentRepository = studentRepository;
-        this.courseRepository = courseRepository;
+        this.gradeService = gradeService;
+        this.statisticsService = statisticsService;
+        this.transactions = transactions;
     }
 
+    /**
+     * Inserts or updates an enrollment and applies the change in its course,
+     * credits, term and grade to the student's academic summary, in one
+     * unit of work. A missing student or course, or a second enrollment in
+     * the same course and term, is caught by the table's constraints and
+     * reported as an IllegalArgumentException.
+     */
     public Enrollment saveEnrollment(Enrollment enrollment) throws SQLException {
         // Validation logic
         validateEnrollment(enrollment);
 
-        // Verify student exists
-        if (studentRepository.findById(enrollment.getStudentId()).isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Student not found with ID: " + enrollment.getStudentId());
-        }
-
-        // Verify course exists
-        if (courseRepository.findById(enrollment.getCourseId()).isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Course not found with ID: " + enrollment.getCourseId());
+        try {
+            return transactions.inTransaction(() -> {
+                GradeState before = enrollment.getId() != null
+                        ? gradeService.lockState(enrollment.getId()).orElse(null) : null;
+                Enrollment saved = enrollmentRepository.save(enrollment);
+                gradeService.enrollmentSaved(before, saved);
+                statisticsService.invalidate();
+                return saved;
+            });
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw constraintViolation(enrollment, e);
         }
+    }
 
-        return enrollmentRepository.save(enrollment);
+    /**
+     * Bulk insert for new enrollments. Rows failing validation or a database
+     * constraint are reported by input index; the remaining rows are saved.
+     * Student and course references are checked by the foreign keys rather
+     * than one lookup per row.
+     */
+    public BatchResult<Enrollment> saveEnrollments(Collection<Enrollment> enrollments) throws SQLException {
+        return BatchResult.insertValid(enrollments, enrollment -> {
+            validateEnrollment(enrollment);
+            if (enrollment.getId() != null) {
+                throw new IllegalArgumentException("Enrollment already has an ID; use saveEnrollment to update");
+            }
+        }, valid -> transactions.inTransaction(() -> {
+            BatchResult<Enrollment> inserted = enrollmentRepository.saveAll(valid);
+            gradeService.enrollmentsInserted(valid);
+            statisticsService.invalidate();
+            return inserted;
+        }));
     }
 
     public Optional<Enrollment> findEnrollmentById(Long id) throws SQLException {
@@ -57,6 +105,100 @@ public class EnrollmentService {
         return enrollmentRepository.findAll();
     }
 
+    public Page<Enrollment> getEnrollmentPage(String cursor, int size) throws SQLException {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return enrollmentRepository.page(cursor, size);
+    }
+
+    public Page<Enrollment> getEnrollmentPage(EnrollmentSort sort, boolean descending,
+                                              String cursor, int size) throws SQLException {
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort order is required");
+        }
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return enrollmentRepository.page(sort, descending, cursor, size);
+    }
+
+    /**
+     * Cursor for the page starting at the given row of the sorted list, for
+     * showing rows far from any page already loaded.
+     */
+    public String getEnrollmentCursorAt(EnrollmentSort sort, boolean descending, long offset)
+            throws SQLException {
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort order is required");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Row offset cannot be negative");
+        }
+        return enrollmentRepository.cursorAt(sort, descending, offset);
+    }
+
+    public long countEnrollments() throws SQLException {
+        return enrollmentRepository.count();
+    }
+
+    public LocalDateTime getSyncPoint() throws SQLException {
+        return enrollmentRepository.syncPoint();
+    }
+
+    /**
+     * Enrollments added, changed or deleted since the given sync point, for patching
+     * an already loaded list instead of reloading it.
+     */
+    public ChangeSet<Enrollment> getEnrollmentChanges(LocalDateTime since) throws SQLException {
+        if (since == null) {
+            throw new IllegalArgumentException("Sync point is required");
+        }
+        return enrollmentRepository.findChangedSince(since);
+    }
+
+    /**
+     * Visits every matching enrollment with flat memory use; intended for
+     * exports and reports over the whole table.
+     */
+    public void forEachEnrollment(EnrollmentFilter filter, Consumer<Enrollment> action) throws SQLException {
+        enrollmentRepository.forEach(filter != null ? filter : EnrollmentFilter.all(), action);
+    }
+
+    /**
+     * Streams matching enrollments. The stream holds a database connection,
+     * so callers must close it (try-with-resources).
+     */
+    public Stream<Enrollment> streamEnrollments(EnrollmentFilter filter) throws SQLException {
+        return enrollmentRepository.stream(filter != null ? filter : EnrollmentFilter.all());
+    }
+
+    /**
+     * Grade counts for the summary report, computed with one GROUP BY query.
+     * Null or blank semester/year means no filter on that column.
+     */
+    public GradeDistribution gradeDistribution(String semester, String academicYear) throws SQLException {
+        Map<String, Long> counts = enrollmentRepository.countByGrade(
+                semester == null || semester.isBlank() ? null : semester.trim(),
+                academicYear == null || academicYear.isBlank() ? null : academicYear.trim());
+
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        long ungraded = counts.getOrDefault(null, 0L);
+
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String grade : GradeScale.points().keySet()) {
+            Long count = counts.get(grade);
+            if (count != null && count > 0) {
+                ordered.put(grade, count);
+            }
+        }
+
+        return new GradeDistribution(total, total - ungraded, ordered);
+    }
+
     public List<Enrollment> getEnrollmentsByStudent(Long studentId) throws SQLException {
         if (studentId == null || studentId <= 0) {
             throw new IllegalArgumentException("Invalid student ID");
@@ -76,33 +218,36 @@ public class EnrollmentService {
             throw new IllegalArgumentException("Invalid enrollment ID");
         }
 
-        Optional<Enrollment> enrollment = enrollmentRepository.findById(id);
-        if (enrollment.isEmpty()) {
-            throw new IllegalArgumentException("Enrollment not found with ID: " + id);
-        }
-
-        enrollmentRepository.deleteById(id);
+        transactions.inTransaction(() -> {
+            GradeState before = gradeService.lockState(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with ID: " + id));
+            enrollmentRepository.deleteById(id);
+            gradeService.enrollmentDeleted(before);
+            statisticsService.invalidate();
+            return null;
+        });
     }
 
-    public Enrollment updateGrade(Long enrollmentId, String grade) throws SQLException {
+    /**
+     * Sets the grade through the grade service, which also records it in
+     * the grade history and the student's academic summary.
+     */
+    public void updateGrade(Long enrollmentId, String grade) throws SQLException {
         if (enrollmentId == null || enrollmentId <= 0) {
             throw new IllegalArgumentException("Invalid enrollment ID");
         }
 
-        Optional<Enrollment> enrollmentOpt = enrollmentRepository.findById(enrollmentId);
-        if (enrollmentOpt.isEmpty()) {
-            throw new IllegalArgumentException("Enrollment not found with ID: " + enrollmentId);
-        }
-
         validateGrade(grade);
 
-        Enrollment enrollment = enrollmentOpt.get();
-        enrollment.setGrade(grade);
-
-        return enrollmentRepository.save(enrollment);
+        gradeService.recordGrade(enrollmentId, grade, null, null);
     }
 
-    private void validateEnrollment(Enrollment enrollment) {
+    /**
+     * Checks the fields an enrollment needs before it can be saved, throwing
+     * IllegalArgumentException with the first problem found. Whether the
+     * student and course exist is left to the database.
+     */
+    public void validateEnrollment(Enrollment enrollment) {
         if (enrollment == null) {
             throw new IllegalArgumentException("Enrollment cannot be null");
         }
@@ -125,23 +270,37 @@ public class EnrollmentService {
         }
     }
 
+    /**
+     * Maps a constraint failure on the enrollments table to the error the
+     * caller would have got from checking first. Anything unrecognised is
+     * rethrown as it is.
+     */
+    private static RuntimeException constraintViolation(Enrollment enrollment,
+                                                        SQLIntegrityConstraintViolationException e)
+            throws SQLIntegrityConstraintViolationException {
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        if (e.getErrorCode() == MYSQL_DUPLICATE_KEY || message.contains("unique_enrollment")) {
+            return new IllegalArgumentException("Student is already enrolled in this course for "
+                    + enrollment.getSemester() + " " + enrollment.getAcademicYear(), e);
+        }
+        // MySQL names the failing foreign key column in the message
+        if (message.contains("(`student_id`)")) {
+            return new IllegalArgumentException("Student not found with ID: " + enrollment.getStudentId(), e);
+        }
+        if (message.contains("(`course_id`)")) {
+            return new IllegalArgumentException("Course not found with ID: " + enrollment.getCourseId(), e);
+        }
+        throw e;
+    }
+
     private void validateGrade(String grade) {
         if (grade == null || grade.trim().isEmpty()) {
             throw new IllegalArgumentException("Grade cannot be empty");
         }
 
-        String[] validGrades = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-",
-                "D+", "D", "D-", "E", "F"};
-        boolean isValid = false;
-        for (String validGrade : validGrades) {
-            if (validGrade.equals(grade.trim())) {
-                isValid = true;
-                break;
-            }
-        }
-
-        if (!isValid) {
-            throw new IllegalArgumentException("Invalid grade. Must be one of: A, A-, B+, B, B-, C+, C, C-, D+, D, D-, E, F");
+        if (!GradeScale.isGraded(grade)) {
+            throw new IllegalArgumentException("Invalid grade. Must be one of: "
+                    + String.join(", ", GradeScale.points().keySet()));
         }
     }
 }
\ No newline at end of file
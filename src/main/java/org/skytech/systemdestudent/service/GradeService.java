@@ -0,0 +1,302 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.Grade;
+import org.skytech.systemdestudent.model.GradeScale;
+import org.skytech.systemdestudent.repository.AcademicSummaryRepository;
+import org.skytech.systemdestudent.repository.AcademicSummaryRepository.TermKey;
+import org.skytech.systemdestudent.repository.AcademicSummaryRepository.Totals;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.skytech.systemdestudent.repository.EnrollmentRepository;
+import org.skytech.systemdestudent.repository.GradeRepository;
+import org.skytech.systemdestudent.repository.GradeRepository.GradeState;
+import org.skytech.systemdestudent.repository.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Records grades with their history and keeps each student's academic
+ * summary (courses, credits, graded credits, quality points and GPA, overall
+ * and per term) up to date by applying only the difference each change
+ * makes. Every change to an enrollment's grade, term, course credits or
+ * existence goes through here inside a unit of work, with the affected
+ * enrollments locked, so the summaries never drift from the enrollments.
+ */
+@Service
+public class GradeService {
+
+    private final GradeRepository gradeRepository;
+    private final AcademicSummaryRepository summaryRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final StatisticsService statisticsService;
+    private final Transactions transactions;
+
+    @Autowired
+    public GradeService(GradeRepository gradeRepository,
+                        AcademicSummaryRepository summaryRepository,
+                        EnrollmentRepository enrollmentRepository,
+                        StatisticsService statisticsService,
+                        Transactions transactions) {
+        this.gradeRepository = gradeRepository;
+        this.summaryRepository = summaryRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.statisticsService = statisticsService;
+        this.transactions = transactions;
+    }
+
+    public Grade recordGrade(Long enrollmentId, String grade, String gradedBy, String remarks) throws SQLException {
+        return recordGrades(List.of(new Grade(enrollmentId, grade, gradedBy, remarks))).get(0);
+    }
+
+    /**
+     * Gives each enrollment its grade, adds the grades to the history and
+     * updates the students' summaries, all in one unit of work: a batch of
+     * locking reads, one batch of history inserts, one batch of enrollment
+     * updates and one batch per summary table. Either every grade is
+     * recorded or none is. A missing grade date means today.
+     */
+    public List<Grade> recordGrades(Collection<Grade> grades) throws SQLException {
+        List<Grade> input = new ArrayList<>(grades);
+        Set<Long> enrollmentIds = new LinkedHashSet<>();
+        for (Grade grade : input) {
+            validateGrade(grade);
+            grade.setGradeValue(grade.getGradeValue().trim());
+            grade.setGradePoint(GradeScale.pointsFor(grade.getGradeValue()));
+            if (grade.getGradedDate() == null) {
+                grade.setGradedDate(LocalDate.now());
+            }
+            enrollmentIds.add(grade.getEnrollmentId());
+        }
+        if (input.isEmpty()) {
+            return input;
+        }
+
+        return transactions.inTransaction(() -> {
+            Map<Long, GradeState> states = gradeRepository.lockStates(enrollmentIds);
+            for (Long id : enrollmentIds) {
+                if (!states.containsKey(id)) {
+                    throw new IllegalArgumentException("Enrollment not found with ID: " + id);
+                }
+            }
+
+            // Apply the grades in order; a later grade for the same enrollment replaces an earlier one
+            Map<Long, String> current = new HashMap<>();
+            Map<Long, String> finalGrades = new LinkedHashMap<>();
+            Map<TermKey, Totals> changes = new HashMap<>();
+            for (Grade grade : input) {
+                GradeState state = states.get(grade.getEnrollmentId());
+                String previous = current.getOrDefault(state.enrollmentId(), state.grade());
+                add(changes, state, grade.getGradeValue(), state.credits(), 1);
+                add(changes, state, previous, state.credits(), -1);
+                current.put(state.enrollmentId(), grade.getGradeValue());
+                finalGrades.put(state.enrollmentId(), grade.getGradeValue());
+            }
+
+            saveHistory(input);
+            enrollmentRepository.updateGrades(finalGrades);
+            summaryRepository.apply(changes);
+            // The dashboard counts graded enrollments
+            statisticsService.invalidate();
+            return input;
+        });
+    }
+
+    /**
+     * Grade history of one enrollment, latest first.
+     */
+    public List<Grade> getGradeHistory(Long enrollmentId) throws SQLException {
+        if (enrollmentId == null || enrollmentId <= 0) {
+            throw new IllegalArgumentException("Invalid enrollment ID");
+        }
+        return gradeRepository.findByEnrollmentId(enrollmentId);
+    }
+
+    /**
+     * A student's totals and per-term breakdown, read from the maintained
+     * summary rows rather than the enrollments.
+     */
+    public AcademicSummary getAcademicSummary(Long studentId) throws SQLException {
+        if (studentId == null || studentId <= 0) {
+            throw new IllegalArgumentException("Invalid student ID");
+        }
+        return summaryRepository.findByStudentId(studentId).orElse(AcademicSummary.empty(studentId));
+    }
+
+    /**
+     * getAcademicSummary for many students at once, for batch reports.
+     */
+    public Map<Long, AcademicSummary> getAcademicSummaries(Collection<Long> studentIds) throws SQLException {
+        Map<Long, AcademicSummary> summaries = summaryRepository.findByStudentIds(studentIds);
+        for (Long studentId : studentIds) {
+            summaries.computeIfAbsent(studentId, AcademicSummary::empty);
+        }
+        return summaries;
+    }
+
+    // The methods below are called by the enrollment and course services
+    // inside their own unit of work, around the change they make.
+
+    Optional<GradeState> lockState(Long enrollmentId) throws SQLException {
+        return gradeRepository.lockState(enrollmentId);
+    }
+
+    /**
+     * Applies an enrollment save to the history and summaries. before is
+     * the locked state from ahead of an update, or null for an insert.
+     */
+    void enrollmentSaved(GradeState before, Enrollment saved) throws SQLException {
+        // The student, course (and so the credits), term and grade may all have changed
+        GradeState after = gradeRepository.lockState(saved.getId()).orElse(null);
+        if (after == null) {
+            return;
+        }
+
+        Map<TermKey, Totals> changes = new HashMap<>();
+        add(changes, after, after.grade(), after.credits(), 1);
+        if (before != null) {
+            add(changes, before, before.grade(), before.credits(), -1);
+        }
+        summaryRepository.apply(changes);
+
+        String previousGrade = before != null ? before.grade() : null;
+        if (GradeScale.isGraded(after.grade()) && !sameGrade(previousGrade, after.grade())) {
+            saveHistory(List.of(historyOf(after)));
+        }
+    }
+
+    /**
+     * Applies enrollments inserted in bulk to the history and summaries.
+     */
+    void enrollmentsInserted(Collection<Enrollment> inserted) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        for (Enrollment enrollment : inserted) {
+            if (enrollment.getId() != null) {
+                ids.add(enrollment.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<TermKey, Totals> changes = new HashMap<>();
+        List<Grade> history = new ArrayList<>();
+        for (GradeState state : gradeRepository.lockStates(ids).values()) {
+            add(changes, state, state.grade(), state.credits(), 1);
+            if (GradeScale.isGraded(state.grade())) {
+                history.add(historyOf(state));
+            }
+        }
+
+        saveHistory(history);
+        summaryRepository.apply(changes);
+    }
+
+    /**
+     * Takes a deleted enrollment out of its student's summary; the grade
+     * history goes with the enrollment.
+     */
+    void enrollmentDeleted(GradeState before) throws SQLException {
+        Map<TermKey, Totals> changes = new HashMap<>();
+        add(changes, before, before.grade(), before.credits(), -1);
+        summaryRepository.apply(changes);
+    }
+
+    /**
+     * Locks a course's enrollments ahead of a change to its credits or its
+     * deletion.
+     */
+    List<GradeState> lockCourseEnrollments(Long courseId) throws SQLException {
+        return gradeRepository.lockCourseStates(courseId);
+    }
+
+    /**
+     * Re-weights a course's enrollments after its credits changed. enrolled
+     * comes from lockCourseEnrollments before the change.
+     */
+    void courseCreditsChanged(List<GradeState> enrolled, int newCredits) throws SQLException {
+        Map<TermKey, Totals> changes = new HashMap<>();
+        for (GradeState state : enrolled) {
+            add(changes, state, state.grade(), newCredits, 1);
+            add(changes, state, state.grade(), state.credits(), -1);
+        }
+        summaryRepository.apply(changes);
+    }
+
+    /**
+     * Takes a course's enrollments out of the summaries before its deletion
+     * cascades to them.
+     */
+    void courseDeleted(List<GradeState> enrolled) throws SQLException {
+        Map<TermKey, Totals> changes = new HashMap<>();
+        for (GradeState state : enrolled) {
+            add(changes, state, state.grade(), state.credits(), -1);
+        }
+        summaryRepository.apply(changes);
+    }
+
+    private void saveHistory(List<Grade> grades) throws SQLException {
+        BatchResult<Grade> saved = gradeRepository.saveAll(grades);
+        if (!saved.getFailures().isEmpty()) {
+            BatchResult.Failure<Grade> failure = saved.getFailures().get(0);
+            throw new SQLException("Recording grade for enrollment "
+                    + grades.get(failure.index()).getEnrollmentId() + " failed: " + failure.message());
+        }
+    }
+
+    /**
+     * Adds (sign 1) or takes away (sign -1) what one enrollment with the
+     * given grade and credits counts towards its term.
+     */
+    private static void add(Map<TermKey, Totals> changes, GradeState state, String grade, int credits, int sign) {
+        BigDecimal points = GradeScale.pointsFor(grade);
+        Totals totals = points == null
+                ? new Totals(1, credits, 0, BigDecimal.ZERO)
+                : new Totals(1, credits, credits, points.multiply(BigDecimal.valueOf(credits)));
+        changes.merge(new TermKey(state.studentId(), state.academicYear(), state.semester()),
+                sign < 0 ? totals.negate() : totals, Totals::plus);
+    }
+
+    private static Grade historyOf(GradeState state) {
+        Grade grade = new Grade(state.enrollmentId(), state.grade().trim(), null, null);
+        grade.setGradePoint(GradeScale.pointsFor(state.grade()));
+        grade.setGradedDate(LocalDate.now());
+        return grade;
+    }
+
+    private static boolean sameGrade(String a, String b) {
+        return a != null && b != null && a.trim().equals(b.trim());
+    }
+
+    private void validateGrade(Grade grade) {
+        if (grade == null) {
+            throw new IllegalArgumentException("Grade cannot be null");
+        }
+
+        if (grade.getEnrollmentId() == null || grade.getEnrollmentId() <= 0) {
+            throw new IllegalArgumentException("Invalid enrollment ID");
+        }
+
+        if (grade.getGradeValue() == null || grade.getGradeValue().trim().isEmpty()) {
+            throw new IllegalArgumentException("Grade cannot be empty");
+        }
+
+        if (!GradeScale.isGraded(grade.getGradeValue())) {
+            throw new IllegalArgumentException("Invalid grade. Must be one of: "
+                    + String.join(", ", GradeScale.points().keySet()));
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.repository.BatchResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs one file through parse, convert, resolve, validate and insert. A
+ * reader thread parses ahead into a small queue of chunks while the
+ * previous chunk is checked and written; conversion and validation of a
+ * chunk run in parallel, and references are resolved with one bulk lookup
+ * per chunk. Each chunk is written in its own batch, so a cancelled import
+ * keeps the chunks already written.
+ */
+final class ImportPipeline<T> {
+
+    static final int CHUNK_SIZE = 5000;
+    private static final int CHUNKS_AHEAD = 2;
+    private static final int MAX_SAMPLES = 100;
+
+    /**
+     * What one kind of row needs from the pipeline. convert and validate
+     * run in parallel and reject a row by throwing IllegalArgumentException;
+     * resolve runs on one thread per chunk, in file order.
+     */
+    interface Target<T> {
+        List<String> requiredColumns();
+
+        T convert(Columns columns, String[] cells);
+
+        void resolve(List<Row<T>> rows) throws SQLException;
+
+        void validate(T item);
+
+        BatchResult<T> insert(List<T> items) throws SQLException;
+    }
+
+    /**
+     * Header positions by normalized name: lower case, with spaces and
+     * dashes read as underscores.
+     */
+    static final class Columns {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        Columns(String[] header) {
+            for (int i = 0; i < header.length; i++) {
+                positions.putIfAbsent(normalize(header[i]), i);
+            }
+        }
+
+        boolean has(String column) {
+            return positions.containsKey(column);
+        }
+
+        /**
+         * Trimmed cell, or null when the column is missing or the cell empty.
+         */
+        String get(String[] cells, String column) {
+            Integer position = positions.get(column);
+            if (position == null || position >= cells.length) {
+                return null;
+            }
+            String value = cells[position].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        static String normalize(String name) {
+            return name.trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        }
+    }
+
+    static final class Row<T> {
+        final long number;
+        final String[] cells;
+        T item;
+        String rejection;
+
+        Row(long number, String[] cells) {
+            this.number = number;
+            this.cells = cells;
+        }
+
+        void reject(String reason) {
+            if (rejection == null) {
+                rejection = reason;
+                item = null;
+            }
+        }
+
+        boolean accepted() {
+            return rejection == null;
+        }
+    }
+
+    private final ImportService.Kind kind;
+    private final Target<T> target;
+    private final boolean dryRun;
+    private final Path rejectedFile;
+    private final ImportService.Progress progress;
+
+    private volatile boolean stopped;
+    private String[] header;
+    private Columns columns;
+    private BufferedWriter rejectedOut;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private final List<ImportReport.Rejection> samples = new ArrayList<>();
+
+    ImportPipeline(ImportService.Kind kind, Target<T> target, boolean dryRun,
+                   Path rejectedFile, ImportService.Progress progress) {
+        this.kind = kind;
+        this.target = target;
+        this.dryRun = dryRun;
+        this.rejectedFile = rejectedFile;
+        this.progress = progress;
+    }
+
+    ImportReport run(TabularReader reader) throws IOException, SQLException {
+        long started = System.nanoTime();
+        BlockingQueue<List<Row<T>>> chunks = new ArrayBlockingQueue<>(CHUNKS_AHEAD);
+        AtomicReference<Throwable> readFailure = new AtomicReference<>();
+        List<Row<T>> end = Collections.emptyList();
+
+        Thread parser = Thread.ofVirtual().name("import-reader").start(() -> {
+            try {
+                read(reader, chunks);
+            } catch (Throwable e) {
+                readFailure.set(e);
+            } finally {
+                putQuietly(chunks, end);
+            }
+        });
+
+        try {
+            List<Row<T>> chunk;
+            while ((chunk = chunks.take()) != end) {
+                process(chunk);
+                progress.rowsProcessed(rowsRead, reader.fractionRead());
+                if (progress.isCancelled()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped = true;
+            chunks.clear();
+            closeRejected();
+        }
+
+        try {
+            parser.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable failure = readFailure.get();
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+
+        return new ImportReport(kind, dryRun, progress.isCancelled(), rowsRead, imported, rejected,
+                List.copyOf(samples), rejected > 0 ? rejectedFile : null,
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private void read(TabularReader reader, BlockingQueue<List<Row<T>>> chunks) throws IOException {
+        List<List<Row<T>>> pending = new ArrayList<>(1);
+        pending.add(new ArrayList<>(CHUNK_SIZE));
+
+        reader.read((rowNumber, cells) -> {
+            if (stopped) {
+                return false;
+            }
+            if (header == null) {
+                readHeader(cells);
+                return true;
+            }
+            List<Row<T>> chunk = pending.get(0);
+            chunk.add(new Row<>(rowNumber, cells));
+            if (chunk.size() == CHUNK_SIZE) {
+                pending.set(0, new ArrayList<>(CHUNK_SIZE));
+                return putQuietly(chunks, chunk);
+            }
+            return true;
+        });
+
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        if (!pending.get(0).isEmpty()) {
+            putQuietly(chunks, pending.get(0));
+        }
+    }
+
+    private void readHeader(String[] cells) {
+        Columns found = new Columns(cells);
+        List<String> missing = new ArrayList<>();
+        for (String column : target.requiredColumns()) {
+            if (!found.has(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing column(s): " + String.join(", ", missing));
+        }
+        header = cells;
+        columns = found;
+    }
+
+    // The header is set by the reader thread before the first chunk is queued
+    private void process(List<Row<T>> chunk) throws IOException, SQLException {
+        rowsRead += chunk.size();
+
+        chunk.parallelStream().forEach(row -> {
+            try {
+                row.item = target.convert(columns, row.cells);
+            } catch (IllegalArgumentException e) {
+                row.reject(e.getMessage());
+            }
+        });
+
+        target.resolve(accepted(chunk));
+
+        chunk.parallelStream().filter(Row::accepted).forEach(row -> {
+            try {
+                target.validate(row.item);
+            } catch (IllegalArgumentException e) {
+                row.reject(e.getMessage());
+            }
+        });
+
+        List<Row<T>> accepted = accepted(chunk);
+        if (dryRun) {
+            imported += accepted.size();
+        } else if (!accepted.isEmpty()) {
+            List<T> items = new ArrayList<>(accepted.size());
+            for (Row<T> row : accepted) {
+                items.add(row.item);
+            }
+            BatchResult<T> result = target.insert(items);
+            for (BatchResult.Failure<T> failure : result.getFailures()) {
+                accepted.get(failure.index()).reject(failure.message());
+            }
+            imported += result.getSuccessCount();
+        }
+
+        for (Row<T> row : chunk) {
+            if (!row.accepted()) {
+                writeRejected(row);
+            }
+        }
+    }
+
+    private List<Row<T>> accepted(List<Row<T>> chunk) {
+        List<Row<T>> accepted = new ArrayList<>(chunk.size());
+        for (Row<T> row : chunk) {
+            if (row.accepted()) {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    private void writeRejected(Row<T> row) throws IOException {
+        rejected++;
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(new ImportReport.Rejection(row.number, row.rejection));
+        }
+        if (rejectedFile == null) {
+            return;
+        }
+
+        if (rejectedOut == null) {
+            rejectedOut = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8);
+            writeCsvLine(List.of("row", "reason"), header);
+        }
+        writeCsvLine(List.of(String.valueOf(row.number), row.rejection == null ? "" : row.rejection), row.cells);
+    }
+
+    private void writeCsvLine(List<String> leading, String[] cells) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (String value : leading) {
+            Csv.appendField(line, value).append(',');
+        }
+        for (int i = 0; i < cells.length; i++) {
+            Csv.appendField(line, cells[i]);
+            if (i < cells.length - 1) {
+                line.append(',');
+            }
+        }
+        rejectedOut.write(line.toString());
+        rejectedOut.newLine();
+    }
+
+    private void closeRejected() throws IOException {
+        if (rejectedOut != null) {
+            rejectedOut.close();
+            rejectedOut = null;
+        }
+    }
+
+    /**
+     * Queues a chunk unless the import has stopped, giving the reader a way
+     * out when nobody will take from the queue again.
+     */
+    private boolean putQuietly(BlockingQueue<List<Row<T>>> chunks, List<Row<T>> chunk) {
+        try {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (stopped) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
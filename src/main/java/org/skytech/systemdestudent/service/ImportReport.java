@@ -0,0 +1,32 @@
+package org.skytech.systemdestudent.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. In a dry run, imported counts the rows that
+ * passed every check but were not written. The rejected file lists every
+ * rejected row; samples holds only the first few for display.
+ */
+public record ImportReport(ImportService.Kind kind,
+                           boolean dryRun,
+                           boolean cancelled,
+                           long rowsRead,
+                           long imported,
+                           long rejected,
+                           List<Rejection> samples,
+                           Path rejectedFile,
+                           Duration elapsed) {
+
+    /**
+     * A rejected row; rowNumber is the row in the source file, header being row 1.
+     */
+    public record Rejection(long rowNumber, String reason) {
+    }
+
+    public double rowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? rowsRead : rowsRead * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,337 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Bulk import of students, courses and enrollments from CSV or XLSX files.
+ * Rows go through the same checks as the forms, plus a duplicate check
+ * within the file; bad rows are rejected one by one and the rest imported.
+ * Enrollment rows name their student and course by registration number and
+ * course code.
+ */
+@Service
+public class ImportService {
+
+    public enum Kind {
+        STUDENTS("students"),
+        COURSES("courses"),
+        ENROLLMENTS("enrollments");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Receives progress after each chunk and can stop the import between chunks.
+     */
+    public interface Progress {
+        /**
+         * fraction is the share of the file read, or -1 when it cannot be told.
+         */
+        void rowsProcessed(long rows, double fraction);
+
+        boolean isCancelled();
+    }
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+
+    @Autowired
+    public ImportService(StudentService studentService,
+                         CourseService courseService,
+                         EnrollmentService enrollmentService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * Imports file, or only checks it when dryRun is set. Rejected rows are
+     * written with their reason to rejectedFile, which may be null; the file
+     * is only created if a row is rejected.
+     */
+    public ImportReport importFile(Kind kind, Path file, boolean dryRun,
+                                   Path rejectedFile, Progress progress) throws IOException, SQLException {
+        if (kind == null) {
+            throw new IllegalArgumentException("Import kind is required");
+        }
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Import file not found: " + file);
+        }
+        if (!TabularReader.isSupported(file)) {
+            throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+        }
+
+        TabularReader reader = new TabularReader(file);
+        return switch (kind) {
+            case STUDENTS -> new ImportPipeline<>(kind, new StudentTarget(), dryRun, rejectedFile, progress).run(reader);
+            case COURSES -> new ImportPipeline<>(kind, new CourseTarget(), dryRun, rejectedFile, progress).run(reader);
+            case ENROLLMENTS -> new ImportPipeline<>(kind, new EnrollmentTarget(), dryRun, rejectedFile, progress).run(reader);
+        };
+    }
+
+    private final class StudentTarget implements ImportPipeline.Target<Student> {
+        private final Set<String> seen = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        @Override
+        public List<String> requiredColumns() {
+            return List.of("registration_number", "first_name", "last_name", "enrollment_date");
+        }
+
+        @Override
+        public Student convert(ImportPipeline.Columns columns, String[] cells) {
+            Student student = new Student();
+            student.setRegistrationNumber(columns.get(cells, "registration_number"));
+            student.setFirstName(columns.get(cells, "first_name"));
+            student.setLastName(columns.get(cells, "last_name"));
+            student.setEnrollmentDate(parseDate(columns, cells, "enrollment_date"));
+            student.setEmail(columns.get(cells, "email"));
+            student.setDateOfBirth(parseDate(columns, cells, "date_of_birth"));
+            student.setDepartment(columns.get(cells, "department"));
+            student.setPhoneNumber(columns.get(cells, "phone_number"));
+            student.setAddress(columns.get(cells, "address"));
+            return student;
+        }
+
+        @Override
+        public void resolve(List<ImportPipeline.Row<Student>> rows) throws SQLException {
+            Set<String> regNos = new LinkedHashSet<>();
+            for (ImportPipeline.Row<Student> row : rows) {
+                if (row.item.getRegistrationNumber() != null) {
+                    regNos.add(row.item.getRegistrationNumber());
+                }
+            }
+            Map<String, Long> existing = studentService.findIdsByRegistrationNumbers(regNos);
+
+            for (ImportPipeline.Row<Student> row : rows) {
+                String regNo = row.item.getRegistrationNumber();
+                if (regNo == null) {
+                    continue;
+                }
+                if (existing.containsKey(regNo)) {
+                    row.reject("Registration number already exists: " + regNo);
+                } else if (!seen.add(regNo)) {
+                    row.reject("Registration number repeated in file: " + regNo);
+                }
+            }
+        }
+
+        @Override
+        public void validate(Student student) {
+            studentService.validateStudent(student);
+        }
+
+        @Override
+        public BatchResult<Student> insert(List<Student> students) throws SQLException {
+            return studentService.saveStudents(students);
+        }
+    }
+
+    private final class CourseTarget implements ImportPipeline.Target<Course> {
+        private final Set<String> seen = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        @Override
+        public List<String> requiredColumns() {
+            return List.of("course_code", "course_title", "credits");
+        }
+
+        @Override
+        public Course convert(ImportPipeline.Columns columns, String[] cells) {
+            Course course = new Course();
+            course.setCourseCode(columns.get(cells, "course_code"));
+            course.setCourseTitle(columns.get(cells, "course_title"));
+            course.setCredits(parseInt(columns, cells, "credits"));
+            course.setCourseDescription(columns.get(cells, "course_description"));
+            course.setDepartment(columns.get(cells, "department"));
+            course.setPrerequisites(columns.get(cells, "prerequisites"));
+            course.setInstructor(columns.get(cells, "instructor"));
+            return course;
+        }
+
+        @Override
+        public void resolve(List<ImportPipeline.Row<Course>> rows) throws SQLException {
+            Set<String> codes = new LinkedHashSet<>();
+            for (ImportPipeline.Row<Course> row : rows) {
+                if (row.item.getCourseCode() != null) {
+                    codes.add(row.item.getCourseCode());
+                }
+            }
+            Map<String, Long> existing = courseService.findIdsByCourseCodes(codes);
+
+            for (ImportPipeline.Row<Course> row : rows) {
+                String code = row.item.getCourseCode();
+                if (code == null) {
+                    continue;
+                }
+                if (existing.containsKey(code)) {
+                    row.reject("Course code already exists: " + code);
+                } else if (!seen.add(code)) {
+                    row.reject("Course code repeated in file: " + code);
+                }
+            }
+        }
+
+        @Override
+        public void validate(Course course) {
+            courseService.validateCourse(course);
+        }
+
+        @Override
+        public BatchResult<Course> insert(List<Course> courses) throws SQLException {
+            return courseService.saveCourses(courses);
+        }
+    }
+
+    private final class EnrollmentTarget implements ImportPipeline.Target<Enrollment> {
+        // Enrollment files repeat the same students and courses, so ids are looked up once per import
+        private final Map<String, Long> studentIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Long> courseIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Set<String> seen = new HashSet<>();
+
+        @Override
+        public List<String> requiredColumns() {
+            return List.of("registration_number", "course_code", "enrollment_date");
+        }
+
+        @Override
+        public Enrollment convert(ImportPipeline.Columns columns, String[] cells) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudentRegNo(columns.get(cells, "registration_number"));
+            enrollment.setCourseCode(columns.get(cells, "course_code"));
+            enrollment.setEnrollmentDate(parseDate(columns, cells, "enrollment_date"));
+            enrollment.setGrade(columns.get(cells, "grade"));
+            enrollment.setSemester(columns.get(cells, "semester"));
+            enrollment.setAcademicYear(columns.get(cells, "academic_year"));
+
+            if (enrollment.getStudentRegNo() == null) {
+                throw new IllegalArgumentException("Registration number is required");
+            }
+            if (enrollment.getCourseCode() == null) {
+                throw new IllegalArgumentException("Course code is required");
+            }
+            return enrollment;
+        }
+
+        @Override
+        public void resolve(List<ImportPipeline.Row<Enrollment>> rows) throws SQLException {
+            Set<String> regNos = new LinkedHashSet<>();
+            Set<String> codes = new LinkedHashSet<>();
+            for (ImportPipeline.Row<Enrollment> row : rows) {
+                if (!studentIds.containsKey(row.item.getStudentRegNo())) {
+                    regNos.add(row.item.getStudentRegNo());
+                }
+                if (!courseIds.containsKey(row.item.getCourseCode())) {
+                    codes.add(row.item.getCourseCode());
+                }
+            }
+            lookUp(regNos, studentIds, studentService::findIdsByRegistrationNumbers);
+            lookUp(codes, courseIds, courseService::findIdsByCourseCodes);
+
+            for (ImportPipeline.Row<Enrollment> row : rows) {
+                Enrollment enrollment = row.item;
+                Long studentId = studentIds.get(enrollment.getStudentRegNo());
+                Long courseId = courseIds.get(enrollment.getCourseCode());
+                if (studentId == null) {
+                    row.reject("Student not found: " + enrollment.getStudentRegNo());
+                    continue;
+                }
+                if (courseId == null) {
+                    row.reject("Course not found: " + enrollment.getCourseCode());
+                    continue;
+                }
+                enrollment.setStudentId(studentId);
+                enrollment.setCourseId(courseId);
+
+                // Same columns as the unique_enrollment key
+                String key = studentId + "|" + courseId + "|" + enrollment.getSemester()
+                        + "|" + enrollment.getAcademicYear();
+                if (!seen.add(key)) {
+                    row.reject("Enrollment repeated in file: " + enrollment.getStudentRegNo()
+                            + " in " + enrollment.getCourseCode());
+                }
+            }
+        }
+
+        @Override
+        public void validate(Enrollment enrollment) {
+            enrollmentService.validateEnrollment(enrollment);
+        }
+
+        @Override
+        public BatchResult<Enrollment> insert(List<Enrollment> enrollments) throws SQLException {
+            return enrollmentService.saveEnrollments(enrollments);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdLookup {
+        Map<String, Long> find(Set<String> keys) throws SQLException;
+    }
+
+    /**
+     * Adds the ids of keys to cache; keys that do not exist are cached as
+     * null so they are not looked up again.
+     */
+    private static void lookUp(Set<String> keys, Map<String, Long> cache, IdLookup lookup) throws SQLException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Map<String, Long> found = lookup.find(keys);
+        for (String key : keys) {
+            cache.put(key, found.get(key));
+        }
+    }
+
+    private static LocalDate parseDate(ImportPipeline.Columns columns, String[] cells, String column) {
+        String value = columns.get(cells, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "', expected yyyy-MM-dd");
+        }
+    }
+
+    private static int parseInt(ImportPipeline.Columns columns, String[] cells, String column) {
+        String value = columns.get(cells, column);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            // Spreadsheets may hand whole numbers over as 3.0
+            return value.endsWith(".0") ? Integer.parseInt(value.substring(0, value.length() - 2))
+                    : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.skytech.systemdestudent.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a report as a PDF of monospaced text pages. Each page is written
+ * to the file as soon as it is full, so only one page and the byte offsets
+ * of the objects written so far are kept. The built-in Courier font needs
+ * no embedding; characters outside Windows-1252 print as '?'.
+ */
+final class PdfReportSink implements ReportSink {
+
+    // A4 portrait in points, half-inch margins
+    private static final float PAGE_WIDTH = 595.28f;
+    private static final float PAGE_HEIGHT = 841.89f;
+    private static final float MARGIN = 36f;
+    private static final float FONT_SIZE = 8.5f;
+    private static final float LEADING = 10.5f;
+    // Courier glyphs are 600/1000 em wide
+    static final int LINE_WIDTH = (int) ((PAGE_WIDTH - 2 * MARGIN) / (FONT_SIZE * 0.6f));
+    static final int LINES_PER_PAGE = (int) ((PAGE_HEIGHT - 2 * MARGIN) / LEADING);
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private final CountingStream out;
+    private final TextPageSink layout;
+    // Byte offset of each object, indexed by object number - 1
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+
+    PdfReportSink(OutputStream stream) throws IOException {
+        this.out = new CountingStream(new BufferedOutputStream(stream, 1 << 16));
+        this.layout = new TextPageSink(LINE_WIDTH, LINES_PER_PAGE, (number, lines) -> writePage(lines));
+        for (int i = 0; i < FONT; i++) {
+            offsets.add(0L);
+        }
+        write("%PDF-1.4\n");
+        // Binary marker so transfer tools treat the file as binary
+        out.write(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+    }
+
+    @Override
+    public void title(String title, List<String> details) throws IOException {
+        layout.title(title, details);
+    }
+
+    @Override
+    public void table(String name, List<Column> columns) throws IOException {
+        layout.table(name, columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        layout.row(values);
+    }
+
+    @Override
+    public void notes(List<String> lines) throws IOException {
+        layout.notes(lines);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            layout.close();
+
+            beginObject(FONT);
+            write("<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>\n");
+            endObject();
+
+            beginObject(PAGES);
+            write("<< /Type /Pages /Count " + pageObjects.size() + " /Kids [");
+            for (int page : pageObjects) {
+                write(page + " 0 R ");
+            }
+            write("] >>\n");
+            endObject();
+
+            beginObject(CATALOG);
+            write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\n");
+            endObject();
+
+            long xref = out.count;
+            write("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+            for (long offset : offsets) {
+                write(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+            }
+            write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root " + CATALOG + " 0 R >>\n");
+            write("startxref\n" + xref + "\n%%EOF\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writePage(List<String> lines) throws IOException {
+        StringBuilder text = new StringBuilder(lines.size() * (LINE_WIDTH + 8));
+        text.append("BT\n/F1 ").append(number(FONT_SIZE)).append(" Tf\n")
+                .append(number(LEADING)).append(" TL\n")
+                .append(number(MARGIN)).append(' ').append(number(PAGE_HEIGHT - MARGIN - FONT_SIZE)).append(" Td\n");
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                text.append("T* ");
+            }
+            text.append('(');
+            String line = lines.get(i);
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (ch == '(' || ch == ')' || ch == '\\') {
+                    text.append('\\');
+                }
+                text.append(ch);
+            }
+            text.append(") Tj\n");
+        }
+        text.append("ET\n");
+        byte[] content = text.toString().getBytes(WIN_ANSI);
+
+        int contentObject = beginObject(0);
+        write("<< /Length " + content.length + " >>\nstream\n");
+        out.write(content);
+        write("endstream\n");
+        endObject();
+
+        int pageObject = beginObject(0);
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + number(PAGE_WIDTH) + " "
+                + number(PAGE_HEIGHT) + "] /Resources << /Font << /F1 " + FONT + " 0 R >> >> /Contents "
+                + contentObject + " 0 R >>\n");
+        endObject();
+        pageObjects.add(pageObject);
+    }
+
+    /**
+     * Starts object id, or the next new object when id is 0, and returns its number.
+     */
+    private int beginObject(int id) throws IOException {
+        if (id == 0) {
+            offsets.add(out.count);
+            id = offsets.size();
+        } else {
+            offsets.set(id - 1, out.count);
+        }
+        write(id + " 0 obj\n");
+        return id;
+    }
+
+    private void endObject() throws IOException {
+        write("endobj\n");
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String number(float value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
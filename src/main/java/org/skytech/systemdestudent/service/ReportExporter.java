@@ -0,0 +1,381 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.Course;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.GradeDistribution;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.model.TermSummary;
+import org.skytech.systemdestudent.repository.EnrollmentFilter;
+import org.skytech.systemdestudent.repository.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * Exports transcripts, course rosters and enrollment summaries to CSV, XLSX
+ * or PDF. Enrollment rows are streamed from the database into the output
+ * file one at a time, so exports of any size run in constant memory.
+ */
+@Service
+public class ReportExporter {
+
+    public enum Format {
+        CSV("csv", "CSV Files"),
+        XLSX("xlsx", "Excel Workbooks"),
+        PDF("pdf", "PDF Documents");
+
+        private final String extension;
+        private final String description;
+
+        Format(String extension, String description) {
+            this.extension = extension;
+            this.description = description;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String description() {
+            return description;
+        }
+    }
+
+    /**
+     * What to export, which also suggests the file name.
+     */
+    public sealed interface Report {
+        String fileName();
+    }
+
+    public record Transcript(Student student) implements Report {
+        @Override
+        public String fileName() {
+            return "transcript-" + fileSafe(student.getRegistrationNumber());
+        }
+    }
+
+    public record Roster(Course course) implements Report {
+        @Override
+        public String fileName() {
+            return "roster-" + fileSafe(course.getCourseCode());
+        }
+    }
+
+    /**
+     * Null or blank semester and academic year mean no filter.
+     */
+    public record Summary(String semester, String academicYear) implements Report {
+        @Override
+        public String fileName() {
+            StringBuilder name = new StringBuilder("summary");
+            if (academicYear != null && !academicYear.isBlank()) {
+                name.append('-').append(fileSafe(academicYear.trim()));
+            }
+            if (semester != null && !semester.isBlank()) {
+                name.append('-').append(fileSafe(semester.trim()));
+            }
+            return name.toString();
+        }
+    }
+
+    /**
+     * Told how many rows have been written every {@value #PROGRESS_INTERVAL}
+     * rows; a cancelled export stops at the next row.
+     */
+    public interface Progress {
+        void rowsWritten(long rows);
+
+        boolean isCancelled();
+    }
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private static final List<ReportSink.Column> TRANSCRIPT_COLUMNS = List.of(
+            ReportSink.Column.text("Course Code", 12),
+            ReportSink.Column.text("Course Title", 34),
+            ReportSink.Column.number("Credits", 7),
+            ReportSink.Column.text("Semester", 10),
+            ReportSink.Column.text("Academic Year", 13),
+            ReportSink.Column.text("Grade", 11));
+
+    private static final List<ReportSink.Column> TERM_COLUMNS = List.of(
+            ReportSink.Column.text("Academic Year", 13),
+            ReportSink.Column.text("Semester", 10),
+            ReportSink.Column.number("Courses", 7),
+            ReportSink.Column.number("Credits", 7),
+            ReportSink.Column.number("Graded", 7),
+            ReportSink.Column.text("GPA", 5));
+
+    private static final List<ReportSink.Column> ROSTER_COLUMNS = List.of(
+            ReportSink.Column.text("Reg No", 14),
+            ReportSink.Column.text("Student Name", 30),
+            ReportSink.Column.text("Enrolled", 10),
+            ReportSink.Column.text("Grade", 5),
+            ReportSink.Column.text("Semester", 10),
+            ReportSink.Column.text("Academic Year", 13));
+
+    private static final List<ReportSink.Column> DISTRIBUTION_COLUMNS = List.of(
+            ReportSink.Column.text("Grade", 12),
+            ReportSink.Column.number("Enrollments", 11),
+            ReportSink.Column.number("Share %", 7));
+
+    private static final List<ReportSink.Column> SUMMARY_COLUMNS = List.of(
+            ReportSink.Column.text("Reg No", 12),
+            ReportSink.Column.text("Student", 22),
+            ReportSink.Column.text("Course", 10),
+            ReportSink.Column.text("Course Title", 22),
+            ReportSink.Column.number("Cr", 3),
+            ReportSink.Column.text("Semester", 8),
+            ReportSink.Column.text("Year", 9),
+            ReportSink.Column.text("Grade", 5));
+
+    private final EnrollmentService enrollmentService;
+    private final GradeService gradeService;
+    private final Transactions transactions;
+
+    @Autowired
+    public ReportExporter(EnrollmentService enrollmentService, GradeService gradeService,
+                          Transactions transactions) {
+        this.enrollmentService = enrollmentService;
+        this.gradeService = gradeService;
+        this.transactions = transactions;
+    }
+
+    /**
+     * Writes report to file and returns the number of enrollment rows
+     * written. The report is written to a temporary file next to the target
+     * and moved into place when complete, so a failed or cancelled export
+     * never leaves a partial file behind.
+     */
+    public long export(Report report, Format format, Path file, Progress progress)
+            throws IOException, SQLException {
+        if (report == null || format == null || file == null) {
+            throw new IllegalArgumentException("Report, format and file are required");
+        }
+
+        Path target = file.toAbsolutePath();
+        Path partial = Files.createTempFile(target.getParent(), ".export-", "." + format.extension());
+        try {
+            long rows;
+            try (ReportSink sink = open(format, Files.newOutputStream(partial))) {
+                rows = write(report, sink, progress);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            return rows;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Writes report to sink without closing it, e.g. a {@link TextPageSink}
+     * feeding a printer.
+     */
+    public long write(Report report, ReportSink sink, Progress progress) throws IOException, SQLException {
+        return switch (report) {
+            case Transcript transcript -> writeTranscriptSnapshot(transcript.student(), sink, progress);
+            case Roster roster -> writeRoster(roster.course(), sink, progress);
+            case Summary summary -> writeSummary(summary.semester(), summary.academicYear(), sink, progress);
+        };
+    }
+
+    static ReportSink open(Format format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvReportSink(out);
+            case XLSX -> new XlsxReportSink(out);
+            case PDF -> new PdfReportSink(out);
+        };
+    }
+
+    /**
+     * writeTranscript in a read-only unit of work, so the rows and the
+     * summary totals come from one snapshot.
+     */
+    private long writeTranscriptSnapshot(Student student, ReportSink sink, Progress progress)
+            throws IOException, SQLException {
+        try {
+            return transactions.readOnly(() -> {
+                try {
+                    return writeTranscript(student, sink, progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeTranscript(Student student, ReportSink sink, Progress progress)
+            throws IOException, SQLException {
+        transcriptHeader(student, sink);
+        long rows = stream(EnrollmentFilter.all().forStudent(student.getId())
+                        .sortedBy(EnrollmentFilter.SortOrder.NEWEST_FIRST), progress,
+                enrollment -> transcriptRow(enrollment, sink));
+        transcriptFooter(gradeService.getAcademicSummary(student.getId()), sink);
+        return rows;
+    }
+
+    /**
+     * Writes a transcript from rows and a summary already read, newest
+     * enrollment first; used by batch transcript exports.
+     */
+    static void writeTranscript(Student student, List<Enrollment> enrollments, AcademicSummary summary,
+                                ReportSink sink) throws IOException {
+        transcriptHeader(student, sink);
+        for (Enrollment enrollment : enrollments) {
+            transcriptRow(enrollment, sink);
+        }
+        transcriptFooter(summary, sink);
+    }
+
+    private static void transcriptHeader(Student student, ReportSink sink) throws IOException {
+        sink.title("Student Transcript", List.of(
+                "Registration No: " + student.getRegistrationNumber(),
+                "Name: " + student.getFullName(),
+                "Department: " + orNa(student.getDepartment()),
+                "Email: " + orNa(student.getEmail()),
+                "Enrollment Date: " + student.getEnrollmentDate()));
+        sink.table("Academic Records", TRANSCRIPT_COLUMNS);
+    }
+
+    private static void transcriptRow(Enrollment enrollment, ReportSink sink) throws IOException {
+        sink.row(enrollment.getCourseCode(), enrollment.getCourseTitle(),
+                enrollment.getCourseCredits(), orNa(enrollment.getSemester()),
+                enrollment.getAcademicYear(),
+                enrollment.getGrade() != null ? enrollment.getGrade() : "In Progress");
+    }
+
+    private static void transcriptFooter(AcademicSummary summary, ReportSink sink) throws IOException {
+        if (!summary.getTerms().isEmpty()) {
+            sink.table("Semester Breakdown", TERM_COLUMNS);
+            for (TermSummary term : summary.getTerms()) {
+                sink.row(orNa(term.getAcademicYear()), orNa(term.getSemester()), term.getTotalCourses(),
+                        term.getTotalCredits(), term.getGradedCredits(), gpa(term.getGpa()));
+            }
+        }
+        sink.notes(List.of(
+                "Total Courses: " + summary.getTotalCourses(),
+                "Total Credits: " + summary.getTotalCredits(),
+                "Graded Credits: " + summary.getGradedCredits(),
+                "GPA: " + gpa(summary.getGpa()),
+                "Generated on: " + LocalDate.now()));
+    }
+
+    private long writeRoster(Course course, ReportSink sink, Progress progress) throws IOException, SQLException {
+        sink.title("Course Roster", List.of(
+                "Course: " + course.getCourseCode() + " - " + course.getCourseTitle(),
+                "Credits: " + course.getCredits(),
+                "Instructor: " + orNa(course.getInstructor())));
+        sink.table("Students", ROSTER_COLUMNS);
+
+        long rows = stream(EnrollmentFilter.all().forCourse(course.getId())
+                        .sortedBy(EnrollmentFilter.SortOrder.REGISTRATION_NUMBER), progress,
+                enrollment -> sink.row(enrollment.getStudentRegNo(), enrollment.getStudentName(),
+                        enrollment.getEnrollmentDate(), enrollment.getGrade(),
+                        enrollment.getSemester(), enrollment.getAcademicYear()));
+
+        sink.notes(List.of(
+                "Total Students: " + rows,
+                "Generated on: " + LocalDate.now()));
+        return rows;
+    }
+
+    private long writeSummary(String semester, String academicYear, ReportSink sink, Progress progress)
+            throws IOException, SQLException {
+        String term = semester == null || semester.isBlank() ? null : semester.trim();
+        String year = academicYear == null || academicYear.isBlank() ? null : academicYear.trim();
+        GradeDistribution distribution = enrollmentService.gradeDistribution(term, year);
+
+        List<String> details = new ArrayList<>();
+        if (term != null) {
+            details.add("Semester: " + term);
+        }
+        if (year != null) {
+            details.add("Academic Year: " + year);
+        }
+        details.add("Report Date: " + LocalDate.now());
+        details.add("Total Enrollments: " + distribution.getTotalEnrollments());
+        details.add("Enrollments with Grades: " + distribution.getGradedEnrollments());
+        details.add("Enrollments In Progress: " + distribution.getInProgressEnrollments());
+        sink.title("Enrollment Summary Report", details);
+
+        sink.table("Grade Distribution", DISTRIBUTION_COLUMNS);
+        long graded = Math.max(1, distribution.getGradedEnrollments());
+        for (Map.Entry<String, Long> entry : distribution.getGradeCounts().entrySet()) {
+            sink.row(entry.getKey(), entry.getValue(), Math.round(entry.getValue() * 1000.0 / graded) / 10.0);
+        }
+
+        sink.table("Enrollments", SUMMARY_COLUMNS);
+        return stream(EnrollmentFilter.all().inSemester(term).inAcademicYear(year)
+                        .sortedBy(EnrollmentFilter.SortOrder.REGISTRATION_NUMBER), progress,
+                enrollment -> sink.row(enrollment.getStudentRegNo(), enrollment.getStudentName(),
+                        enrollment.getCourseCode(), enrollment.getCourseTitle(),
+                        enrollment.getCourseCredits(), enrollment.getSemester(),
+                        enrollment.getAcademicYear(), enrollment.getGrade()));
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Enrollment enrollment) throws IOException;
+    }
+
+    /**
+     * Feeds every matching enrollment to writer while the query streams,
+     * returning the row count.
+     */
+    private long stream(EnrollmentFilter filter, Progress progress, RowWriter writer)
+            throws IOException, SQLException {
+        long[] rows = new long[1];
+        Consumer<Enrollment> action = enrollment -> {
+            if (progress.isCancelled()) {
+                throw new CancellationException("Export cancelled");
+            }
+            try {
+                writer.write(enrollment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++rows[0] % PROGRESS_INTERVAL == 0) {
+                progress.rowsWritten(rows[0]);
+            }
+        };
+
+        try {
+            enrollmentService.forEachEnrollment(filter, action);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        progress.rowsWritten(rows[0]);
+        return rows[0];
+    }
+
+    // Registration numbers and academic years often contain slashes
+    private static String fileSafe(String value) {
+        return value.replaceAll("[^A-Za-z0-9._-]", "-");
+    }
+
+    private static String gpa(BigDecimal value) {
+        return value != null ? value.toPlainString() : "N/A";
+    }
+
+    private static String orNa(String value) {
+        return value != null && !value.isBlank() ? value : "N/A";
+    }
+}
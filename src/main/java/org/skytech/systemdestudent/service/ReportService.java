@@ -0,0 +1,163 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.GradeDistribution;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.model.TermSummary;
+import org.skytech.systemdestudent.repository.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the plain-text reports shown on the Reports tab.
+ */
+@Service
+public class ReportService {
+
+    private final EnrollmentService enrollmentService;
+    private final GradeService gradeService;
+    private final Transactions transactions;
+
+    @Autowired
+    public ReportService(EnrollmentService enrollmentService, GradeService gradeService,
+                         Transactions transactions) {
+        this.enrollmentService = enrollmentService;
+        this.gradeService = gradeService;
+        this.transactions = transactions;
+    }
+
+    /**
+     * Reads the enrollments and the academic summary in one read-only unit
+     * of work, so the rows and the totals agree.
+     */
+    public String generateTranscript(Student student) throws SQLException {
+        return transactions.readOnly(() -> buildTranscript(student,
+                enrollmentService.getEnrollmentsByStudent(student.getId()),
+                gradeService.getAcademicSummary(student.getId())));
+    }
+
+    /**
+     * Semester or academic year may be null or blank for no filter.
+     */
+    public String generateSummary(String semester, String academicYear) throws SQLException {
+        return buildSummary(semester, academicYear,
+                enrollmentService.gradeDistribution(semester, academicYear));
+    }
+
+    /**
+     * Lays out a transcript from the student's enrollments and academic
+     * summary. The totals, GPA and semester breakdown come from the summary
+     * as maintained, not from adding up the rows.
+     */
+    public String buildTranscript(Student student, List<Enrollment> enrollments, AcademicSummary summary) {
+        StringBuilder transcript = new StringBuilder(1024 + enrollments.size() * 80);
+        transcript.append("═══════════════════════════════════════════════════════\n");
+        transcript.append("                 STUDENT TRANSCRIPT\n");
+        transcript.append("═══════════════════════════════════════════════════════\n\n");
+
+        transcript.append("Student Information:\n");
+        transcript.append("───────────────────────────────────────────────────────\n");
+        transcript.append("Registration No: ").append(student.getRegistrationNumber()).append('\n');
+        transcript.append("Name: ").append(student.getFullName()).append('\n');
+        transcript.append("Department: ").append(orNa(student.getDepartment())).append('\n');
+        transcript.append("Email: ").append(orNa(student.getEmail())).append('\n');
+        transcript.append("Enrollment Date: ").append(student.getEnrollmentDate()).append("\n\n");
+
+        transcript.append("Academic Records:\n");
+        transcript.append("═══════════════════════════════════════════════════════\n");
+        transcript.append(String.format("%-12s %-30s %-8s %-10s %-8s\n",
+                "Course Code", "Course Title", "Credits", "Semester", "Grade"));
+        transcript.append("───────────────────────────────────────────────────────\n");
+
+        // One row per enrollment, so pad by hand rather than parse a format string each time
+        for (Enrollment enrollment : enrollments) {
+            String title = enrollment.getCourseTitle();
+            pad(transcript, enrollment.getCourseCode(), 12).append(' ');
+            pad(transcript, title.length() > 30 ? title.substring(0, 27) + "..." : title, 30).append(' ');
+            pad(transcript, Integer.toString(enrollment.getCourseCredits()), 8).append(' ');
+            pad(transcript, orNa(enrollment.getSemester()), 10).append(' ');
+            pad(transcript, enrollment.getGrade() != null ? enrollment.getGrade() : "In Progress", 8).append('\n');
+        }
+
+        transcript.append("───────────────────────────────────────────────────────\n");
+        transcript.append("Total Courses: ").append(summary.getTotalCourses()).append('\n');
+        transcript.append("Total Credits: ").append(summary.getTotalCredits()).append('\n');
+        transcript.append("Graded Credits: ").append(summary.getGradedCredits()).append('\n');
+        transcript.append("GPA: ").append(gpa(summary.getGpa())).append('\n');
+
+        if (!summary.getTerms().isEmpty()) {
+            transcript.append("\nSemester Breakdown:\n");
+            transcript.append("───────────────────────────────────────────────────────\n");
+            transcript.append(String.format("%-12s %-10s %-8s %-8s %-6s\n",
+                    "Year", "Semester", "Courses", "Credits", "GPA"));
+            for (TermSummary term : summary.getTerms()) {
+                pad(transcript, orNa(term.getAcademicYear()), 12).append(' ');
+                pad(transcript, orNa(term.getSemester()), 10).append(' ');
+                pad(transcript, Integer.toString(term.getTotalCourses()), 8).append(' ');
+                pad(transcript, Integer.toString(term.getTotalCredits()), 8).append(' ');
+                transcript.append(gpa(term.getGpa())).append('\n');
+            }
+        }
+
+        transcript.append("═══════════════════════════════════════════════════════\n");
+        transcript.append("\nGenerated on: ").append(LocalDate.now()).append('\n');
+
+        return transcript.toString();
+    }
+
+    public String buildSummary(String semester, String academicYear, GradeDistribution distribution) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("═══════════════════════════════════════════════════════\n");
+        summary.append("             ENROLLMENT SUMMARY REPORT\n");
+        summary.append("═══════════════════════════════════════════════════════\n\n");
+
+        if (semester != null && !semester.isBlank()) {
+            summary.append(String.format("Semester: %s\n", semester));
+        }
+        if (academicYear != null && !academicYear.isBlank()) {
+            summary.append(String.format("Academic Year: %s\n", academicYear));
+        }
+        summary.append(String.format("Report Date: %s\n\n", LocalDate.now()));
+
+        summary.append("Summary Statistics:\n");
+        summary.append("───────────────────────────────────────────────────────\n");
+        summary.append(String.format("Total Enrollments: %d\n", distribution.getTotalEnrollments()));
+        summary.append(String.format("Enrollments with Grades: %d\n", distribution.getGradedEnrollments()));
+        summary.append(String.format("Enrollments In Progress: %d\n\n",
+                distribution.getInProgressEnrollments()));
+
+        summary.append("Grade Distribution:\n");
+        summary.append("───────────────────────────────────────────────────────\n");
+
+        for (Map.Entry<String, Long> entry : distribution.getGradeCounts().entrySet()) {
+            summary.append(String.format("Grade %s: %d\n", entry.getKey(), entry.getValue()));
+        }
+
+        summary.append("\n═══════════════════════════════════════════════════════\n");
+
+        return summary.toString();
+    }
+
+    private static StringBuilder pad(StringBuilder out, String value, int width) {
+        out.append(value);
+        for (int i = value.length(); i < width; i++) {
+            out.append(' ');
+        }
+        return out;
+    }
+
+    private static String gpa(BigDecimal value) {
+        return value != null ? value.toPlainString() : "N/A";
+    }
+
+    private static String orNa(String value) {
+        return value != null ? value : "N/A";
+    }
+}
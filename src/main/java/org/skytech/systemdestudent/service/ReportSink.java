@@ -0,0 +1,43 @@
+package org.skytech.systemdestudent.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives a report as it is produced: a title block, then one or more
+ * tables whose rows arrive one at a time, with optional note lines between
+ * them. Implementations write each call straight to their output, so a
+ * report of any length is written in constant memory.
+ */
+public interface ReportSink extends Closeable {
+
+    /**
+     * A table column. width is in characters for fixed-width layouts and
+     * sets the column width in spreadsheets.
+     */
+    record Column(String header, int width, boolean numeric) {
+
+        public static Column text(String header, int width) {
+            return new Column(header, width, false);
+        }
+
+        public static Column number(String header, int width) {
+            return new Column(header, width, true);
+        }
+    }
+
+    void title(String title, List<String> details) throws IOException;
+
+    /**
+     * Starts a table; the rows that follow belong to it.
+     */
+    void table(String name, List<Column> columns) throws IOException;
+
+    /**
+     * One row of the current table. Values are strings, numbers, dates or null.
+     */
+    void row(Object... values) throws IOException;
+
+    void notes(List<String> lines) throws IOException;
+}
@@ -0,0 +1,461 @@
+package org.skytech.systemdestudent.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over the entities a view has loaded. Field values are
+ * indexed by word prefix and by trigram, so a keystroke costs a few posting
+ * list intersections instead of a scan over every row.
+ *
+ * <p>A query is a list of whitespace-separated terms that must all match. Terms
+ * of one or two characters match the start of a word, punctuation included,
+ * so "b+" finds the grade B+; longer terms match anywhere in the value.
+ * {@code field:term} restricts a term to one field. Matching ignores case and
+ * accents.
+ *
+ * <p>Not thread-safe; the views use it from the FX thread.
+ */
+public final class SearchIndex<T> {
+
+    private static final int GRAM = 3;
+    // Removed slots are reclaimed once they outnumber the live ones
+    private static final int MIN_COMPACT_SLOTS = 1024;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Function<T, Long> idOf;
+    private final List<String> fieldNames = new ArrayList<>();
+    private final List<Function<T, String>> fieldValues = new ArrayList<>();
+
+    // Slots only grow until compaction, which keeps every posting list sorted
+    // and lets stale entries be skipped through the live set
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<T, Integer> slotByItem = new IdentityHashMap<>();
+    private final BitSet live = new BitSet();
+    private Object[] items = new Object[64];
+    private String[][] values = new String[64][];
+    private String[] joined = new String[64];
+    private int slotCount;
+
+    // Word prefixes shorter than a trigram, and trigrams of whole values
+    private final Map<String, IntList> prefixes = new HashMap<>();
+    private final Map<String, IntList> grams = new HashMap<>();
+    private int version;
+
+    // The previous result, narrowed instead of recomputed while the user keeps typing
+    private List<Term> lastTerms;
+    private BitSet lastBits;
+    private int lastVersion = -1;
+
+    public SearchIndex(Function<T, Long> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Declares a searchable field. The name is what a {@code name:term} query
+     * refers to; fields must be declared before any item is added.
+     */
+    public SearchIndex<T> field(String name, Function<T, String> value) {
+        if (slotCount > 0) {
+            throw new IllegalStateException("Fields must be declared before items are added");
+        }
+        fieldNames.add(name.toLowerCase(Locale.ROOT));
+        fieldValues.add(value);
+        return this;
+    }
+
+    public int size() {
+        return slotById.size();
+    }
+
+    public void clear() {
+        slotById.clear();
+        slotByItem.clear();
+        live.clear();
+        Arrays.fill(items, 0, slotCount, null);
+        Arrays.fill(values, 0, slotCount, null);
+        Arrays.fill(joined, 0, slotCount, null);
+        slotCount = 0;
+        prefixes.clear();
+        grams.clear();
+        version++;
+    }
+
+    public void setAll(Collection<? extends T> all) {
+        clear();
+        for (T item : all) {
+            put(item);
+        }
+    }
+
+    /**
+     * Adds an item, replacing any indexed item with the same id.
+     */
+    public void put(T item) {
+        Long id = idOf.apply(item);
+        removeById(id);
+
+        int slot = slotCount++;
+        if (slot == items.length) {
+            items = Arrays.copyOf(items, slot * 2);
+            values = Arrays.copyOf(values, slot * 2);
+            joined = Arrays.copyOf(joined, slot * 2);
+        }
+
+        String[] normalized = new String[fieldValues.size()];
+        for (int f = 0; f < normalized.length; f++) {
+            String value = normalize(fieldValues.get(f).apply(item));
+            normalized[f] = value;
+            indexWordPrefixes(value, slot);
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                if (!hasSpace(value, i, i + GRAM)) {
+                    addPosting(grams, value.substring(i, i + GRAM), slot);
+                }
+            }
+        }
+
+        items[slot] = item;
+        values[slot] = normalized;
+        // Terms never contain whitespace, so a newline cannot join two fields into a match
+        joined[slot] = String.join("\n", normalized);
+        live.set(slot);
+        slotById.put(id, slot);
+        slotByItem.put(item, slot);
+        version++;
+    }
+
+    public boolean remove(T item) {
+        return removeById(idOf.apply(item));
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean removeById(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        slotByItem.remove((T) items[slot]);
+        items[slot] = null;
+        values[slot] = null;
+        joined[slot] = null;
+        live.clear(slot);
+        version++;
+
+        if (slotCount - slotById.size() > Math.max(MIN_COMPACT_SLOTS, slotById.size())) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Runs a query. A blank query matches everything. The result is valid until
+     * the index changes; search again after any put or remove.
+     */
+    public Matches<T> search(String query) {
+        List<Term> terms = parse(query);
+        if (terms.isEmpty()) {
+            rememberLast(terms, null);
+            return new Matches<>(this, null);
+        }
+
+        BitSet result = lastVersion == version && lastBits != null && refines(terms, lastTerms)
+                ? lastBits
+                : null;
+        for (Term term : terms) {
+            result = term.text().length() < GRAM ? matchWordPrefix(term, result) : matchSubstring(term, result);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+
+        rememberLast(terms, result);
+        return new Matches<>(this, result);
+    }
+
+    private BitSet matchWordPrefix(Term term, BitSet within) {
+        BitSet bits = new BitSet(slotCount);
+        IntList slots = prefixes.get(term.text());
+        if (slots == null) {
+            return bits;
+        }
+        for (int i = 0; i < slots.size; i++) {
+            bits.set(slots.slots[i]);
+        }
+        bits.and(within != null ? within : live);
+
+        if (term.field() >= 0) {
+            for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                if (!hasWordPrefix(values[slot][term.field()], term.text())) {
+                    bits.clear(slot);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private BitSet matchSubstring(Term term, BitSet within) {
+        String text = term.text();
+        IntList[] postings = new IntList[text.length() - GRAM + 1];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = grams.get(text.substring(i, i + GRAM));
+            if (postings[i] == null) {
+                return new BitSet();
+            }
+        }
+        Arrays.sort(postings, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Rarest trigram first; every other one must occur too
+        int[] candidates = Arrays.copyOf(postings[0].slots, postings[0].size);
+        int count = candidates.length;
+        for (int p = 1; p < postings.length && count > 0; p++) {
+            count = postings[p].retainAll(candidates, count);
+        }
+
+        // One trigram is an exact answer; longer terms need the trigrams in sequence
+        boolean verify = postings.length > 1 || term.field() >= 0;
+        BitSet bits = new BitSet(slotCount);
+        BitSet allowed = within != null ? within : live;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates[i];
+            if (allowed.get(slot) && (!verify || contains(slot, term))) {
+                bits.set(slot);
+            }
+        }
+        return bits;
+    }
+
+    private boolean contains(int slot, Term term) {
+        return term.field() >= 0
+                ? values[slot][term.field()].contains(term.text())
+                : joined[slot].contains(term.text());
+    }
+
+    private void indexWordPrefixes(String value, int slot) {
+        for (int start = 0; start < value.length(); start++) {
+            if (!isWordStart(value, start)) {
+                continue;
+            }
+            for (int end = start + 1; end < start + GRAM && end <= value.length(); end++) {
+                if (Character.isWhitespace(value.charAt(end - 1))) {
+                    break;
+                }
+                addPosting(prefixes, value.substring(start, end), slot);
+            }
+        }
+    }
+
+    private static void addPosting(Map<String, IntList> index, String key, int slot) {
+        IntList slots = index.get(key);
+        if (slots == null) {
+            slots = new IntList();
+            index.put(key, slots);
+        }
+        slots.addOnce(slot);
+    }
+
+    private static boolean hasSpace(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasWordPrefix(String value, String prefix) {
+        for (int i = value.indexOf(prefix); i >= 0; i = value.indexOf(prefix, i + 1)) {
+            if (isWordStart(value, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A word starts at the beginning of a value and after any character that
+     * is not a letter or digit. A word runs to the next whitespace, so short
+     * terms with punctuation such as A- and B+ are word prefixes too.
+     */
+    private static boolean isWordStart(String value, int i) {
+        return i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1));
+    }
+
+    /**
+     * Whether every result of terms is also a result of previous, i.e. the user
+     * only extended terms or added new ones.
+     */
+    private static boolean refines(List<Term> terms, List<Term> previous) {
+        if (previous == null || previous.size() > terms.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            Term before = previous.get(i);
+            Term now = terms.get(i);
+            // A short term matches word starts only, a longer one anywhere
+            if (before.field() != now.field()
+                    || !now.text().startsWith(before.text())
+                    || (before.text().length() < GRAM && now.text().length() >= GRAM)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rememberLast(List<Term> terms, BitSet bits) {
+        lastTerms = terms;
+        lastBits = bits;
+        lastVersion = version;
+    }
+
+    private List<Term> parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        for (String token : normalize(query).split("\\s+")) {
+            String text = token;
+            int field = -1;
+            int colon = token.indexOf(':');
+            if (colon > 0) {
+                int named = fieldNames.indexOf(token.substring(0, colon));
+                if (named >= 0) {
+                    field = named;
+                    text = token.substring(colon + 1);
+                }
+            }
+            if (!text.isEmpty()) {
+                terms.add(new Term(field, text));
+            }
+        }
+        return terms;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        List<T> remaining = new ArrayList<>(slotById.size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            remaining.add((T) items[slot]);
+        }
+        setAll(remaining);
+    }
+
+    static String normalize(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < value.length() && ascii; i++) {
+            ascii = value.charAt(i) < 128;
+        }
+        String plain = ascii ? value : MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return plain.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private record Term(int field, String text) {
+    }
+
+    /**
+     * The items matching a query, as a predicate for a FilteredList. Only the
+     * indexed instances match, not other objects with the same id.
+     */
+    public static final class Matches<T> implements Predicate<T> {
+
+        private final SearchIndex<T> index;
+        private final BitSet bits;
+        // FilteredList tests items in list order, which is usually slot order
+        private int nextSlot;
+
+        private Matches(SearchIndex<T> index, BitSet bits) {
+            this.index = index;
+            this.bits = bits;
+        }
+
+        /**
+         * Whether the query was blank, so every item matches.
+         */
+        public boolean matchesAll() {
+            return bits == null;
+        }
+
+        public int size() {
+            return bits == null ? index.size() : bits.cardinality();
+        }
+
+        @Override
+        public boolean test(T item) {
+            if (bits == null) {
+                return true;
+            }
+            int slot = nextSlot;
+            if (slot >= index.slotCount || index.items[slot] != item) {
+                Integer found = index.slotByItem.get(item);
+                if (found == null) {
+                    return false;
+                }
+                slot = found;
+            }
+            nextSlot = slot + 1;
+            return bits.get(slot);
+        }
+    }
+
+    /**
+     * Ascending slots, since an item's postings are added right after it gets
+     * the newest slot.
+     */
+    private static final class IntList {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void addOnce(int slot) {
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        /**
+         * Keeps the first count candidates that are also in this list, in place,
+         * and returns how many remain.
+         */
+        int retainAll(int[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            if (size < count * 8) {
+                // Similar sizes: merge
+                for (int c = 0; c < count && from < size; c++) {
+                    while (from < size && slots[from] < candidates[c]) {
+                        from++;
+                    }
+                    if (from < size && slots[from] == candidates[c]) {
+                        candidates[kept++] = candidates[c];
+                        from++;
+                    }
+                }
+                return kept;
+            }
+            for (int c = 0; c < count && from < size; c++) {
+                int found = Arrays.binarySearch(slots, from, size, candidates[c]);
+                if (found >= 0) {
+                    candidates[kept++] = candidates[c];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
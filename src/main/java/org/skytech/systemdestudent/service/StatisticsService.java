@@ -0,0 +1,132 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.model.DashboardStatistics;
+import org.skytech.systemdestudent.repository.CourseRepository;
+import org.skytech.systemdestudent.repository.EnrollmentRepository;
+import org.skytech.systemdestudent.repository.StudentRepository;
+import org.skytech.systemdestudent.repository.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counts computed with COUNT/GROUP BY queries and cached for a
+ * short time, so repeated refreshes do not hit the database. The services
+ * that change students, courses, enrollments or grades invalidate the cache.
+ */
+@Service
+public class StatisticsService {
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final Transactions transactions;
+    private final long ttlNanos;
+
+    private volatile DashboardStatistics cached;
+    private volatile long cachedAt;
+    // Bumped on every invalidation, so a computation that overlapped one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public StatisticsService(StudentRepository studentRepository,
+                             CourseRepository courseRepository,
+                             EnrollmentRepository enrollmentRepository,
+                             Transactions transactions,
+                             @Value("${app.statistics.cache-ttl-seconds:15}") long ttlSeconds) {
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactions = transactions;
+        this.ttlNanos = Math.max(0, ttlSeconds) * 1_000_000_000L;
+    }
+
+    /**
+     * Returns the cached statistics if they are younger than the TTL,
+     * otherwise recomputes them.
+     */
+    public DashboardStatistics getStatistics() throws SQLException {
+        DashboardStatistics current = cached;
+        if (current != null && System.nanoTime() - cachedAt < ttlNanos) {
+            return current;
+        }
+        return recompute();
+    }
+
+    /**
+     * Recomputes the statistics regardless of their age, for an explicit
+     * refresh by the user.
+     */
+    public DashboardStatistics refresh() throws SQLException {
+        dropCached();
+        return recompute();
+    }
+
+    /**
+     * Drops the cached statistics; the next call to getStatistics hits the
+     * database. Inside a unit of work they are dropped again when it ends,
+     * since statistics computed before the commit miss its changes.
+     */
+    public void invalidate() {
+        dropCached();
+        if (transactions.isActive()) {
+            transactions.afterCompletion(this::dropCached);
+        }
+    }
+
+    private void dropCached() {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    private synchronized DashboardStatistics recompute() throws SQLException {
+        // Another caller may have refreshed while we waited for the lock
+        DashboardStatistics current = cached;
+        if (current != null && System.nanoTime() - cachedAt < ttlNanos) {
+            return current;
+        }
+
+        // One read-only snapshot, so the counts agree with each other
+        long started = generation.get();
+        DashboardStatistics statistics = transactions.readOnly(this::load);
+        if (generation.get() == started) {
+            cached = statistics;
+            cachedAt = System.nanoTime();
+        }
+        return statistics;
+    }
+
+    private DashboardStatistics load() throws SQLException {
+        Map<String, Long> byDepartment = new LinkedHashMap<>();
+        long totalStudents = 0;
+        for (Map.Entry<String, Long> entry : studentRepository.countByDepartment().entrySet()) {
+            String department = entry.getKey();
+            totalStudents += entry.getValue();
+            byDepartment.merge(department == null || department.isBlank() ? "Unassigned" : department,
+                    entry.getValue(), Long::sum);
+        }
+
+        // Grade counts give both the total and the graded share in one query
+        Map<String, Long> byGrade = enrollmentRepository.countByGrade(null, null);
+        long totalEnrollments = 0;
+        for (long count : byGrade.values()) {
+            totalEnrollments += count;
+        }
+        long ungraded = byGrade.getOrDefault(null, 0L);
+
+        return new DashboardStatistics(
+                totalStudents,
+                courseRepository.count(),
+                totalEnrollments,
+                totalEnrollments - ungraded,
+                byDepartment,
+                enrollmentRepository.countByTerm(),
+                LocalDateTime.now());
+    }
+}
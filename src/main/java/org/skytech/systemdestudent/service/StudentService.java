@@ -1,22 +1,38 @@
 package org.skytech.systemdestudent.service;
 
 import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.BatchResult;
+import org.skytech.systemdestudent.repository.ChangeSet;
+import org.skytech.systemdestudent.repository.Page;
+import org.skytech.systemdestudent.repository.SearchMode;
 import org.skytech.systemdestudent.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class StudentService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final StudentRepository repository;
+    private final StatisticsService statisticsService;
+    private final SearchMode searchMode;
 
     @Autowired
-    public StudentService(StudentRepository repository) {
+    public StudentService(StudentRepository repository,
+                          StatisticsService statisticsService,
+                          @Value("${app.search.mode:FULLTEXT}") SearchMode searchMode) {
         this.repository = repository;
+        this.statisticsService = statisticsService;
+        this.searchMode = searchMode;
     }
 
     public Student saveStudent(Student student) throws SQLException {
@@ -33,7 +49,26 @@ public class StudentService {
             }
         }
 
-        return repository.save(student);
+        Student saved = repository.save(student);
+        statisticsService.invalidate();
+        return saved;
+    }
+
+    /**
+     * Bulk insert for new students. Rows failing validation or a database
+     * constraint are reported by input index; the remaining rows are saved.
+     */
+    public BatchResult<Student> saveStudents(Collection<Student> students) throws SQLException {
+        return BatchResult.insertValid(students, student -> {
+            validateStudent(student);
+            if (student.getId() != null) {
+                throw new IllegalArgumentException("Student already has an ID; use saveStudent to update");
+            }
+        }, valid -> {
+            BatchResult<Student> saved = repository.saveAll(valid);
+            statisticsService.invalidate();
+            return saved;
+        });
     }
 
     public Optional<Student> findStudentById(Long id) throws SQLException {
@@ -50,10 +85,72 @@ public class StudentService {
         return repository.findByRegistrationNumber(regNo);
     }
 
+    /**
+     * Ids of the registration numbers that already exist, keyed
+     * case-insensitively.
+     */
+    public Map<String, Long> findIdsByRegistrationNumbers(Collection<String> regNos) throws SQLException {
+        return repository.findIdsByRegistrationNumbers(regNos);
+    }
+
     public List<Student> getAllStudents() throws SQLException {
         return repository.findAll();
     }
 
+    /**
+     * Students of a department and/or cohort (enrollment year), by
+     * registration number. Null or blank department and null year mean no
+     * filter on that part.
+     */
+    public List<Student> getStudentsInCohort(String department, Integer enrollmentYear) throws SQLException {
+        return repository.findByCohort(department == null || department.isBlank() ? null : department.trim(),
+                enrollmentYear);
+    }
+
+    public Page<Student> getStudentPage(String cursor, int size) throws SQLException {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return repository.page(cursor, size);
+    }
+
+    /**
+     * The best limit matches for the query across name, email and department, for
+     * finding a student without loading the whole table.
+     */
+    public List<Student> search(String query, int limit) throws SQLException {
+        return searchStudents(query, null, limit).items();
+    }
+
+    /**
+     * Ranked search results a page at a time; the cursor comes from the
+     * previous page.
+     */
+    public Page<Student> searchStudents(String query, String cursor, int size) throws SQLException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return repository.search(query, searchMode, cursor, size);
+    }
+
+    public LocalDateTime getSyncPoint() throws SQLException {
+        return repository.syncPoint();
+    }
+
+    /**
+     * Students added, changed or deleted since the given sync point, for patching
+     * an already loaded list instead of reloading it.
+     */
+    public ChangeSet<Student> getStudentChanges(LocalDateTime since) throws SQLException {
+        if (since == null) {
+            throw new IllegalArgumentException("Sync point is required");
+        }
+        return repository.findChangedSince(since);
+    }
+
     public void deleteStudent(Long id) throws SQLException {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid student ID");
@@ -65,9 +162,14 @@ public class StudentService {
         }
 
         repository.deleteById(id);
+        statisticsService.invalidate();
     }
 
-    private void validateStudent(Student student) {
+    /**
+     * Checks the fields a student needs before it can be saved, throwing
+     * IllegalArgumentException with the first problem found.
+     */
+    public void validateStudent(Student student) {
         if (student == null) {
             throw new IllegalArgumentException("Student cannot be null");
         }
@@ -0,0 +1,258 @@
+package org.skytech.systemdestudent.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the rows of a CSV file or the first sheet of an XLSX workbook
+ * without loading the file. Cells are strings; spreadsheet dates come out
+ * as ISO dates (yyyy-MM-dd) whatever their display format.
+ */
+final class TabularReader {
+
+    /**
+     * Receives each row, the header included. rowNumber is the 1-based line
+     * or sheet row the row starts on. Returning false stops reading.
+     */
+    @FunctionalInterface
+    interface RowHandler {
+        boolean row(long rowNumber, String[] cells);
+    }
+
+    private final Path file;
+    private final long fileSize;
+    private volatile long bytesRead;
+
+    TabularReader(Path file) throws IOException {
+        this.file = file;
+        this.fileSize = Files.size(file);
+    }
+
+    static boolean isSupported(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".xlsx");
+    }
+
+    /**
+     * Share of a CSV file read so far, or -1 for a workbook, whose sheet is
+     * read from inside the compressed package.
+     */
+    double fractionRead() {
+        return isWorkbook() || fileSize == 0 ? -1 : Math.min(1.0, (double) bytesRead / fileSize);
+    }
+
+    void read(RowHandler handler) throws IOException {
+        if (isWorkbook()) {
+            readWorkbook(handler);
+        } else {
+            readCsv(handler);
+        }
+    }
+
+    private boolean isWorkbook() {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+
+    // RFC 4180: quoted fields may hold separators, doubled quotes and line breaks
+    private void readCsv(RowHandler handler) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new CountingStream(Files.newInputStream(file)), StandardCharsets.UTF_8), 1 << 16)) {
+
+            reader.mark(1);
+            if (reader.read() != '﻿') {
+                reader.reset();
+            }
+
+            char separator = 0;
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean rowStarted = false;
+            long lineNumber = 0;
+            long rowNumber = 1;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!rowStarted) {
+                    rowNumber = lineNumber;
+                }
+                if (separator == 0) {
+                    separator = count(line, ';') > count(line, ',') ? ';' : ',';
+                }
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c != '"') {
+                            cell.append(c);
+                        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            cell.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == separator) {
+                        cells.add(cell.toString());
+                        cell.setLength(0);
+                    } else {
+                        cell.append(c);
+                    }
+                }
+                rowStarted = true;
+
+                if (quoted) {
+                    cell.append('\n');
+                    continue;
+                }
+
+                cells.add(cell.toString());
+                cell.setLength(0);
+                boolean blank = cells.size() == 1 && cells.get(0).isBlank();
+                if (!blank && !handler.row(rowNumber, cells.toArray(new String[0]))) {
+                    return;
+                }
+                cells.clear();
+                rowStarted = false;
+            }
+
+            if (rowStarted) {
+                cells.add(cell.toString());
+                handler.row(rowNumber, cells.toArray(new String[0]));
+            }
+        }
+    }
+
+    private void readWorkbook(RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                        new SheetRows(handler), new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            } catch (StopReading e) {
+                // The handler asked to stop
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Cannot read workbook " + file.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int count(String line, char c) {
+        int n = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Collects the cells of each sheet row; the event model skips empty cells,
+     * so they are placed by column.
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!cells.isEmpty() && !handler.row(rowNum + 1L, cells.toArray(new String[0]))) {
+                throw new StopReading();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+    }
+
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+
+    private static final class StopReading extends RuntimeException {
+        StopReading() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final class CountingStream extends FilterInputStream {
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                bytesRead += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.skytech.systemdestudent.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lays a report out as fixed-width text and hands it over a page at a time,
+ * for PDF export and printing. Only the current page is held; a table that
+ * runs onto a new page repeats its column headers there.
+ */
+public final class TextPageSink implements ReportSink {
+
+    @FunctionalInterface
+    public interface PageHandler {
+        /**
+         * Receives a full page; number counts from 1.
+         */
+        void page(int number, List<String> lines) throws IOException;
+    }
+
+    // Blank line and page number at the foot of each page
+    private static final int FOOTER_LINES = 2;
+
+    private final int width;
+    private final int bodyLines;
+    private final PageHandler handler;
+
+    private final List<String> page = new ArrayList<>();
+    private final StringBuilder line = new StringBuilder();
+    private List<Column> columns = List.of();
+    private List<String> tableHeader = List.of();
+    private int pageNumber;
+
+    public TextPageSink(int width, int linesPerPage, PageHandler handler) {
+        if (width < 20 || linesPerPage < FOOTER_LINES + 10) {
+            throw new IllegalArgumentException("Page is too small for a report");
+        }
+        this.width = width;
+        this.bodyLines = linesPerPage - FOOTER_LINES;
+        this.handler = handler;
+    }
+
+    @Override
+    public void title(String title, List<String> details) throws IOException {
+        add(title.toUpperCase(Locale.ROOT));
+        add("=".repeat(width));
+        for (String detail : details) {
+            add(detail);
+        }
+    }
+
+    @Override
+    public void table(String name, List<Column> columns) throws IOException {
+        this.columns = columns;
+        this.tableHeader = List.of();
+
+        List<String> header = new ArrayList<>();
+        Object[] headers = new Object[columns.size()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = columns.get(i).header();
+        }
+        header.add(format(headers));
+        header.add("-".repeat(Math.min(width, tableWidth())));
+
+        // Keep the name and headers together with at least one row
+        if (page.size() + 4 > bodyLines) {
+            flushPage();
+        }
+        if (!page.isEmpty()) {
+            add("");
+        }
+        add(name);
+        for (String text : header) {
+            add(text);
+        }
+        this.tableHeader = header;
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        add(format(values));
+    }
+
+    @Override
+    public void notes(List<String> lines) throws IOException {
+        tableHeader = List.of();
+        add("");
+        for (String note : lines) {
+            add(note);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!page.isEmpty() || pageNumber == 0) {
+            flushPage();
+        }
+    }
+
+    private void add(String text) throws IOException {
+        if (page.size() == bodyLines) {
+            flushPage();
+            if (!tableHeader.isEmpty()) {
+                page.addAll(tableHeader);
+            }
+        }
+        page.add(text.length() > width ? text.substring(0, width) : text);
+    }
+
+    private void flushPage() throws IOException {
+        pageNumber++;
+        while (page.size() < bodyLines) {
+            page.add("");
+        }
+        page.add("");
+        String footer = "Page " + pageNumber;
+        page.add(" ".repeat(Math.max(0, width - footer.length())) + footer);
+        handler.page(pageNumber, List.copyOf(page));
+        page.clear();
+    }
+
+    private String format(Object[] values) {
+        line.setLength(0);
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            Object value = i < values.length ? values[i] : null;
+            String text = value == null ? "" : value.toString();
+            if (text.length() > column.width()) {
+                text = column.width() > 3 ? text.substring(0, column.width() - 3) + "..."
+                        : text.substring(0, column.width());
+            }
+
+            if (i > 0) {
+                line.append(' ');
+            }
+            int pad = column.width() - text.length();
+            if (column.numeric()) {
+                line.append(" ".repeat(pad)).append(text);
+            } else if (i < columns.size() - 1) {
+                line.append(text).append(" ".repeat(pad));
+            } else {
+                line.append(text);
+            }
+        }
+        return line.toString();
+    }
+
+    private int tableWidth() {
+        int total = columns.size() - 1;
+        for (Column column : columns) {
+            total += column.width();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,399 @@
+package org.skytech.systemdestudent.service;
+
+import org.skytech.systemdestudent.config.MetricsRegistry;
+import org.skytech.systemdestudent.model.AcademicSummary;
+import org.skytech.systemdestudent.model.Enrollment;
+import org.skytech.systemdestudent.model.Student;
+import org.skytech.systemdestudent.repository.EnrollmentFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the transcripts of every student in a department and/or cohort to
+ * a directory or a zip archive.
+ *
+ * The enrollments of all selected students are read with one streaming
+ * query ordered by student, so each student's rows arrive together and only
+ * the students being rendered are held in memory. Summaries are looked up a
+ * batch of students at a time, and transcripts are rendered on a bounded
+ * pool of app.reports.batch-threads threads; when the pool's queue is full
+ * the reading thread renders too, which keeps the query from running ahead.
+ */
+@Service
+public class TranscriptBatchExporter {
+
+    /**
+     * The students to write transcripts for. A null or blank department and
+     * a null cohort year (the year students enrolled) mean no filter.
+     */
+    public record Selection(String department, Integer cohortYear) {
+
+        public Selection {
+            department = department == null || department.isBlank() ? null : department.trim();
+        }
+
+        public String fileName() {
+            StringBuilder name = new StringBuilder("transcripts");
+            if (department != null) {
+                name.append('-').append(department.replaceAll("[^A-Za-z0-9._-]", "-"));
+            }
+            if (cohortYear != null) {
+                name.append('-').append(cohortYear);
+            }
+            return name.toString();
+        }
+    }
+
+    public enum Target {
+        DIRECTORY,
+        ZIP
+    }
+
+    /**
+     * Told how many transcripts are done every {@value #PROGRESS_INTERVAL}
+     * transcripts. Called from the rendering threads. A cancelled batch stops
+     * at the next transcript.
+     */
+    public interface Progress {
+        void transcriptsWritten(long done, long total);
+
+        boolean isCancelled();
+    }
+
+    public record Result(long transcripts, long enrollments, long bytes, Duration elapsed) {
+
+        public double transcriptsPerSecond() {
+            long millis = Math.max(1, elapsed.toMillis());
+            return transcripts * 1000.0 / millis;
+        }
+    }
+
+    private static final int PROGRESS_INTERVAL = 50;
+
+    // Students per summary lookup, and so per hand-off to the pool
+    private static final int SUMMARY_BATCH = 500;
+
+    private final StudentService studentService;
+    private final EnrollmentService enrollmentService;
+    private final GradeService gradeService;
+    private final MetricsRegistry metrics;
+    private final int threads;
+
+    @Autowired
+    public TranscriptBatchExporter(StudentService studentService,
+                                   EnrollmentService enrollmentService,
+                                   GradeService gradeService,
+                                   MetricsRegistry metrics,
+                                   @Value("${app.reports.batch-threads:0}") int threads) {
+        this.studentService = studentService;
+        this.enrollmentService = enrollmentService;
+        this.gradeService = gradeService;
+        this.metrics = metrics;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Writes one transcript per selected student, named like a single
+     * transcript export, into the directory or zip file at path. A zip is
+     * written to a temporary file and moved into place when complete; into a
+     * directory, a failed or cancelled batch leaves the transcripts already
+     * written. Students without enrollments get a transcript with no rows.
+     */
+    public Result export(Selection selection, ReportExporter.Format format, Target target, Path path,
+                         Progress progress) throws IOException, SQLException {
+        if (selection == null || format == null || target == null || path == null) {
+            throw new IllegalArgumentException("Selection, format, target and path are required");
+        }
+
+        long started = System.nanoTime();
+        Map<Long, Student> students = new LinkedHashMap<>();
+        for (Student student : studentService.getStudentsInCohort(selection.department(), selection.cohortYear())) {
+            students.put(student.getId(), student);
+        }
+        if (students.isEmpty()) {
+            throw new IllegalArgumentException("No students match the selection");
+        }
+
+        try (Output output = target == Target.ZIP ? new ZipOutput(path) : new DirectoryOutput(path)) {
+            Batch batch = new Batch(format, output, progress, students.size());
+            try {
+                batch.run(selection, students);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                batch.shutdown();
+            }
+            output.commit();
+
+            metrics.counter("transcripts.batch.written").add(batch.done.get());
+            return new Result(batch.done.get(), batch.enrollments, batch.bytes.get(),
+                    Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    private record Group(Student student, List<Enrollment> enrollments) {
+    }
+
+    /**
+     * One export run: groups the streamed rows by student and hands them to
+     * the pool a summary batch at a time.
+     */
+    private final class Batch {
+        private final ReportExporter.Format format;
+        private final Output output;
+        private final Progress progress;
+        private final long total;
+        private final ThreadPoolExecutor pool;
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final List<Group> pending = new ArrayList<>();
+        private long enrollments;
+
+        Batch(ReportExporter.Format format, Output output, Progress progress, long total) {
+            this.format = format;
+            this.output = output;
+            this.progress = progress;
+            this.total = total;
+            this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        void run(Selection selection, Map<Long, Student> students) throws IOException, SQLException {
+            progress.transcriptsWritten(0, total);
+            EnrollmentFilter filter = EnrollmentFilter.all()
+                    .inDepartment(selection.department())
+                    .inCohort(selection.cohortYear())
+                    .sortedBy(EnrollmentFilter.SortOrder.STUDENT);
+
+            Set<Long> seen = new HashSet<>();
+            Group current = null;
+            try (Stream<Enrollment> rows = enrollmentService.streamEnrollments(filter)) {
+                Iterator<Enrollment> it = rows.iterator();
+                while (it.hasNext()) {
+                    Enrollment enrollment = it.next();
+                    enrollments++;
+                    if (current == null || !current.student().getId().equals(enrollment.getStudentId())) {
+                        add(current);
+                        // A student added since the students were read is left out
+                        Student student = students.get(enrollment.getStudentId());
+                        current = student != null && seen.add(student.getId())
+                                ? new Group(student, new ArrayList<>())
+                                : null;
+                    }
+                    if (current != null) {
+                        current.enrollments().add(enrollment);
+                    }
+                }
+            }
+            add(current);
+
+            for (Student student : students.values()) {
+                if (seen.add(student.getId())) {
+                    add(new Group(student, List.of()));
+                }
+            }
+            dispatch();
+            awaitRendered();
+        }
+
+        private void add(Group group) throws SQLException {
+            if (group == null) {
+                return;
+            }
+            pending.add(group);
+            if (pending.size() >= SUMMARY_BATCH) {
+                dispatch();
+            }
+        }
+
+        private void dispatch() throws SQLException {
+            checkStopped();
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<Long> ids = new ArrayList<>(pending.size());
+            for (Group group : pending) {
+                ids.add(group.student().getId());
+            }
+            Map<Long, AcademicSummary> summaries = gradeService.getAcademicSummaries(ids);
+
+            for (Group group : pending) {
+                AcademicSummary summary = summaries.get(group.student().getId());
+                pool.execute(() -> renderQuietly(group, summary));
+            }
+            pending.clear();
+        }
+
+        private void renderQuietly(Group group, AcademicSummary summary) {
+            if (failure.get() != null || progress.isCancelled()) {
+                return;
+            }
+            try {
+                render(group, summary);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void render(Group group, AcademicSummary summary) throws IOException {
+            try (MetricsRegistry.Scope scope = metrics.start("TranscriptBatchExporter.render")) {
+                scope.rows(group.enrollments().size());
+                try {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+                    try (ReportSink sink = ReportExporter.open(format, content)) {
+                        ReportExporter.writeTranscript(group.student(), group.enrollments(), summary, sink);
+                    }
+                    output.write(new ReportExporter.Transcript(group.student()).fileName()
+                            + "." + format.extension(), content.toByteArray());
+                    bytes.addAndGet(content.size());
+                } catch (IOException | RuntimeException e) {
+                    scope.failed();
+                    throw e;
+                }
+            }
+
+            long count = done.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0) {
+                progress.transcriptsWritten(count, total);
+            }
+        }
+
+        private void awaitRendered() throws IOException {
+            pool.shutdown();
+            try {
+                while (!pool.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+                    if (progress.isCancelled()) {
+                        pool.shutdownNow();
+                    }
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Transcript batch interrupted");
+            }
+            checkStopped();
+            progress.transcriptsWritten(done.get(), total);
+        }
+
+        /**
+         * Stops the run at the first failed transcript or on cancellation.
+         */
+        private void checkStopped() {
+            if (progress.isCancelled()) {
+                throw new CancellationException("Transcript batch cancelled");
+            }
+            Throwable e = failure.get();
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+
+        void shutdown() {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Where rendered transcripts go. write is called from several threads.
+     */
+    private interface Output extends Closeable {
+        void write(String name, byte[] content) throws IOException;
+
+        void commit() throws IOException;
+    }
+
+    private static final class DirectoryOutput implements Output {
+        private final Path directory;
+
+        DirectoryOutput(Path directory) throws IOException {
+            this.directory = Files.createDirectories(directory.toAbsolutePath());
+        }
+
+        @Override
+        public void write(String name, byte[] content) throws IOException {
+            Files.write(directory.resolve(name), content);
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class ZipOutput implements Output {
+        private final Path target;
+        private final Path partial;
+        private final ZipOutputStream zip;
+        private boolean committed;
+
+        ZipOutput(Path file) throws IOException {
+            this.target = file.toAbsolutePath();
+            this.partial = Files.createTempFile(target.getParent(), ".export-", ".zip");
+            this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)));
+        }
+
+        @Override
+        public synchronized void write(String name, byte[] content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content);
+            zip.closeEntry();
+        }
+
+        @Override
+        public synchronized void commit() throws IOException {
+            zip.close();
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!committed) {
+                try {
+                    zip.close();
+                } finally {
+                    Files.deleteIfExists(partial);
+                }
+            }
+        }
+    }
+}
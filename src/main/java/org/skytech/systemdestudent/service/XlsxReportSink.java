@@ -0,0 +1,162 @@
+package org.skytech.systemdestudent.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes a report as an XLSX workbook with one sheet per table. Rows go
+ * through POI's streaming workbook, which keeps only a small window of rows
+ * in memory and flushes the rest to a compressed temporary file.
+ */
+final class XlsxReportSink implements ReportSink {
+
+    private static final int ROW_WINDOW = 100;
+    // Excel's row limit, header row excluded
+    private static final int MAX_ROWS = 1_048_575;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle titleStyle;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final Set<String> sheetNames = new HashSet<>();
+
+    private SXSSFSheet sheet;
+    private String tableName;
+    private List<Column> columns;
+    private int nextRow;
+    private int part;
+    private boolean sheetHasTable;
+
+    XlsxReportSink(OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+
+        Font large = workbook.createFont();
+        large.setBold(true);
+        large.setFontHeightInPoints((short) 14);
+        titleStyle = workbook.createCellStyle();
+        titleStyle.setFont(large);
+
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+    }
+
+    @Override
+    public void title(String title, List<String> details) {
+        startSheet("Report");
+        Cell cell = sheet.createRow(nextRow++).createCell(0);
+        cell.setCellValue(title);
+        cell.setCellStyle(titleStyle);
+        for (String detail : details) {
+            sheet.createRow(nextRow++).createCell(0).setCellValue(detail);
+        }
+    }
+
+    @Override
+    public void table(String name, List<Column> columns) {
+        this.tableName = name;
+        this.columns = columns;
+        this.part = 1;
+        // The first table goes under the title block; later ones get their own sheet
+        if (sheet == null || sheetHasTable) {
+            startSheet(name);
+        } else {
+            nextRow++;
+        }
+        writeHeader();
+    }
+
+    @Override
+    public void row(Object... values) {
+        if (nextRow > MAX_ROWS) {
+            startSheet(tableName + " (" + ++part + ")");
+            writeHeader();
+        }
+
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof LocalDate date) {
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void notes(List<String> lines) {
+        if (sheet == null) {
+            startSheet("Report");
+        }
+        nextRow++;
+        for (String note : lines) {
+            sheet.createRow(nextRow++).createCell(0).setCellValue(note);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet == null) {
+                startSheet("Report");
+            }
+            workbook.write(out);
+        } finally {
+            out.close();
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeHeader() {
+        Row header = sheet.createRow(nextRow++);
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            Cell cell = header.createCell(i);
+            cell.setCellValue(column.header());
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, Math.max(sheet.getColumnWidth(i), Math.min(255, column.width() + 2) * 256));
+        }
+        sheetHasTable = true;
+    }
+
+    private void startSheet(String name) {
+        String safe = WorkbookUtil.createSafeSheetName(name);
+        String unique = safe;
+        for (int n = 2; !sheetNames.add(unique.toLowerCase(Locale.ROOT)); n++) {
+            // Sheet names are limited to 31 characters, so the suffix replaces the end
+            unique = safe.substring(0, Math.min(safe.length(), 26)) + " " + n;
+        }
+        sheet = workbook.createSheet(unique);
+        nextRow = 0;
+        sheetHasTable = false;
+    }
+}
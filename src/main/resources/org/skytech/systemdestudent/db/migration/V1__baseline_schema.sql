@@ -0,0 +1,58 @@
+-- Baseline schema. Uses IF NOT EXISTS so databases created before
+-- migrations were introduced are adopted without changes.
+
+CREATE TABLE IF NOT EXISTS students (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    registration_number VARCHAR(50) UNIQUE NOT NULL,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    enrollment_date DATE NOT NULL,
+    email VARCHAR(100),
+    date_of_birth DATE,
+    department VARCHAR(100),
+    phone_number VARCHAR(20),
+    address TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS courses (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_code VARCHAR(20) UNIQUE NOT NULL,
+    course_title VARCHAR(200) NOT NULL,
+    credits INT NOT NULL,
+    course_description TEXT,
+    department VARCHAR(100),
+    prerequisites TEXT,
+    instructor VARCHAR(100),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS enrollments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    course_id BIGINT NOT NULL,
+    enrollment_date DATE NOT NULL,
+    grade VARCHAR(5),
+    semester VARCHAR(20),
+    academic_year VARCHAR(20),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_enrollment (student_id, course_id, semester, academic_year)
+);
+
+CREATE TABLE IF NOT EXISTS grades (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    enrollment_id BIGINT NOT NULL,
+    grade_value VARCHAR(5) NOT NULL,
+    grade_point DECIMAL(3,2),
+    remarks TEXT,
+    graded_date DATE,
+    graded_by VARCHAR(100),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (enrollment_id) REFERENCES enrollments(id) ON DELETE CASCADE
+);
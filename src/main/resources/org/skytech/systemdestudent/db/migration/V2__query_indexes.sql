@@ -0,0 +1,20 @@
+-- Secondary indexes for the repository and report queries.
+-- InnoDB appends the primary key to every secondary index, so (x, y)
+-- below also serves ORDER BY x, y, id and lookups that need the id.
+
+-- Course roster: WHERE course_id = ? joined to students by student_id
+CREATE INDEX idx_enrollments_course_student ON enrollments (course_id, student_id);
+
+-- Enrollment list and keyset pages: ORDER BY enrollment_date DESC, id DESC
+CREATE INDEX idx_enrollments_date ON enrollments (enrollment_date);
+
+-- Semester/year filters, grade summary (GROUP BY grade) and per-term counts
+CREATE INDEX idx_enrollments_term_grade ON enrollments (academic_year, semester, grade);
+CREATE INDEX idx_enrollments_semester_grade ON enrollments (semester, grade);
+
+-- Grade history for an enrollment, latest first: ORDER BY id DESC
+CREATE INDEX idx_grades_enrollment ON grades (enrollment_id, id);
+
+-- Per-department dashboard counts
+CREATE INDEX idx_students_department ON students (department);
+CREATE INDEX idx_courses_department ON courses (department);
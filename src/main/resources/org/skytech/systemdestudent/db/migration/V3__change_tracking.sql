@@ -0,0 +1,16 @@
+-- Change tracking for incremental table refresh. Clients remember the
+-- database time of their last sync and ask for rows with a newer updated_at;
+-- deleted rows leave a tombstone in deleted_rows.
+
+CREATE INDEX idx_students_updated_at ON students (updated_at);
+CREATE INDEX idx_courses_updated_at ON courses (updated_at);
+CREATE INDEX idx_enrollments_updated_at ON enrollments (updated_at);
+
+CREATE TABLE IF NOT EXISTS deleted_rows (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(30) NOT NULL,
+    row_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_deleted_rows_table_date ON deleted_rows (table_name, deleted_at);
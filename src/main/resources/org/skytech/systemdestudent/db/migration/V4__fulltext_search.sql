@@ -0,0 +1,8 @@
+-- FULLTEXT indexes behind the students' and courses' search methods.
+-- InnoDB splits values on non-word characters (so e-mail addresses are
+-- searchable by their parts) and skips words shorter than
+-- innodb_ft_min_token_size, 3 by default. Databases without FULLTEXT
+-- support skip these statements and search with LIKE instead.
+
+CREATE FULLTEXT INDEX ft_students_search ON students (first_name, last_name, email, department);
+CREATE FULLTEXT INDEX ft_courses_search ON courses (course_title, course_description, instructor);
@@ -0,0 +1,64 @@
+-- Course and credit counts alongside the grade totals, overall and per
+-- term, so a transcript's totals and semester breakdown are read from a
+-- handful of rows instead of summed over the student's enrollments.
+-- Enrollments without a semester or academic year are counted under ''.
+-- Every statement can be rerun after a partial failure: SchemaMigrator
+-- skips columns that already exist and the backfills overwrite their rows.
+-- INSERT ... SELECT takes no row alias, and H2 (benchmarks) reads VALUES().
+
+ALTER TABLE student_academic_summary
+    ADD COLUMN total_courses INT NOT NULL DEFAULT 0,
+    ADD COLUMN total_credits INT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS student_term_summary (
+    student_id BIGINT NOT NULL,
+    academic_year VARCHAR(20) NOT NULL DEFAULT '',
+    semester VARCHAR(20) NOT NULL DEFAULT '',
+    total_courses INT NOT NULL DEFAULT 0,
+    total_credits INT NOT NULL DEFAULT 0,
+    graded_credits INT NOT NULL DEFAULT 0,
+    quality_points DECIMAL(10,2) NOT NULL DEFAULT 0,
+    gpa DECIMAL(4,3),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (student_id, academic_year, semester),
+    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE
+);
+
+INSERT INTO student_academic_summary (student_id, total_courses, total_credits)
+SELECT e.student_id, COUNT(*), SUM(c.credits)
+FROM enrollments e
+JOIN courses c ON c.id = e.course_id
+GROUP BY e.student_id
+ON DUPLICATE KEY UPDATE
+    total_courses = VALUES(total_courses),
+    total_credits = VALUES(total_credits);
+
+-- Grade points as in GradeScale
+INSERT INTO student_term_summary (student_id, academic_year, semester, total_courses, total_credits,
+                                  graded_credits, quality_points, gpa)
+SELECT t.student_id, t.academic_year, t.semester, t.total_courses, t.total_credits,
+       t.graded_credits, t.quality_points,
+       IF(t.graded_credits > 0, ROUND(t.quality_points / t.graded_credits, 3), NULL)
+FROM (
+    SELECT e.student_id,
+           COALESCE(e.academic_year, '') AS academic_year,
+           COALESCE(e.semester, '') AS semester,
+           COUNT(*) AS total_courses,
+           SUM(c.credits) AS total_credits,
+           SUM(IF(TRIM(e.grade) IN ('A', 'A-', 'B+', 'B', 'B-', 'C+', 'C', 'C-', 'D+', 'D', 'D-', 'E', 'F'),
+                  c.credits, 0)) AS graded_credits,
+           SUM(c.credits * CASE TRIM(e.grade)
+               WHEN 'A' THEN 4.00 WHEN 'A-' THEN 3.70 WHEN 'B+' THEN 3.30
+               WHEN 'B' THEN 3.00 WHEN 'B-' THEN 2.70 WHEN 'C+' THEN 2.30
+               WHEN 'C' THEN 2.00 WHEN 'C-' THEN 1.70 WHEN 'D+' THEN 1.30
+               WHEN 'D' THEN 1.00 WHEN 'D-' THEN 0.70 ELSE 0.00 END) AS quality_points
+    FROM enrollments e
+    JOIN courses c ON c.id = e.course_id
+    GROUP BY e.student_id, COALESCE(e.academic_year, ''), COALESCE(e.semester, '')
+) t
+ON DUPLICATE KEY UPDATE
+    total_courses = VALUES(total_courses),
+    total_credits = VALUES(total_credits),
+    graded_credits = VALUES(graded_credits),
+    quality_points = VALUES(quality_points),
+    gpa = VALUES(gpa);
@@ -0,0 +1,9 @@
+-- Sorted enrollment pages: ORDER BY key, id with the keyset predicate
+-- (key, id) > (?, ?), and the rows without a key by id. Each index below
+-- serves both, so a page reads a short index range instead of sorting the
+-- table. Enrollment date is served by idx_enrollments_date, which InnoDB
+-- already extends with the id.
+
+CREATE INDEX idx_enrollments_semester_id ON enrollments (semester, id);
+CREATE INDEX idx_enrollments_year_id ON enrollments (academic_year, id);
+CREATE INDEX idx_enrollments_grade_id ON enrollments (grade, id);
@@ -0,0 +1,228 @@
+package org.skytech.systemdestudent.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.skytech.systemdestudent.config.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks with EXPLAIN that the hot repository queries use the indexes from
+ * the migrations. EXPLAIN output is MySQL's, so this needs a MySQL server:
+ *
+ *     mvn test -Dtest.mysql.url=jdbc:mysql://localhost:3306 \
+ *         -Dtest.mysql.user=root -Dtest.mysql.password=
+ *
+ * Without test.mysql.url the tests are skipped. A scratch database is
+ * created, migrated, seeded and dropped again.
+ */
+class QueryPlanTest {
+
+    private static final String MYSQL_URL = System.getProperty("test.mysql.url");
+    private static final String MYSQL_USER = System.getProperty("test.mysql.user", "root");
+    private static final String MYSQL_PASSWORD = System.getProperty("test.mysql.password", "");
+
+    private static final int STUDENTS = 2000;
+    private static final int COURSES = 40;
+    private static final int ENROLLMENTS_PER_STUDENT = 8;
+
+    private static String database;
+    private static Connection conn;
+
+    @BeforeAll
+    static void createDatabase() throws SQLException {
+        assumeTrue(MYSQL_URL != null, "Set -Dtest.mysql.url to check query plans against MySQL");
+
+        database = "srms_plan_" + System.currentTimeMillis();
+        executeOnServer("CREATE DATABASE " + database);
+        conn = DriverManager.getConnection(MYSQL_URL + "/" + database, MYSQL_USER, MYSQL_PASSWORD);
+        new SchemaMigrator(conn).migrate();
+        seed();
+    }
+
+    @AfterAll
+    static void dropDatabase() throws SQLException {
+        if (conn != null) {
+            conn.close();
+        }
+        if (database != null) {
+            executeOnServer("DROP DATABASE IF EXISTS " + database);
+        }
+    }
+
+    @Test
+    void studentByRegistrationNumberUsesUniqueKey() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, StudentRepository.FIND_BY_REG_NO_SQL, "S00000042");
+        assertUses(plan, "students", "registration_number");
+    }
+
+    @Test
+    void studentPagesReadRegistrationNumbersInIndexOrder() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, StudentRepository.NEXT_PAGE_SQL, "S00000100", 100);
+        assertUses(plan, "students", "registration_number");
+        assertFalse(plan.usesFilesort(), plan::toString);
+    }
+
+    @Test
+    void courseByCodeUsesUniqueKey() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, CourseRepository.FIND_BY_CODE_SQL, "C0007");
+        assertUses(plan, "courses", "course_code");
+    }
+
+    @Test
+    void coursePagesReadCourseCodesInIndexOrder() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, CourseRepository.NEXT_PAGE_SQL, "C0010", 100);
+        assertUses(plan, "courses", "course_code");
+        assertFalse(plan.usesFilesort(), plan::toString);
+    }
+
+    @Test
+    void studentEnrollmentsUseStudentIndex() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, EnrollmentRepository.FIND_BY_STUDENT_SQL, 42L);
+        assertUses(plan, "e", "unique_enrollment");
+    }
+
+    @Test
+    void courseRosterUsesCourseIndex() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, EnrollmentRepository.FIND_BY_COURSE_SQL, 7L);
+        assertUses(plan, "e", "idx_enrollments_course_student");
+    }
+
+    @Test
+    void gradeHistoryUsesEnrollmentIndex() throws SQLException {
+        QueryPlan plan = QueryPlan.explain(conn, GradeRepository.FIND_BY_ENROLLMENT_SQL, 42L);
+        assertUses(plan, "grades", "idx_grades_enrollment");
+    }
+
+    @Test
+    void sortedEnrollmentPagesReadKeyIndexInOrder() throws SQLException {
+        String[][] sorts = {
+                {"SEMESTER", "idx_enrollments_semester_id", "Spring"},
+                {"ACADEMIC_YEAR", "idx_enrollments_year_id", "2022/2023"},
+                {"GRADE", "idx_enrollments_grade_id", "B+"}
+        };
+        for (String[] sort : sorts) {
+            EnrollmentSort order = EnrollmentSort.valueOf(sort[0]);
+            for (boolean descending : new boolean[] {false, true}) {
+                QueryPlan after = QueryPlan.explain(conn,
+                        EnrollmentRepository.pageSql(order.keyed(descending, true), order.orderBy(descending)),
+                        sort[2], 5000L, 101);
+                assertUses(after, "e", sort[1]);
+                assertFalse(after.usesFilesort(), after::toString);
+
+                String byId = "e.id" + (descending ? " DESC" : "");
+                QueryPlan unkeyed = QueryPlan.explain(conn,
+                        EnrollmentRepository.pageSql(order.unkeyed(descending, true), byId), 5000L, 101);
+                assertUses(unkeyed, "e", sort[1]);
+                assertFalse(unkeyed.usesFilesort(), unkeyed::toString);
+            }
+        }
+    }
+
+    @Test
+    void enrollmentPagesByDateReadDateIndexInOrder() throws SQLException {
+        EnrollmentSort order = EnrollmentSort.ENROLLMENT_DATE;
+        QueryPlan plan = QueryPlan.explain(conn,
+                EnrollmentRepository.pageSql(order.keyed(true, true), order.orderBy(true)),
+                Date.valueOf(LocalDate.of(2022, 6, 1)), 5000L, 101);
+        assertUses(plan, "e", "idx_enrollments_date");
+        assertFalse(plan.usesFilesort(), plan::toString);
+    }
+
+    /**
+     * The table is read through one of the indexes and never scanned in full.
+     */
+    private static void assertUses(QueryPlan plan, String table, String... indexes) {
+        boolean used = false;
+        for (String index : indexes) {
+            used |= plan.usesIndex(table, index);
+        }
+        assertTrue(used, () -> table + " should use one of " + List.of(indexes) + ":\n" + plan);
+        assertFalse(plan.hasFullTableScan(), () -> "Full table scan:\n" + plan);
+    }
+
+    private static void seed() throws SQLException {
+        conn.setAutoCommit(false);
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO courses (course_code, course_title, credits, department)
+                VALUES (?, ?, ?, ?)
+            """)) {
+            for (int c = 0; c < COURSES; c++) {
+                pstmt.setString(1, String.format("C%04d", c));
+                pstmt.setString(2, "Course " + c);
+                pstmt.setInt(3, 1 + c % 4);
+                pstmt.setString(4, "Department " + c % 5);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO students (registration_number, first_name, last_name, enrollment_date, department)
+                VALUES (?, ?, ?, ?, ?)
+            """)) {
+            for (int s = 0; s < STUDENTS; s++) {
+                pstmt.setString(1, String.format("S%08d", s));
+                pstmt.setString(2, "First" + s);
+                pstmt.setString(3, "Last" + s % 300);
+                pstmt.setDate(4, Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(s % 1500)));
+                pstmt.setString(5, "Department " + s % 5);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO enrollments (student_id, course_id, enrollment_date, grade, semester, academic_year)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """)) {
+            for (int s = 0; s < STUDENTS; s++) {
+                for (int k = 0; k < ENROLLMENTS_PER_STUDENT; k++) {
+                    pstmt.setLong(1, s + 1);
+                    pstmt.setLong(2, (s * 7 + k * 3) % COURSES + 1);
+                    pstmt.setDate(3, Date.valueOf(LocalDate.of(2021, 9, 1).plusDays((s + k * 37) % 1200)));
+                    pstmt.setString(4, k % 3 == 0 ? null : "B+");
+                    pstmt.setString(5, List.of("Fall", "Spring", "Summer").get(k % 3));
+                    pstmt.setString(6, (2021 + k / 3) + "/" + (2022 + k / 3));
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    INSERT INTO grades (enrollment_id, grade_value, grade_point, graded_date)
+                    SELECT id, grade, 3.30, enrollment_date FROM enrollments WHERE grade IS NOT NULL
+                """);
+        }
+
+        conn.commit();
+        conn.setAutoCommit(true);
+
+        // Fresh tables have no statistics yet, and the optimizer would guess
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE students, courses, enrollments, grades");
+        }
+    }
+
+    private static void executeOnServer(String sql) throws SQLException {
+        try (Connection server = DriverManager.getConnection(MYSQL_URL, MYSQL_USER, MYSQL_PASSWORD);
+             Statement stmt = server.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.skytech.systemdestudent.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that a streamed query is logged with its EXPLAIN plan, which the
+ * driver only allows once the stream has been released. Needs a MySQL
+ * server, like QueryPlanTest:
+ *
+ *     mvn test -Dtest.mysql.url=jdbc:mysql://localhost:3306 \
+ *         -Dtest.mysql.user=root -Dtest.mysql.password=
+ *
+ * Without test.mysql.url the test is skipped.
+ */
+class SlowQueryLogTest {
+
+    private static final String MYSQL_URL = System.getProperty("test.mysql.url");
+    private static final String MYSQL_USER = System.getProperty("test.mysql.user", "root");
+    private static final String MYSQL_PASSWORD = System.getProperty("test.mysql.password", "");
+
+    private static final String TABLES_SQL =
+            "SELECT table_name FROM information_schema.tables WHERE table_schema = ?";
+
+    @Test
+    void streamedQueryIsExplainedAfterItsResultSetIsClosed() throws SQLException {
+        assumeTrue(MYSQL_URL != null, "Set -Dtest.mysql.url to check the slow query log against MySQL");
+
+        // Every execution is slow at a threshold of 0 ms
+        SlowQueryLog log = new SlowQueryLog(true, 0, true, "");
+        StatementRegistry statements = new StatementRegistry(log, 250, 2048);
+
+        long read = 0;
+        try (Connection conn = DriverManager.getConnection(MYSQL_URL, MYSQL_USER, MYSQL_PASSWORD)) {
+            try (PreparedStatement pstmt = statements.prepareStreaming(conn, TABLES_SQL)) {
+                pstmt.setString(1, "information_schema");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                    }
+                    assertTrue(log.recent().isEmpty(), "Logged before the stream was released");
+                }
+            }
+        }
+
+        List<SlowQueryLog.Entry> entries = log.recent();
+        assertEquals(1, entries.size(), entries::toString);
+        SlowQueryLog.Entry entry = entries.get(0);
+        assertTrue(entry.streamed());
+        assertEquals(read, entry.rows());
+        assertNotNull(entry.plan(), entry::toString);
+        assertFalse(entry.plan().startsWith("EXPLAIN failed"), entry::toString);
+    }
+}
@@ -0,0 +1,166 @@
+package org.skytech.systemdestudent.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares SearchIndex against a scan that applies the documented matching
+ * rules to every row, over random rows and queries.
+ */
+class SearchIndexTest {
+
+    private record Row(Long id, String reg, String name, String grade) {
+    }
+
+    private static final String[] FIELDS = {"reg", "name", "grade"};
+    private static final String[] NAMES = {
+            "Ama Mensah", "Kofi Boateng", "Éric Léger", "Zoë O'Neil", "Ana-Maria Pop", "Li Wei", "Jean (JJ) Dupont"
+    };
+    private static final String[] GRADES = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F", "P", "IP", null};
+
+    private final Random random = new Random(42);
+    private SearchIndex<Row> index;
+    private List<Row> rows;
+
+    @BeforeEach
+    void createIndex() {
+        index = new SearchIndex<>(Row::id)
+                .field("reg", Row::reg)
+                .field("name", Row::name)
+                .field("grade", Row::grade);
+        rows = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            rows.add(randomRow(id));
+        }
+        index.setAll(rows);
+    }
+
+    @Test
+    void gradesWithPlusOrMinusMatch() {
+        for (String query : List.of("A-", "b+", "grade:C-", "grade:a", "grade:c+ ama")) {
+            assertMatchesScan(query);
+        }
+        assertTrue(index.search("grade:B+").size() > 0);
+        assertTrue(index.search("A-").size() > 0);
+    }
+
+    @Test
+    void randomQueriesMatchScan() {
+        for (int i = 0; i < 2000; i++) {
+            assertMatchesScan(randomQuery());
+        }
+    }
+
+    @Test
+    void typingAndEditingMatchScan() {
+        for (int i = 0; i < 200; i++) {
+            // Keystroke by keystroke, so results are narrowed from the previous query
+            String query = randomQuery();
+            for (int length = 1; length <= query.length(); length++) {
+                assertMatchesScan(query.substring(0, length));
+            }
+
+            Row changed = randomRow(1 + random.nextInt(rows.size() + 20));
+            rows.removeIf(row -> row.id().equals(changed.id()));
+            if (random.nextBoolean()) {
+                rows.add(changed);
+                index.put(changed);
+            } else {
+                index.removeById(changed.id());
+            }
+        }
+    }
+
+    private void assertMatchesScan(String query) {
+        SearchIndex.Matches<Row> matches = index.search(query);
+        List<Long> expected = new ArrayList<>();
+        List<Long> actual = new ArrayList<>();
+        for (Row row : rows) {
+            if (scanMatches(row, query)) {
+                expected.add(row.id());
+            }
+            if (matches.test(row)) {
+                actual.add(row.id());
+            }
+        }
+        assertEquals(expected, actual, () -> "Query: " + query);
+        assertEquals(expected.size(), matches.size(), () -> "Size of query: " + query);
+    }
+
+    /**
+     * The rules from the SearchIndex documentation, applied without an index.
+     */
+    private static boolean scanMatches(Row row, String query) {
+        String[] values = {
+                SearchIndex.normalize(row.reg()),
+                SearchIndex.normalize(row.name()),
+                SearchIndex.normalize(row.grade())
+        };
+        for (String token : SearchIndex.normalize(query).split("\\s+")) {
+            int field = -1;
+            String text = token;
+            int colon = token.indexOf(':');
+            if (colon > 0 && List.of(FIELDS).contains(token.substring(0, colon))) {
+                field = List.of(FIELDS).indexOf(token.substring(0, colon));
+                text = token.substring(colon + 1);
+            }
+            if (text.isEmpty()) {
+                continue;
+            }
+
+            boolean found = false;
+            for (int f = 0; f < values.length && !found; f++) {
+                if (field < 0 || field == f) {
+                    found = text.length() < 3 ? startsWord(values[f], text) : values[f].contains(text);
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWord(String value, String text) {
+        for (int i = 0; i + text.length() <= value.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1));
+            if (wordStart && value.startsWith(text, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Row randomRow(long id) {
+        return new Row(id,
+                String.format("%s/%03d", random.nextBoolean() ? "CS-2021" : "EE-2022", random.nextInt(1000)),
+                NAMES[random.nextInt(NAMES.length)],
+                GRADES[random.nextInt(GRADES.length)]);
+    }
+
+    private String randomQuery() {
+        StringBuilder query = new StringBuilder();
+        int terms = 1 + random.nextInt(3);
+        for (int t = 0; t < terms; t++) {
+            if (random.nextInt(4) == 0) {
+                query.append(FIELDS[random.nextInt(FIELDS.length)]).append(':');
+            }
+            String source = switch (random.nextInt(3)) {
+                case 0 -> randomRow(0).reg();
+                case 1 -> NAMES[random.nextInt(NAMES.length)];
+                default -> String.valueOf(GRADES[random.nextInt(GRADES.length - 1)]);
+            };
+            int from = random.nextInt(source.length());
+            int to = Math.min(source.length(), from + 1 + random.nextInt(5));
+            query.append(source, from, to).append(' ');
+        }
+        return query.toString();
+    }
+}